@@ -0,0 +1,81 @@
+package ahodanenok.relational.benchmark;
+
+import ahodanenok.relational.Relation;
+import ahodanenok.relational.RelationSchema;
+import ahodanenok.relational.RelationSchemaGenerator;
+import ahodanenok.relational.io.CsvLoader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading of a CSV file, the load rate in bytes per second is reported as the secondary "bytes" result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvLoaderBenchmark {
+
+    @Param({"1000000"})
+    private int cardinality;
+
+    private Path path;
+    private long size;
+    private RelationSchema schema;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class LoadedBytes {
+
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        schema = new RelationSchemaGenerator()
+                .withAttribute("id", Integer.class)
+                .withAttribute("amount", Long.class)
+                .withAttribute("price", Double.class)
+                .withAttribute("name", String.class)
+                .generate();
+
+        path = Files.createTempFile("relation", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("id,amount,price,name\n");
+            for (int i = 0; i < cardinality; i++) {
+                writer.write(i + "," + (i * 1000L) + "," + (i / 8.0) + ",name-" + i + "\n");
+            }
+        }
+
+        size = Files.size(path);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public Relation loadSequential(LoadedBytes loaded) throws IOException {
+        loaded.bytes += size;
+        return new CsvLoader(schema).sequential().load(path);
+    }
+
+    @Benchmark
+    public Relation loadParallel(LoadedBytes loaded) throws IOException {
+        loaded.bytes += size;
+        return new CsvLoader(schema).parallel().load(path);
+    }
+}
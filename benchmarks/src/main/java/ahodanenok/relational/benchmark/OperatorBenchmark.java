@@ -0,0 +1,119 @@
+package ahodanenok.relational.benchmark;
+
+import ahodanenok.relational.Relation;
+import ahodanenok.relational.algebra.*;
+import ahodanenok.relational.expression.IdentityExpression;
+import ahodanenok.relational.expression.RelationalExpression;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static ahodanenok.relational.predicate.Predicates.*;
+
+/**
+ * Execution time of the algebra operators on the generated relations.
+ *
+ * <p>Relations {@code left} and {@code right} have {@code cardinality} tuples each and share the key attribute,
+ * every key value is repeated in 4 tuples. Relation {@code shifted} has the schema of {@code left}
+ * and a half of its tuples, which is used by the set operators.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OperatorBenchmark {
+
+    private static final int PRODUCT_CARDINALITY = 10;
+
+    @Param({"100", "10000"})
+    private int cardinality;
+
+    @Param({"2", "8"})
+    private int degree;
+
+    private IdentityExpression left;
+    private IdentityExpression right;
+    private IdentityExpression indexedRight;
+    private IdentityExpression shifted;
+    private IdentityExpression small;
+    private int keyThreshold;
+
+    @Setup
+    public void setUp() {
+        int keys = Math.max(1, cardinality / 4);
+        left = new IdentityExpression(Relations.generate("l", 0, cardinality, degree, keys));
+        right = new IdentityExpression(Relations.generate("r", 0, cardinality, degree, keys));
+
+        Relation indexed = Relations.generate("r", 0, cardinality, degree, keys);
+        indexed.index(Relations.KEY);
+        indexedRight = new IdentityExpression(indexed);
+
+        shifted = new IdentityExpression(Relations.generate("l", cardinality / 2, cardinality, degree, keys));
+        small = new IdentityExpression(Relations.generate("s", 0, PRODUCT_CARDINALITY, degree, PRODUCT_CARDINALITY));
+        keyThreshold = keys / 2;
+    }
+
+    @Benchmark
+    public Relation join() {
+        return new JoinOperator(left, right).execute();
+    }
+
+    @Benchmark
+    public Relation joinWithIndex() {
+        return new JoinOperator(left, indexedRight).execute();
+    }
+
+    @Benchmark
+    public Relation product() {
+        RelationalExpression renamed = new RenameOperator(small).addMapping(Relations.KEY, "sk");
+        return new ProductOperator(left, renamed).execute();
+    }
+
+    @Benchmark
+    public Relation project() {
+        return new ProjectOperator(left, Relations.KEY).execute();
+    }
+
+    @Benchmark
+    public Relation projectParallel() {
+        return new ProjectOperator(left, Relations.KEY).parallel().execute();
+    }
+
+    @Benchmark
+    public Relation rename() {
+        return new RenameOperator(left).addMapping(Relations.KEY, "key").execute();
+    }
+
+    @Benchmark
+    public Relation restrictFunction() {
+        int threshold = keyThreshold;
+        return new RestrictOperator(left, (r, t) -> (int) t.getValue(Relations.KEY) < threshold).execute();
+    }
+
+    @Benchmark
+    public Relation restrictPredicate() {
+        return new RestrictOperator(left, lt(Relations.KEY, keyThreshold)).execute();
+    }
+
+    @Benchmark
+    public Relation restrictPredicateParallel() {
+        return new RestrictOperator(left, lt(Relations.KEY, keyThreshold)).parallel().execute();
+    }
+
+    @Benchmark
+    public Relation union() {
+        return new UnionOperator(left, shifted).execute();
+    }
+
+    @Benchmark
+    public Relation intersect() {
+        return new IntersectOperator(left, shifted).execute();
+    }
+
+    @Benchmark
+    public Relation difference() {
+        return new DifferenceOperator(left, shifted).execute();
+    }
+}
@@ -0,0 +1,49 @@
+package ahodanenok.relational.benchmark;
+
+import ahodanenok.relational.Relation;
+import ahodanenok.relational.RelationSelector;
+import ahodanenok.relational.Tuple;
+import ahodanenok.relational.TupleSelector;
+
+/**
+ * Deterministic test data for the benchmarks.
+ *
+ * <p>Tuple with the number {@code i} has the key attribute {@code k} and {@code degree - 1} attributes
+ * named by the prefix and position, their values are derived from {@code i}, so the tuples are distinct
+ * and relations with the same prefix share the tuples with the same numbers.
+ */
+final class Relations {
+
+    static final String KEY = "k";
+
+    private Relations() { }
+
+    static Relation generate(String prefix, int from, int cardinality, int degree, int keys) {
+        RelationSelector selector = new RelationSelector();
+        for (int i = from; i < from + cardinality; i++) {
+            selector.addTuple(tuple(prefix, i, degree, keys));
+        }
+
+        return selector.select();
+    }
+
+    static Tuple tuple(String prefix, int i, int degree, int keys) {
+        TupleSelector selector = new TupleSelector().withValue(KEY, i % keys);
+        for (int j = 1; j < degree; j++) {
+            selector.withValue(prefix + j, value(i, j));
+        }
+
+        return selector.select();
+    }
+
+    private static Object value(int i, int j) {
+        switch (j % 3) {
+            case 0:
+                return "v" + i;
+            case 1:
+                return i;
+            default:
+                return (long) i * j;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ahodanenok.relational.benchmark;
+
+import ahodanenok.relational.Relation;
+import ahodanenok.relational.RelationSelector;
+import ahodanenok.relational.Tuple;
+import ahodanenok.relational.TupleSelector;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction of tuples and relations with the selectors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SelectorBenchmark {
+
+    @Param({"100", "10000"})
+    private int cardinality;
+
+    @Param({"2", "8"})
+    private int degree;
+
+    private String[] names;
+    private Object[] values;
+    private Tuple[] tuples;
+
+    @Setup
+    public void setUp() {
+        names = new String[degree];
+        values = new Object[degree];
+        for (int i = 0; i < degree; i++) {
+            names[i] = "a" + i;
+            values[i] = i;
+        }
+
+        tuples = new Tuple[cardinality];
+        for (int i = 0; i < cardinality; i++) {
+            tuples[i] = Relations.tuple("a", i, degree, cardinality);
+        }
+    }
+
+    @Benchmark
+    public Tuple selectTuple() {
+        TupleSelector selector = new TupleSelector();
+        for (int i = 0; i < names.length; i++) {
+            selector.withValue(names[i], values[i]);
+        }
+
+        return selector.select();
+    }
+
+    @Benchmark
+    public Relation selectRelation() {
+        RelationSelector selector = new RelationSelector();
+        for (Tuple tuple : tuples) {
+            selector.addTuple(tuple);
+        }
+
+        return selector.select();
+    }
+}
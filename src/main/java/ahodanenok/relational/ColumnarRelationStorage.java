@@ -0,0 +1,399 @@
+package ahodanenok.relational;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Storage keeping values of each attribute in a separate column.
+ *
+ * <p>Values of {@code Integer}, {@code Long} and {@code Double} attributes are stored in primitive arrays,
+ * values of other attributes are stored in object arrays. Rows are deduplicated with a hash index over all columns.
+ *
+ * <p>Operators can scan only the columns they need instead of visiting every tuple,
+ * see {@link #selectRows(int[], int)} and {@link #project(RelationSchema)}.
+ */
+public final class ColumnarRelationStorage implements RelationStorage {
+
+    private static final byte OBJECT = 0;
+    private static final byte INT = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+
+    private final TupleSchema schema;
+    private final byte[] types;
+    private final Object[] columns;
+    private final int[] hashes;
+    // open addressing table of rows, each slot holds row + 1 and 0 marks an empty slot
+    private final int[] index;
+    private int size;
+
+    private ColumnarRelationStorage(TupleSchema schema, int capacity) {
+        this.schema = schema;
+        this.types = new byte[schema.degree()];
+        this.columns = new Object[schema.degree()];
+        for (int i = 0; i < columns.length; i++) {
+            Class<?> type = schema.getAttribute(i).getType();
+            if (type == Integer.class) {
+                types[i] = INT;
+                columns[i] = new int[capacity];
+            } else if (type == Long.class) {
+                types[i] = LONG;
+                columns[i] = new long[capacity];
+            } else if (type == Double.class) {
+                types[i] = DOUBLE;
+                columns[i] = new double[capacity];
+            } else {
+                types[i] = OBJECT;
+                columns[i] = new Object[capacity];
+            }
+        }
+
+        this.hashes = new int[capacity];
+        this.index = new int[tableSize(capacity)];
+    }
+
+    static ColumnarRelationStorage of(TupleSchema schema, Collection<Tuple> tuples) {
+        ColumnarRelationStorage storage = new ColumnarRelationStorage(schema, tuples.size());
+        for (Tuple tuple : tuples) {
+            storage.add(tuple);
+        }
+
+        return storage;
+    }
+
+    private void add(Tuple tuple) {
+        int hash = hash(tuple);
+        int pos = probe(hash, tuple);
+        if (index[pos] != 0) {
+            return;
+        }
+
+        int row = size++;
+        for (int i = 0; i < columns.length; i++) {
+            setValue(i, row, tuple.getValue(i));
+        }
+        hashes[row] = hash;
+        index[pos] = row + 1;
+    }
+
+    @Override
+    public RelationSchema schema() {
+        return schema.relationSchema();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Tuple tuple) {
+        if (tuple.schema() != schema) {
+            return false;
+        }
+
+        return index[probe(hash(tuple), tuple)] != 0;
+    }
+
+    @Override
+    public Stream<Tuple> tuples() {
+        return IntStream.range(0, size).mapToObj(this::getTuple);
+    }
+
+    /**
+     * Tuple stored in the given row.
+     */
+    public Tuple getTuple(int row) {
+        Object[] values = new Object[columns.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getValue(row, i);
+        }
+
+        return new Tuple(schema, values);
+    }
+
+    /**
+     * Value of the attribute in the given slot stored in the given row.
+     */
+    public Object getValue(int row, int slot) {
+        switch (types[slot]) {
+            case INT:
+                return ((int[]) columns[slot])[row];
+            case LONG:
+                return ((long[]) columns[slot])[row];
+            case DOUBLE:
+                return ((double[]) columns[slot])[row];
+            default:
+                return ((Object[]) columns[slot])[row];
+        }
+    }
+
+    /**
+     * Values of the {@code Integer} attribute in the given slot, the array can be longer than the storage
+     * and must not be modified.
+     *
+     * @throws IllegalArgumentException if the attribute in the slot is not of type {@code Integer}
+     */
+    public int[] intColumn(int slot) {
+        return (int[]) column(slot, INT);
+    }
+
+    /**
+     * Values of the {@code Long} attribute in the given slot, the array can be longer than the storage
+     * and must not be modified.
+     *
+     * @throws IllegalArgumentException if the attribute in the slot is not of type {@code Long}
+     */
+    public long[] longColumn(int slot) {
+        return (long[]) column(slot, LONG);
+    }
+
+    /**
+     * Values of the {@code Double} attribute in the given slot, the array can be longer than the storage
+     * and must not be modified.
+     *
+     * @throws IllegalArgumentException if the attribute in the slot is not of type {@code Double}
+     */
+    public double[] doubleColumn(int slot) {
+        return (double[]) column(slot, DOUBLE);
+    }
+
+    private Object column(int slot, byte type) {
+        if (types[slot] != type) {
+            Attribute attribute = schema.getAttribute(slot);
+            throw new IllegalArgumentException(String.format(
+                    "Attribute '%s' of type '%s' is not stored in a primitive column of this type",
+                    attribute.getName(), attribute.getType().getName()));
+        }
+
+        return columns[slot];
+    }
+
+    /**
+     * Create a storage with the given rows only, columns are copied one by one.
+     *
+     * @param rows rows to copy in ascending order
+     * @param count number of rows to take from the array
+     */
+    public ColumnarRelationStorage selectRows(int[] rows, int count) {
+        ColumnarRelationStorage result = new ColumnarRelationStorage(schema, count);
+        for (int i = 0; i < columns.length; i++) {
+            gather(types[i], columns[i], result.columns[i], rows, count);
+        }
+        for (int r = 0; r < count; r++) {
+            result.hashes[r] = hashes[rows[r]];
+            result.insertUnique(r);
+        }
+        result.size = count;
+
+        return result;
+    }
+
+    /**
+     * Create a storage with a subset of the attributes, only columns of the given schema are scanned.
+     * Rows which become equal after the projection are stored only once.
+     *
+     * @param resultSchema schema with a subset of attributes of this storage
+     */
+    public ColumnarRelationStorage project(RelationSchema resultSchema) {
+        TupleSchema targetSchema = resultSchema.tupleSchema();
+        int[] slots = new int[targetSchema.degree()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = schema.indexOf(targetSchema.getAttribute(i).getName());
+        }
+
+        int[] projectedHashes = new int[size];
+        Arrays.fill(projectedHashes, 1);
+        for (int slot : slots) {
+            for (int row = 0; row < size; row++) {
+                projectedHashes[row] = 31 * projectedHashes[row] + valueHash(slot, row);
+            }
+        }
+
+        int[] table = new int[tableSize(size)];
+        int mask = table.length - 1;
+        int[] rows = new int[size];
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            int hash = projectedHashes[row];
+            int pos = spread(hash) & mask;
+            boolean duplicate = false;
+            while (table[pos] != 0) {
+                int other = table[pos] - 1;
+                if (projectedHashes[other] == hash && rowsEqual(other, row, slots)) {
+                    duplicate = true;
+                    break;
+                }
+
+                pos = (pos + 1) & mask;
+            }
+
+            if (!duplicate) {
+                table[pos] = row + 1;
+                rows[count++] = row;
+            }
+        }
+
+        ColumnarRelationStorage result = new ColumnarRelationStorage(targetSchema, count);
+        for (int i = 0; i < slots.length; i++) {
+            gather(types[slots[i]], columns[slots[i]], result.columns[i], rows, count);
+        }
+        for (int r = 0; r < count; r++) {
+            result.hashes[r] = projectedHashes[rows[r]];
+            result.insertUnique(r);
+        }
+        result.size = count;
+
+        return result;
+    }
+
+    private int probe(int hash, Tuple tuple) {
+        int mask = index.length - 1;
+        int pos = spread(hash) & mask;
+        while (index[pos] != 0) {
+            int row = index[pos] - 1;
+            if (hashes[row] == hash && rowEquals(row, tuple)) {
+                return pos;
+            }
+
+            pos = (pos + 1) & mask;
+        }
+
+        return pos;
+    }
+
+    private void insertUnique(int row) {
+        int mask = index.length - 1;
+        int pos = spread(hashes[row]) & mask;
+        while (index[pos] != 0) {
+            pos = (pos + 1) & mask;
+        }
+
+        index[pos] = row + 1;
+    }
+
+    private boolean rowEquals(int row, Tuple tuple) {
+        for (int i = 0; i < columns.length; i++) {
+            if (!valueEquals(i, row, tuple.getValue(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean rowsEqual(int rowA, int rowB, int[] slots) {
+        for (int slot : slots) {
+            if (!valueEquals(slot, rowA, getValue(rowB, slot))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean valueEquals(int slot, int row, Object value) {
+        switch (types[slot]) {
+            case INT:
+                return ((int[]) columns[slot])[row] == (Integer) value;
+            case LONG:
+                return ((long[]) columns[slot])[row] == (Long) value;
+            case DOUBLE:
+                // the same as Double.equals
+                return Double.doubleToLongBits(((double[]) columns[slot])[row])
+                        == Double.doubleToLongBits((Double) value);
+            default:
+                return ((Object[]) columns[slot])[row].equals(value);
+        }
+    }
+
+    private void setValue(int slot, int row, Object value) {
+        switch (types[slot]) {
+            case INT:
+                ((int[]) columns[slot])[row] = (Integer) value;
+                break;
+            case LONG:
+                ((long[]) columns[slot])[row] = (Long) value;
+                break;
+            case DOUBLE:
+                ((double[]) columns[slot])[row] = (Double) value;
+                break;
+            default:
+                ((Object[]) columns[slot])[row] = value;
+        }
+    }
+
+    private int valueHash(int slot, int row) {
+        switch (types[slot]) {
+            case INT:
+                return Integer.hashCode(((int[]) columns[slot])[row]);
+            case LONG:
+                return Long.hashCode(((long[]) columns[slot])[row]);
+            case DOUBLE:
+                return Double.hashCode(((double[]) columns[slot])[row]);
+            default:
+                return ((Object[]) columns[slot])[row].hashCode();
+        }
+    }
+
+    private static void gather(byte type, Object source, Object target, int[] rows, int count) {
+        switch (type) {
+            case INT: {
+                int[] s = (int[]) source;
+                int[] t = (int[]) target;
+                for (int r = 0; r < count; r++) {
+                    t[r] = s[rows[r]];
+                }
+                break;
+            }
+            case LONG: {
+                long[] s = (long[]) source;
+                long[] t = (long[]) target;
+                for (int r = 0; r < count; r++) {
+                    t[r] = s[rows[r]];
+                }
+                break;
+            }
+            case DOUBLE: {
+                double[] s = (double[]) source;
+                double[] t = (double[]) target;
+                for (int r = 0; r < count; r++) {
+                    t[r] = s[rows[r]];
+                }
+                break;
+            }
+            default: {
+                Object[] s = (Object[]) source;
+                Object[] t = (Object[]) target;
+                for (int r = 0; r < count; r++) {
+                    t[r] = s[rows[r]];
+                }
+            }
+        }
+    }
+
+    // the same as Arrays.hashCode of the tuple's values
+    private static int hash(Tuple tuple) {
+        int hash = 1;
+        for (int i = 0; i < tuple.degree(); i++) {
+            hash = 31 * hash + tuple.getValue(i).hashCode();
+        }
+
+        return hash;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int tableSize(int capacity) {
+        int size = 2;
+        while (size < capacity * 2) {
+            size <<= 1;
+        }
+
+        return size;
+    }
+}
@@ -0,0 +1,36 @@
+package ahodanenok.relational;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Storage keeping tuples in a hash set, used by default.
+ */
+public final class HashRelationStorage implements RelationStorage {
+
+    private final Set<Tuple> tuples;
+
+    /**
+     * Create a storage backed by the given set, it is not copied and must not be modified afterwards.
+     */
+    public HashRelationStorage(Set<Tuple> tuples) {
+        Objects.requireNonNull(tuples, "Tuples can't be null");
+        this.tuples = tuples;
+    }
+
+    @Override
+    public int size() {
+        return tuples.size();
+    }
+
+    @Override
+    public boolean contains(Tuple tuple) {
+        return tuples.contains(tuple);
+    }
+
+    @Override
+    public Stream<Tuple> tuples() {
+        return tuples.stream();
+    }
+}
@@ -0,0 +1,25 @@
+package ahodanenok.relational;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Storage streaming its tuples in the ascending order of the values of some of the attributes.
+ *
+ * <p>Values are compared with {@link Comparable#compareTo(Object)}, which must be consistent with equals, tuples with the same values
+ * of the ordering attributes follow in no particular order. Join and set operators merge relations
+ * with such storages instead of hashing them, see {@link SortedRelationStorage#comparator(RelationSchema, List)}.
+ */
+public interface OrderedRelationStorage extends RelationStorage {
+
+    /**
+     * Names of the attributes the tuples are ordered by, the first one is the most significant.
+     */
+    List<String> ordering();
+
+    /**
+     * Stream of tuples in the storage in the ascending order of the ordering attributes.
+     */
+    @Override
+    Stream<Tuple> tuples();
+}
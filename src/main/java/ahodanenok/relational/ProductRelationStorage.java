@@ -0,0 +1,89 @@
+package ahodanenok.relational;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Storage of the cartesian product of two relations, which doesn't keep the combined tuples.
+ *
+ * <p>Size is the product of the cardinalities of the relations, it's computed on the first call.
+ * A lookup splits the tuple into the parts of the relations and checks both of them.
+ * Combined tuples are created only when they are streamed, tuples of the right relation
+ * are collected into an array on the first streaming and reused for each left tuple.
+ */
+public final class ProductRelationStorage implements RelationStorage {
+
+    private final TupleSchema schema;
+    private final Relation left;
+    private final Relation right;
+    private final TupleFactory tupleFactory;
+    private final TupleFactory leftFactory;
+    private final TupleFactory rightFactory;
+    // -1 means it is not computed yet
+    private volatile long size = -1;
+    private volatile Tuple[] rightTuples;
+
+    /**
+     * @param schema schema of the product, which has the attributes of both relations
+     */
+    public ProductRelationStorage(RelationSchema schema, Relation left, Relation right) {
+        Objects.requireNonNull(schema, "Relation schema can't be null");
+        Objects.requireNonNull(left, "Relation can't be null: left");
+        Objects.requireNonNull(right, "Relation can't be null: right");
+
+        this.schema = schema.tupleSchema();
+        this.left = left;
+        this.right = right;
+        this.tupleFactory = TupleFactory.union(left.schema(), right.schema(), schema);
+        this.leftFactory = TupleFactory.projection(schema, left.schema());
+        this.rightFactory = TupleFactory.projection(schema, right.schema());
+    }
+
+    @Override
+    public RelationSchema schema() {
+        return schema.relationSchema();
+    }
+
+    /**
+     * Number of tuples in the product, {@code Integer.MAX_VALUE} if there are more of them, see {@link #longSize()}.
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(longSize(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Number of tuples in the product, which can exceed the range of an int.
+     */
+    public long longSize() {
+        long result = size;
+        if (result < 0) {
+            result = (long) left.cardinality() * right.cardinality();
+            size = result;
+        }
+
+        return result;
+    }
+
+    @Override
+    public boolean contains(Tuple tuple) {
+        if (tuple.schema() != schema) {
+            return false;
+        }
+
+        return left.contains(leftFactory.create(tuple)) && right.contains(rightFactory.create(tuple));
+    }
+
+    @Override
+    public Stream<Tuple> tuples() {
+        Tuple[] tuples = rightTuples;
+        if (tuples == null) {
+            // concurrent streams might collect the tuples twice, but the result is the same
+            rightTuples = tuples = right.tuples().toArray(Tuple[]::new);
+        }
+
+        Tuple[] inner = tuples;
+        return left.tuples().flatMap(tl -> Arrays.stream(inner).map(tr -> tupleFactory.create(tl, tr)));
+    }
+}
@@ -1,12 +1,21 @@
 package ahodanenok.relational;
 
-import java.util.Collections;
-import java.util.Objects;
-import java.util.Set;
+import ahodanenok.relational.exception.RelationalException;
+import ahodanenok.relational.exception.TupleSchemaMismatchException;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 /**
  * Relation is an unordered set of tuples, which have the same schema.
+ *
+ * <p>Tuples are kept in a {@link RelationStorage}, by default it is a hash set of tuples.
+ * Relation can also keep hash indexes on some of its attributes, which are used by
+ * equality restrictions and joins, see {@link #index(String...)}.
+ *
+ * <p>Comparisons of relations first check their cardinalities and {@link #fingerprint() fingerprints},
+ * tuples are compared one by one only if those match.
  */
 public final class Relation {
 
@@ -14,23 +23,112 @@ public final class Relation {
     public static final Relation NULLARY_EMPTY = new Relation(RelationSchema.EMPTY, Collections.emptySet());
 
     private final RelationSchema schema;
-    private final Set<Tuple> tuples;
+    private final RelationStorage storage;
+    private final Map<Set<String>, TupleIndex> indexes = new ConcurrentHashMap<>();
+    // relation is immutable, so the fingerprint is computed once, 0 means it is not computed yet
+    private volatile long fingerprint;
 
     Relation(RelationSchema schema, Set<Tuple> tuples) {
+        this(schema, new HashRelationStorage(tuples), false);
+    }
+
+    /**
+     * Create a relation backed by the given storage.
+     *
+     * <p>If the storage reports its schema, it must be the given schema.
+     * Otherwise each tuple in the storage is checked to have the given schema.
+     *
+     * @throws RelationalException if the storage reports another schema
+     * @throws TupleSchemaMismatchException if the storage has a tuple of another schema
+     */
+    public Relation(RelationSchema schema, RelationStorage storage) {
+        this(schema, storage, true);
+    }
+
+    private Relation(RelationSchema schema, RelationStorage storage, boolean checked) {
+        Objects.requireNonNull(schema, "Relation schema can't be null");
+        Objects.requireNonNull(storage, "Relation storage can't be null");
+        if (checked) {
+            checkStorage(schema, storage);
+        }
+
         this.schema = schema;
-        this.tuples = Collections.unmodifiableSet(tuples);
+        this.storage = storage;
+    }
+
+    private static void checkStorage(RelationSchema schema, RelationStorage storage) {
+        RelationSchema storageSchema = storage.schema();
+        if (storageSchema != null) {
+            if (storageSchema != schema) {
+                throw new RelationalException("Storage schema doesn't equal relation schema");
+            }
+
+            return;
+        }
+
+        storage.tuples().forEach(tuple -> {
+            Objects.requireNonNull(tuple, "Tuple can't be null");
+            if (tuple.schema() != schema.tupleSchema()) {
+                throw new TupleSchemaMismatchException(tuple, schema);
+            }
+        });
     }
 
     public RelationSchema schema() {
         return schema;
     }
 
+    /**
+     * Storage keeping the tuples of the relation.
+     */
+    public RelationStorage storage() {
+        return storage;
+    }
+
+    /**
+     * Index of the tuples on the given attributes.
+     * It is built on the first call and kept with the relation, following calls return the same index.
+     *
+     * @throws ahodanenok.relational.exception.AttributeNotFoundException if an attribute is not in the relation
+     */
+    public TupleIndex index(String... attributeNames) {
+        Objects.requireNonNull(attributeNames, "Attribute names can't be null");
+        Set<String> names = new HashSet<>();
+        for (String name : attributeNames) {
+            Objects.requireNonNull(name, "Attribute name can't be null");
+            names.add(name.trim());
+        }
+
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("At least one attribute must be indexed");
+        }
+
+        return indexes.computeIfAbsent(Collections.unmodifiableSet(names), n -> TupleIndex.build(this, n));
+    }
+
+    /**
+     * Index on exactly the given attributes if it was already built.
+     *
+     * @return index or null if there is no such index
+     */
+    public TupleIndex findIndex(Collection<String> attributeNames) {
+        Objects.requireNonNull(attributeNames, "Attribute names can't be null");
+        return indexes.get(new HashSet<>(attributeNames));
+    }
+
+    /**
+     * Indexes which were built for the relation.
+     */
+    public Collection<TupleIndex> indexes() {
+        return Collections.unmodifiableCollection(indexes.values());
+    }
+
     public int degree() {
         return schema.degree();
     }
 
     public int cardinality() {
-        return tuples.size();
+        return storage.size();
     }
 
     /**
@@ -49,12 +147,12 @@ public final class Relation {
      * @throws IllegalStateException if the relation is empty or contains more than one tuple
      */
     public Tuple getSingleTuple() {
-        if (tuples.size() != 1) {
+        if (storage.size() != 1) {
             throw new IllegalStateException(
                     "To extract a single tuple it must exist and be the only tuple in the relation");
         }
 
-        return tuples.iterator().next();
+        return storage.tuples().iterator().next();
     }
 
     /**
@@ -62,14 +160,14 @@ public final class Relation {
      * If the relation is empty, then an empty stream will be returned.
      */
     public Stream<Tuple> tuples() {
-        return tuples.stream();
+        return storage.tuples();
     }
 
     /**
      * Check if tuple is present in the relation.
      */
     public boolean contains(Tuple tuple) {
-        return tuples.contains(tuple);
+        return storage.contains(tuple);
     }
 
     /**
@@ -79,13 +177,48 @@ public final class Relation {
         return isSupersetOf(relation, false);
     }
 
+    /**
+     * Order-independent hash of the tuples in the relation.
+     *
+     * <p>Relations with the same tuples have the same fingerprint, so different fingerprints
+     * mean different relations. It is computed on the first call and cached.
+     */
+    public long fingerprint() {
+        long result = fingerprint;
+        if (result == 0) {
+            result = tuples().mapToLong(t -> mix(t.hashCode())).sum();
+            fingerprint = result;
+        }
+
+        return result;
+    }
+
+    // spreads bits of the tuple hash over the whole long, so that the sum doesn't lose them (SplitMix64 finalizer)
+    private static long mix(int hash) {
+        long z = hash * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
     /**
      * Check if the relation is superset of the given relation.
      * @param proper check if proper superset
      */
     public boolean isSupersetOf(Relation relation, boolean proper) {
         Objects.requireNonNull(relation, "Relation can't be null");
-        boolean superset = tuples.containsAll(relation.tuples);
+        if (relation.cardinality() > cardinality()) {
+            return false;
+        }
+
+        // a superset of the same size is the same relation
+        if (relation.cardinality() == cardinality()
+                && schema.equals(relation.schema)
+                && fingerprint() != relation.fingerprint()) {
+            return false;
+        }
+
+        boolean superset = relation.tuples().allMatch(storage::contains);
         if (proper) {
             return superset && cardinality() > relation.cardinality();
         } else {
@@ -111,7 +244,8 @@ public final class Relation {
 
     @Override
     public int hashCode() {
-        return 31 * schema.hashCode() + tuples.hashCode();
+        long fingerprint = fingerprint();
+        return 31 * schema.hashCode() + (int) (fingerprint ^ (fingerprint >>> 32));
     }
 
     @Override
@@ -130,10 +264,14 @@ public final class Relation {
 
         // relations are equal iff they have the same attributes and the same tuples
         Relation other = (Relation) obj;
-        if (!schema.equals(other.schema)) {
+        if (!schema.equals(other.schema) || cardinality() != other.cardinality()) {
+            return false;
+        }
+
+        if (fingerprint() != other.fingerprint()) {
             return false;
         }
 
-        return tuples.equals(other.tuples);
+        return other.tuples().allMatch(storage::contains);
     }
 }
@@ -0,0 +1,103 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.exception.TupleSchemaMismatchException;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Builder of relations from tuples which are known to have the relation schema.
+ *
+ * <p>Unlike {@link RelationSelector}, the schema is not inferred from the tuples and only the schema instance
+ * of each tuple is compared, so it is intended for operators and executors producing tuples of an already
+ * validated schema.
+ */
+public final class RelationBuilder {
+
+    private final RelationSchema schema;
+    private Set<Tuple> tuples;
+
+    public RelationBuilder(RelationSchema schema) {
+        this(schema, 16);
+    }
+
+    /**
+     * @param expectedCardinality number of tuples expected to be added, used to presize the storage
+     */
+    public RelationBuilder(RelationSchema schema, int expectedCardinality) {
+        Objects.requireNonNull(schema, "Relation schema can't be null");
+        if (expectedCardinality < 0) {
+            throw new IllegalArgumentException("Expected cardinality can't be negative: " + expectedCardinality);
+        }
+
+        this.schema = schema;
+        this.tuples = new HashSet<>(capacity(expectedCardinality));
+    }
+
+    /**
+     * Create a relation taking ownership of the given set of tuples, the set is not copied
+     * and must not be modified afterwards.
+     */
+    public static Relation of(RelationSchema schema, Set<Tuple> tuples) {
+        Objects.requireNonNull(schema, "Relation schema can't be null");
+        Objects.requireNonNull(tuples, "Tuples can't be null");
+        for (Tuple tuple : tuples) {
+            requireSchema(schema, tuple);
+        }
+
+        return new Relation(schema, tuples);
+    }
+
+    /**
+     * Add a tuple, duplicates are ignored.
+     *
+     * @throws TupleSchemaMismatchException if the tuple has another schema
+     */
+    public RelationBuilder add(Tuple tuple) {
+        requireNotBuilt();
+        requireSchema(schema, tuple);
+        tuples.add(tuple);
+        return this;
+    }
+
+    public RelationBuilder addAll(Collection<Tuple> tuples) {
+        requireNotBuilt();
+        for (Tuple tuple : tuples) {
+            requireSchema(schema, tuple);
+        }
+
+        this.tuples.addAll(tuples);
+        return this;
+    }
+
+    /**
+     * Create the relation, the builder can't be used after that.
+     */
+    public Relation build() {
+        requireNotBuilt();
+        Relation relation = new Relation(schema, tuples);
+        tuples = null;
+        return relation;
+    }
+
+    private void requireNotBuilt() {
+        if (tuples == null) {
+            throw new IllegalStateException("Relation is already built");
+        }
+    }
+
+    private static void requireSchema(RelationSchema schema, Tuple tuple) {
+        Objects.requireNonNull(tuple, "Tuple can't be null");
+        // tuple schemas are interned, so comparing instances is enough
+        if (tuple.schema() != schema.tupleSchema()) {
+            throw new TupleSchemaMismatchException(tuple, schema);
+        }
+    }
+
+    private static int capacity(int expectedCardinality) {
+        // the same sizing as in HashSet(Collection), but not above the maximum table size
+        return Math.max((int) (Math.min(expectedCardinality, 1 << 29) / .75f) + 1, 16);
+    }
+}
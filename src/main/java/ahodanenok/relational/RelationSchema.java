@@ -1,16 +1,16 @@
 package ahodanenok.relational;
 
-import java.util.Collections;
-import java.util.Set;
 import java.util.stream.Stream;
 
 /**
  * Unordered set of attributes in a relation.
  * All tuples in a relation have only the attributes defined in its schema.
+ *
+ * Like tuple schemas, relation schemas are interned: equal schemas are always the same instance.
  */
 public final class RelationSchema {
 
-    public static RelationSchema EMPTY = new RelationSchema(new TupleSchema(Collections.emptySet()));
+    public static final RelationSchema EMPTY = TupleSchema.EMPTY.relationSchema();
 
     private final TupleSchema schema;
 
@@ -18,6 +18,10 @@ public final class RelationSchema {
         this.schema = schema;
     }
 
+    TupleSchema tupleSchema() {
+        return schema;
+    }
+
     public int degree() {
         return schema.degree();
     }
@@ -26,10 +30,26 @@ public final class RelationSchema {
         return schema.getAttribute(name);
     }
 
+    /**
+     * Attribute in the given slot.
+     * @throws IndexOutOfBoundsException if there is no such slot in the schema
+     */
+    public Attribute getAttribute(int index) {
+        return schema.getAttribute(index);
+    }
+
     public boolean hasAttribute(String name) {
         return schema.hasAttribute(name);
     }
 
+    /**
+     * Slot of the attribute with the given name in the tuples of the relation
+     * or -1 if there is no such attribute in the schema.
+     */
+    public int indexOf(String name) {
+        return schema.indexOf(name);
+    }
+
     public Stream<Attribute> attributes() {
         return schema.attributes();
     }
@@ -41,19 +61,7 @@ public final class RelationSchema {
 
     @Override
     public boolean equals(Object obj) {
-        if (this == obj) {
-            return true;
-        }
-
-        if (obj == null) {
-            return false;
-        }
-
-        if (!this.getClass().equals(obj.getClass())) {
-            return false;
-        }
-
-        RelationSchema other = (RelationSchema) obj;
-        return schema.equals(other.schema);
+        // there is only one relation schema for each of the interned tuple schemas
+        return this == obj;
     }
 }
@@ -20,6 +20,6 @@ public final class RelationSchemaGenerator {
     }
 
     public RelationSchema generate() {
-        return new RelationSchema(tupleSchemaGenerator.generate());
+        return tupleSchemaGenerator.generate().relationSchema();
     }
 }
@@ -3,9 +3,7 @@ package ahodanenok.relational;
 import ahodanenok.relational.exception.RelationalException;
 import ahodanenok.relational.exception.TupleSchemaMismatchException;
 
-import java.util.HashSet;
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
 
 /**
  * Select a relation from the set of all relations.
@@ -19,6 +17,8 @@ public final class RelationSelector {
 
     private RelationSchema schema;
     private final Set<Tuple> tuples = new HashSet<>();
+    private boolean columnar;
+    private final List<String[]> indexes = new ArrayList<>();
 
     public RelationSelector withSchema(RelationSchema schema) {
         Objects.requireNonNull(schema, "Relation schema can't be null");
@@ -26,9 +26,26 @@ public final class RelationSelector {
         return this;
     }
 
+    /**
+     * Store tuples of the selected relation in columns, see {@link ColumnarRelationStorage}.
+     */
+    public RelationSelector withColumnarStorage() {
+        this.columnar = true;
+        return this;
+    }
+
+    /**
+     * Build an index on the given attributes together with the relation, see {@link Relation#index(String...)}.
+     */
+    public RelationSelector withIndex(String... attributeNames) {
+        Objects.requireNonNull(attributeNames, "Attribute names can't be null");
+        indexes.add(attributeNames.clone());
+        return this;
+    }
+
     public RelationSelector addTuple(Tuple tuple) {
-        RelationSchema tupleSchema = new RelationSchema(tuple.schema());
-        if (schema != null && !tupleSchema.equals(schema)) {
+        RelationSchema tupleSchema = tuple.schema().relationSchema();
+        if (schema != null && tupleSchema != schema) {
             throw new TupleSchemaMismatchException(tuple, schema);
         }
 
@@ -48,6 +65,17 @@ public final class RelationSelector {
             throw new RelationalException("Schema must be specified explicitly if the relation is empty");
         }
 
-        return new Relation(schema, tuples);
+        Relation relation;
+        if (columnar) {
+            relation = new Relation(schema, ColumnarRelationStorage.of(schema.tupleSchema(), tuples));
+        } else {
+            relation = new Relation(schema, tuples);
+        }
+
+        for (String[] attributeNames : indexes) {
+            relation.index(attributeNames);
+        }
+
+        return relation;
     }
 }
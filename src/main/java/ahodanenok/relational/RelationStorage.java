@@ -0,0 +1,36 @@
+package ahodanenok.relational;
+
+import java.util.stream.Stream;
+
+/**
+ * Physical representation of the tuples in a relation.
+ *
+ * <p>Storage is immutable, all of its tuples have the schema of the relation and there are no duplicates.
+ */
+public interface RelationStorage {
+
+    /**
+     * Number of tuples in the storage.
+     */
+    int size();
+
+    /**
+     * Check if tuple is present in the storage.
+     */
+    boolean contains(Tuple tuple);
+
+    /**
+     * Stream of tuples in the storage without any particular order.
+     */
+    Stream<Tuple> tuples();
+
+    /**
+     * Schema of the tuples in the storage if the storage knows it.
+     * A relation is created without checking the tuples one by one only for a storage reporting its schema.
+     *
+     * @return schema of the tuples or null if it is unknown
+     */
+    default RelationSchema schema() {
+        return null;
+    }
+}
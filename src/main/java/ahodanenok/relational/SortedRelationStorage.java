@@ -0,0 +1,186 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.exception.RelationalException;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Storage keeping tuples in an array sorted by the values of the given attributes.
+ *
+ * <p>Lookups are binary searches over the array, which need no additional memory.
+ * Ordering attributes must have types which are ordered consistently with their equality,
+ * see {@link #comparator(RelationSchema, List)}.
+ */
+public final class SortedRelationStorage implements OrderedRelationStorage {
+
+    // types with the natural ordering consistent with equals, so merges and hash lookups find the same tuples
+    private static final Set<Class<?>> ORDERED_TYPES = new HashSet<>(Arrays.asList(
+            Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+            Character.class, Boolean.class, String.class, BigInteger.class,
+            LocalDate.class, LocalTime.class, LocalDateTime.class, Instant.class));
+
+    private final TupleSchema schema;
+    private final List<String> ordering;
+    private final Comparator<Tuple> comparator;
+    private final Tuple[] tuples;
+
+    private SortedRelationStorage(TupleSchema schema, List<String> ordering, Comparator<Tuple> comparator, Tuple[] tuples) {
+        this.schema = schema;
+        this.ordering = ordering;
+        this.comparator = comparator;
+        this.tuples = tuples;
+    }
+
+    /**
+     * Create a relation with the tuples of the given one sorted by the given attributes.
+     *
+     * @throws ahodanenok.relational.exception.AttributeNotFoundException if an attribute is not in the relation
+     * @throws RelationalException if an attribute has a type which can't be ordered
+     */
+    public static Relation sort(Relation relation, String... attributeNames) {
+        Objects.requireNonNull(relation, "Relation can't be null");
+        Objects.requireNonNull(attributeNames, "Attribute names can't be null");
+
+        List<String> ordering = ordering(relation.schema(), Arrays.asList(attributeNames));
+        Comparator<Tuple> comparator = comparator(relation.schema(), ordering);
+        Tuple[] tuples = relation.tuples().toArray(Tuple[]::new);
+        Arrays.sort(tuples, comparator);
+
+        return new Relation(relation.schema(), new SortedRelationStorage(relation.schema().tupleSchema(), ordering, comparator, tuples));
+    }
+
+    /**
+     * Create a storage with the tuples which are already sorted by the given attributes.
+     * Tuples are not copied and must be unique.
+     *
+     * @throws IllegalArgumentException if the tuples are not sorted
+     */
+    public static SortedRelationStorage ofSorted(RelationSchema schema, List<String> attributeNames, List<Tuple> tuples) {
+        Objects.requireNonNull(schema, "Schema can't be null");
+        Objects.requireNonNull(attributeNames, "Attribute names can't be null");
+        Objects.requireNonNull(tuples, "Tuples can't be null");
+
+        List<String> ordering = ordering(schema, attributeNames);
+        Comparator<Tuple> comparator = comparator(schema, ordering);
+        Tuple[] sorted = tuples.toArray(new Tuple[0]);
+        for (int i = 1; i < sorted.length; i++) {
+            if (comparator.compare(sorted[i - 1], sorted[i]) > 0) {
+                throw new IllegalArgumentException("Tuples are not sorted by " + ordering + " at position " + i);
+            }
+        }
+
+        return new SortedRelationStorage(schema.tupleSchema(), ordering, comparator, sorted);
+    }
+
+    /**
+     * Comparator of the tuples of the schema by the values of the given attributes, the first one is the most significant.
+     *
+     * <p>Attributes must have types whose natural ordering is consistent with equals: boxed primitives,
+     * {@code String}, {@code BigInteger}, {@code LocalDate}, {@code LocalTime}, {@code LocalDateTime} and {@code Instant}.
+     *
+     * @throws ahodanenok.relational.exception.AttributeNotFoundException if an attribute is not in the schema
+     * @throws RelationalException if an attribute has a type which can't be ordered
+     */
+    public static Comparator<Tuple> comparator(RelationSchema schema, List<String> attributeNames) {
+        Objects.requireNonNull(schema, "Schema can't be null");
+        Objects.requireNonNull(attributeNames, "Attribute names can't be null");
+
+        int[] slots = new int[attributeNames.size()];
+        for (int i = 0; i < slots.length; i++) {
+            Attribute attribute = schema.getAttribute(attributeNames.get(i));
+            if (!ORDERED_TYPES.contains(attribute.getType())) {
+                throw new RelationalException(String.format(
+                        "Attribute '%s' of type '%s' can't be ordered", attribute.getName(), attribute.getType().getName()));
+            }
+
+            slots[i] = schema.indexOf(attribute.getName());
+        }
+
+        return (a, b) -> {
+            for (int slot : slots) {
+                @SuppressWarnings("unchecked")
+                int result = ((Comparable<Object>) a.getValue(slot)).compareTo(b.getValue(slot));
+                if (result != 0) {
+                    return result;
+                }
+            }
+
+            return 0;
+        };
+    }
+
+    /**
+     * Names of the given attributes of the schema without surrounding whitespace.
+     *
+     * @throws ahodanenok.relational.exception.AttributeNotFoundException if an attribute is not in the schema
+     * @throws IllegalArgumentException if there are no attributes or an attribute is given more than once
+     */
+    public static List<String> ordering(RelationSchema schema, List<String> attributeNames) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : attributeNames) {
+            Objects.requireNonNull(name, "Attribute name can't be null");
+            if (!names.add(schema.getAttribute(name.trim()).getName())) {
+                throw new IllegalArgumentException("Attribute is specified more than once: " + name);
+            }
+        }
+
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("At least one attribute must be specified for the ordering");
+        }
+
+        return Collections.unmodifiableList(new ArrayList<>(names));
+    }
+
+    @Override
+    public List<String> ordering() {
+        return ordering;
+    }
+
+    @Override
+    public RelationSchema schema() {
+        return schema.relationSchema();
+    }
+
+    @Override
+    public int size() {
+        return tuples.length;
+    }
+
+    @Override
+    public boolean contains(Tuple tuple) {
+        if (tuple.schema() != schema) {
+            return false;
+        }
+
+        // the first tuple with the same values of the ordering attributes, then the ones following it
+        int low = 0;
+        int high = tuples.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(tuples[mid], tuple) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        for (int i = low; i < tuples.length && comparator.compare(tuples[i], tuple) == 0; i++) {
+            if (tuples[i].equals(tuple)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public Stream<Tuple> tuples() {
+        return Arrays.stream(tuples);
+    }
+}
@@ -2,8 +2,7 @@ package ahodanenok.relational;
 
 import ahodanenok.relational.exception.AttributeNotFoundException;
 
-import java.util.Collections;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.stream.Stream;
 
@@ -16,15 +15,19 @@ import java.util.stream.Stream;
  *
  * Tuple can be empty (0-ary), that is it doesn't contain any attributes.
  * Nulls are not supported as attribute values.
+ *
+ * Values are stored in the slots of the tuple's schema, see {@link TupleSchema#indexOf(String)}.
  */
 public final class Tuple {
 
-    public static final Tuple EMPTY = new Tuple(TupleSchema.EMPTY, Collections.emptyMap());
+    public static final Tuple EMPTY = new Tuple(TupleSchema.EMPTY, new Object[0]);
 
     private final TupleSchema schema;
-    private final Map<String, Object> values;
+    private final Object[] values;
+    // tuple is immutable, so its hash is computed once, 0 means it is not computed yet
+    private int hash;
 
-    Tuple(TupleSchema schema, Map<String, Object> values) {
+    Tuple(TupleSchema schema, Object[] values) {
         this.schema = schema;
         this.values = values;
     }
@@ -44,18 +47,31 @@ public final class Tuple {
     public Object getValue(String attributeName) {
         Objects.requireNonNull(attributeName, "Attribute name can't be null");
 
-        attributeName = attributeName.trim();
-        Object value = values.get(attributeName);
-        if (value == null) {
-            throw new AttributeNotFoundException(attributeName);
+        int index = schema.indexOf(attributeName);
+        if (index < 0) {
+            throw new AttributeNotFoundException(attributeName.trim());
         }
 
-        return value;
+        return values[index];
+    }
+
+    /**
+     * Value of the attribute in the given slot of the tuple's schema.
+     * @throws IndexOutOfBoundsException if there is no such slot in the schema
+     */
+    public Object getValue(int index) {
+        return values[index];
     }
 
     @Override
     public int hashCode() {
-        return 31 * schema.hashCode() + values.hashCode();
+        int result = hash;
+        if (result == 0) {
+            result = 31 * schema.hashCode() + Arrays.hashCode(values);
+            hash = result;
+        }
+
+        return result;
     }
 
     @Override
@@ -75,16 +91,16 @@ public final class Tuple {
         Tuple other = (Tuple) obj;
 
         // Two tuple are equal iff they have the same attributes with the same values.
-        if (!schema.equals(other.schema)) {
+        // Schemas are interned, so equal schemas are the same instance and have the same slots.
+        if (schema != other.schema) {
             return false;
         }
 
-        for (Map.Entry<String, Object> entry : values.entrySet()) {
-            if (!Objects.equals(entry.getValue(), other.values.get(entry.getKey()))) {
-                return false;
-            }
+        // hashes are compared only if both are already computed, computing them costs as much as comparing values
+        if (hash != 0 && other.hash != 0 && hash != other.hash) {
+            return false;
         }
 
-        return true;
+        return Arrays.equals(values, other.values);
     }
 }
@@ -0,0 +1,192 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.exception.AttributeNotFoundException;
+import ahodanenok.relational.exception.RelationalException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Factory of tuples of a single schema.
+ *
+ * <p>Unlike {@link TupleSelector}, the tuple schema is not resolved for each tuple
+ * and values copied from the source tuples are not checked again.
+ * The factory knows from which slot of which source tuple each value is taken,
+ * so it is created once by an operator and then copies values slot to slot.
+ */
+public final class TupleFactory {
+
+    private final RelationSchema schema;
+    // schemas of the source tuples, they are interned, so the tuples are checked by identity
+    private final TupleSchema[] sourceSchemas;
+    // source tuple and its slot for each slot of the schema
+    private final int[] sources;
+    private final int[] slots;
+
+    private TupleFactory(RelationSchema schema, TupleSchema[] sourceSchemas, int[] sources, int[] slots) {
+        this.schema = schema;
+        this.sourceSchemas = sourceSchemas;
+        this.sources = sources;
+        this.slots = slots;
+    }
+
+    /**
+     * Factory creating tuples from arrays of values, see {@link #create(Object[])}.
+     */
+    public static TupleFactory of(RelationSchema schema) {
+        Objects.requireNonNull(schema, "Relation schema can't be null");
+        return new TupleFactory(schema, new TupleSchema[0], new int[0], new int[0]);
+    }
+
+    /**
+     * Factory creating tuples of the target schema from the tuples of the source schema,
+     * which has all attributes of the target schema.
+     */
+    public static TupleFactory projection(RelationSchema source, RelationSchema target) {
+        return rename(source, target, new HashMap<>());
+    }
+
+    /**
+     * Factory creating tuples of the target schema from the tuples of the source schema with some attributes renamed.
+     *
+     * @param mappings keys are the attributes of the source schema and values are their names in the target schema
+     */
+    public static TupleFactory rename(RelationSchema source, RelationSchema target, Map<String, String> mappings) {
+        Objects.requireNonNull(source, "Relation schema can't be null: source");
+        Objects.requireNonNull(target, "Relation schema can't be null: target");
+        Objects.requireNonNull(mappings, "Mappings can't be null");
+
+        Map<String, String> sourceNames = new HashMap<>();
+        mappings.forEach((sourceName, targetName) -> sourceNames.put(targetName, sourceName));
+
+        int[] slots = new int[target.degree()];
+        for (int i = 0; i < slots.length; i++) {
+            Attribute attribute = target.getAttribute(i);
+            slots[i] = sourceSlot(source, sourceNames.getOrDefault(attribute.getName(), attribute.getName()), attribute);
+        }
+
+        return new TupleFactory(target, new TupleSchema[] { source.tupleSchema() }, new int[slots.length], slots);
+    }
+
+    /**
+     * Factory creating tuples of the target schema by combining the tuples of the left and right schemas.
+     * Value of an attribute present in both schemas is taken from the left tuple.
+     */
+    public static TupleFactory union(RelationSchema left, RelationSchema right, RelationSchema target) {
+        Objects.requireNonNull(left, "Relation schema can't be null: left");
+        Objects.requireNonNull(right, "Relation schema can't be null: right");
+        Objects.requireNonNull(target, "Relation schema can't be null: target");
+
+        int[] sources = new int[target.degree()];
+        int[] slots = new int[target.degree()];
+        for (int i = 0; i < slots.length; i++) {
+            Attribute attribute = target.getAttribute(i);
+            if (left.hasAttribute(attribute.getName())) {
+                slots[i] = sourceSlot(left, attribute.getName(), attribute);
+            } else {
+                sources[i] = 1;
+                slots[i] = sourceSlot(right, attribute.getName(), attribute);
+            }
+        }
+
+        return new TupleFactory(target, new TupleSchema[] { left.tupleSchema(), right.tupleSchema() }, sources, slots);
+    }
+
+    private static int sourceSlot(RelationSchema source, String name, Attribute targetAttribute) {
+        int slot = source.indexOf(name);
+        if (slot < 0) {
+            throw new AttributeNotFoundException(name);
+        }
+
+        Class<?> type = source.getAttribute(slot).getType();
+        if (!type.equals(targetAttribute.getType())) {
+            throw new RelationalException(String.format(
+                    "Attribute '%s' of type '%s' can't be copied to attribute '%s' of type '%s'",
+                    name, type.getName(), targetAttribute.getName(), targetAttribute.getType().getName()));
+        }
+
+        return slot;
+    }
+
+    /**
+     * Schema of the created tuples.
+     */
+    public RelationSchema schema() {
+        return schema;
+    }
+
+    /**
+     * Create a tuple with the given values, which must be ordered by the slots of the schema
+     * and have the types of the attributes. Array is not copied and must not be modified afterwards.
+     *
+     * @throws RelationalException if a value doesn't have the type of its attribute
+     */
+    public Tuple create(Object[] values) {
+        Objects.requireNonNull(values, "Values can't be null");
+        if (values.length != schema.degree()) {
+            throw new IllegalArgumentException(String.format(
+                    "Expected %d values, but got %d", schema.degree(), values.length));
+        }
+
+        for (int i = 0; i < values.length; i++) {
+            Attribute attribute = schema.getAttribute(i);
+            Objects.requireNonNull(values[i], "Attribute value can't be null");
+            if (values[i].getClass() != attribute.getType()) {
+                throw new RelationalException(String.format(
+                        "Value type '%s' for attribute '%s' doesn't equal its type '%s'",
+                        values[i].getClass().getName(), attribute.getName(), attribute.getType().getName()));
+            }
+        }
+
+        return new Tuple(schema.tupleSchema(), values);
+    }
+
+    /**
+     * Create a tuple from a tuple of the source schema of a projection or rename factory.
+     *
+     * @throws RelationalException if the tuple doesn't have the source schema
+     */
+    public Tuple create(Tuple source) {
+        requireSourceCount(1);
+        requireSourceSchema(source, 0);
+        Object[] values = new Object[slots.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = source.getValue(slots[i]);
+        }
+
+        return new Tuple(schema.tupleSchema(), values);
+    }
+
+    /**
+     * Create a tuple from the tuples of the left and right schemas of a union factory.
+     *
+     * @throws RelationalException if the tuples don't have the left and right schemas
+     */
+    public Tuple create(Tuple left, Tuple right) {
+        requireSourceCount(2);
+        requireSourceSchema(left, 0);
+        requireSourceSchema(right, 1);
+        Object[] values = new Object[slots.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (sources[i] == 0 ? left : right).getValue(slots[i]);
+        }
+
+        return new Tuple(schema.tupleSchema(), values);
+    }
+
+    private void requireSourceCount(int count) {
+        if (sourceSchemas.length != count) {
+            throw new IllegalStateException(String.format(
+                    "Factory creates tuples from %d source tuples, but got %d", sourceSchemas.length, count));
+        }
+    }
+
+    private void requireSourceSchema(Tuple tuple, int source) {
+        Objects.requireNonNull(tuple, "Tuple can't be null");
+        if (tuple.schema() != sourceSchemas[source]) {
+            throw new RelationalException(String.format(
+                    "Tuple %d doesn't have the source schema of the factory", source + 1));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.exception.AttributeNotFoundException;
+
+import java.util.*;
+
+/**
+ * Hash index of the tuples of a relation on some of its attributes.
+ *
+ * <p>Keys are lists of values of the indexed attributes, ordered by the attribute names.
+ * Indexes are created with {@link Relation#index(String...)} or {@link RelationSelector#withIndex(String...)}.
+ */
+public final class TupleIndex {
+
+    private final List<String> attributeNames;
+    private final Map<List<Object>, List<Tuple>> table;
+
+    private TupleIndex(List<String> attributeNames, Map<List<Object>, List<Tuple>> table) {
+        this.attributeNames = attributeNames;
+        this.table = table;
+    }
+
+    static TupleIndex build(Relation relation, Set<String> attributeNames) {
+        List<String> names = new ArrayList<>(attributeNames);
+        Collections.sort(names);
+
+        int[] slots = new int[names.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = relation.schema().indexOf(names.get(i));
+            if (slots[i] < 0) {
+                throw new AttributeNotFoundException(names.get(i));
+            }
+        }
+
+        Map<List<Object>, List<Tuple>> table = new HashMap<>();
+        relation.tuples().forEach(t -> {
+            Object[] key = new Object[slots.length];
+            for (int i = 0; i < slots.length; i++) {
+                key[i] = t.getValue(slots[i]);
+            }
+
+            table.computeIfAbsent(Arrays.asList(key), k -> new ArrayList<>()).add(t);
+        });
+
+        return new TupleIndex(Collections.unmodifiableList(names), table);
+    }
+
+    /**
+     * Names of the indexed attributes in the order of the values in the keys.
+     */
+    public List<String> attributeNames() {
+        return attributeNames;
+    }
+
+    /**
+     * Tuples having the given values of the indexed attributes.
+     *
+     * @param key values in the order of {@link #attributeNames()}
+     * @return matching tuples or an empty list if there are none
+     */
+    public List<Tuple> lookup(List<Object> key) {
+        Objects.requireNonNull(key, "Key can't be null");
+        List<Tuple> tuples = table.get(key);
+        return tuples != null ? Collections.unmodifiableList(tuples) : Collections.emptyList();
+    }
+
+    /**
+     * Tuples having the given values of the indexed attributes.
+     *
+     * @param values values in the order of {@link #attributeNames()}
+     */
+    public List<Tuple> lookup(Object... values) {
+        return lookup(Arrays.asList(values));
+    }
+
+    /**
+     * Number of distinct keys in the index.
+     */
+    public int size() {
+        return table.size();
+    }
+}
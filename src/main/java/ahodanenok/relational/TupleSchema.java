@@ -2,23 +2,60 @@ package ahodanenok.relational;
 
 import ahodanenok.relational.exception.AttributeNotFoundException;
 
-import java.util.Collections;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Stream;
 
 /**
  * Unordered set of attributes in a particular tuple.
+ *
+ * <p>Each attribute is assigned a slot (index), which is the position of its value in the tuples of this schema.
+ * Slots are assigned in the order of attribute names, so equal schemas always have the same slots.
+ *
+ * <p>Schemas are interned: structurally equal schemas are always the same instance.
  */
 public final class TupleSchema {
 
-    public static final TupleSchema EMPTY = new TupleSchema(Collections.emptySet());
+    public static final TupleSchema EMPTY = TupleSchemaRegistry.intern(Collections.emptySet());
+
+    private final List<Attribute> attributes;
+    private final Map<String, Integer> indexes;
+    private final int hashCode;
+    private volatile RelationSchema relationSchema;
+
+    /**
+     * @param attributes attributes ordered by their names
+     */
+    TupleSchema(List<Attribute> attributes) {
+        this.attributes = Collections.unmodifiableList(attributes);
+        this.indexes = new HashMap<>(attributes.size() * 4 / 3 + 1);
+        for (int i = 0; i < attributes.size(); i++) {
+            indexes.put(attributes.get(i).getName(), i);
+        }
 
-    private final Set<Attribute> attributes;
+        this.hashCode = attributes.hashCode();
+    }
 
-    TupleSchema(Set<Attribute> attributes) {
-        this.attributes = Collections.unmodifiableSet(attributes);
+    List<Attribute> attributeList() {
+        return attributes;
+    }
+
+    /**
+     * Relation schema with the same attributes as this schema.
+     */
+    RelationSchema relationSchema() {
+        // created lazily, because RelationSchema.EMPTY is initialized from TupleSchema.EMPTY
+        RelationSchema result = relationSchema;
+        if (result == null) {
+            synchronized (this) {
+                result = relationSchema;
+                if (result == null) {
+                    result = new RelationSchema(this);
+                    relationSchema = result;
+                }
+            }
+        }
+
+        return result;
     }
 
     public int degree() {
@@ -29,22 +66,40 @@ public final class TupleSchema {
         return lookupAttribute(name, true);
     }
 
+    /**
+     * Attribute in the given slot.
+     * @throws IndexOutOfBoundsException if there is no such slot in the schema
+     */
+    public Attribute getAttribute(int index) {
+        return attributes.get(index);
+    }
+
     public boolean hasAttribute(String name) {
         return lookupAttribute(name, false) != null;
     }
 
+    /**
+     * Slot of the attribute with the given name or -1 if there is no such attribute in the schema.
+     */
+    public int indexOf(String name) {
+        Objects.requireNonNull(name, "Attribute name can't be null");
+        Integer index = indexes.get(name.trim());
+        return index != null ? index : -1;
+    }
+
     private Attribute lookupAttribute(String name, boolean required) {
         Objects.requireNonNull(name, "Attribute name can't be null");
         String lookupName = name.trim();
-        Optional<Attribute> result = attributes.stream()
-                .filter(it -> it.getName().equals(lookupName))
-                .findFirst();
+        Integer index = indexes.get(lookupName);
+        if (index == null) {
+            if (required) {
+                throw new AttributeNotFoundException(lookupName);
+            }
 
-        if (required && !result.isPresent()) {
-            throw new AttributeNotFoundException(lookupName);
+            return null;
         }
 
-        return result.orElse(null);
+        return attributes.get(index);
     }
 
     public Stream<Attribute> attributes() {
@@ -53,24 +108,12 @@ public final class TupleSchema {
 
     @Override
     public int hashCode() {
-        return attributes.hashCode();
+        return hashCode;
     }
 
     @Override
     public boolean equals(Object obj) {
-        if (this == obj) {
-            return true;
-        }
-
-        if (obj == null) {
-            return false;
-        }
-
-        if (!this.getClass().equals(obj.getClass())) {
-            return false;
-        }
-
-        TupleSchema other = (TupleSchema) obj;
-        return attributes.equals(other.attributes);
+        // schemas are interned, so equal schemas are always the same instance
+        return this == obj;
     }
 }
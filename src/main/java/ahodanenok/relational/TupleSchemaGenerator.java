@@ -3,7 +3,6 @@ package ahodanenok.relational;
 import ahodanenok.relational.exception.RelationalException;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 
 /**
@@ -37,6 +36,6 @@ public final class TupleSchemaGenerator {
     }
 
     public TupleSchema generate() {
-        return new TupleSchema(new HashSet<>(attributes.values()));
+        return TupleSchemaRegistry.intern(attributes.values());
     }
 }
@@ -0,0 +1,35 @@
+package ahodanenok.relational;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+/**
+ * Registry of all tuple schemas in use.
+ *
+ * <p>Structurally equal schemas are resolved to a single instance, so schemas can be compared by identity.
+ * Schemas which are no longer referenced are removed from the registry.
+ */
+final class TupleSchemaRegistry {
+
+    // keys are the attribute lists held by the schemas, so an entry lives as long as its schema
+    private static final Map<List<Attribute>, WeakReference<TupleSchema>> schemas = new WeakHashMap<>();
+
+    private TupleSchemaRegistry() { }
+
+    static TupleSchema intern(Collection<Attribute> attributes) {
+        Attribute[] sortedAttributes = attributes.toArray(new Attribute[0]);
+        Arrays.sort(sortedAttributes, Comparator.comparing(Attribute::getName));
+        List<Attribute> key = Arrays.asList(sortedAttributes);
+
+        synchronized (schemas) {
+            WeakReference<TupleSchema> ref = schemas.get(key);
+            TupleSchema schema = ref != null ? ref.get() : null;
+            if (schema == null) {
+                schema = new TupleSchema(key);
+                schemas.put(schema.attributeList(), new WeakReference<>(schema));
+            }
+
+            return schema;
+        }
+    }
+}
@@ -55,6 +55,12 @@ public final class TupleSelector {
     }
 
     public Tuple select() {
-        return new Tuple(new TupleSchema(attributes), values);
+        TupleSchema schema = TupleSchemaRegistry.intern(attributes);
+        Object[] tupleValues = new Object[schema.degree()];
+        for (int i = 0; i < tupleValues.length; i++) {
+            tupleValues[i] = values.get(schema.getAttribute(i).getName());
+        }
+
+        return new Tuple(schema, tupleValues);
     }
 }
@@ -0,0 +1,450 @@
+package ahodanenok.relational.algebra;
+
+import ahodanenok.relational.RelationSchema;
+import ahodanenok.relational.Tuple;
+import ahodanenok.relational.exception.AttributeNotFoundException;
+import ahodanenok.relational.exception.RelationalException;
+
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Collector;
+
+/**
+ * Function computing a single value from all tuples of a group, used by {@link SummarizeOperator}.
+ *
+ * <p>Built-in aggregates accumulate values of numeric attributes in primitive fields:
+ * sums of {@code Integer} and {@code Long} attributes are {@code Long},
+ * sums and averages of {@code Double} attributes are {@code Double}.
+ */
+public final class Aggregate {
+
+    private enum Kind { COUNT, SUM, MIN, MAX, AVG, CUSTOM }
+
+    private final Kind kind;
+    private final String attributeName;
+    private final Class<?> resultType;
+    private final Collector<Object, ?, ?> collector;
+
+    private Aggregate(Kind kind, String attributeName, Class<?> resultType, Collector<Object, ?, ?> collector) {
+        this.kind = kind;
+        this.attributeName = attributeName;
+        this.resultType = resultType;
+        this.collector = collector;
+    }
+
+    /**
+     * Number of tuples in a group, has type {@code Long}.
+     */
+    public static Aggregate count() {
+        return new Aggregate(Kind.COUNT, null, Long.class, null);
+    }
+
+    /**
+     * Sum of the values of a numeric attribute.
+     */
+    public static Aggregate sum(String attributeName) {
+        return new Aggregate(Kind.SUM, requireName(attributeName), null, null);
+    }
+
+    /**
+     * The least value of an attribute with comparable values, has the type of the attribute.
+     */
+    public static Aggregate min(String attributeName) {
+        return new Aggregate(Kind.MIN, requireName(attributeName), null, null);
+    }
+
+    /**
+     * The greatest value of an attribute with comparable values, has the type of the attribute.
+     */
+    public static Aggregate max(String attributeName) {
+        return new Aggregate(Kind.MAX, requireName(attributeName), null, null);
+    }
+
+    /**
+     * Average of the values of a numeric attribute, has type {@code Double}.
+     */
+    public static Aggregate avg(String attributeName) {
+        return new Aggregate(Kind.AVG, requireName(attributeName), Double.class, null);
+    }
+
+    /**
+     * Aggregate collecting values of an attribute with the given collector.
+     *
+     * <p>Collector's combiner is used to merge partial results in the parallel mode.
+     * Aggregates are equal only if they use the same collector instance.
+     *
+     * @param resultType type of the values produced by the collector
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> Aggregate of(String attributeName, Class<R> resultType, Collector<Object, ?, ? extends R> collector) {
+        Objects.requireNonNull(resultType, "Result type can't be null");
+        Objects.requireNonNull(collector, "Collector can't be null");
+        return new Aggregate(Kind.CUSTOM, requireName(attributeName), resultType, (Collector<Object, ?, ?>) collector);
+    }
+
+    private static String requireName(String attributeName) {
+        Objects.requireNonNull(attributeName, "Attribute name can't be null");
+        return attributeName.trim();
+    }
+
+    /**
+     * Name of the aggregated attribute, null for the count.
+     */
+    public String getAttributeName() {
+        return attributeName;
+    }
+
+    /**
+     * Type of the aggregated values of the given schema.
+     *
+     * @throws AttributeNotFoundException if there is no aggregated attribute in the schema
+     * @throws RelationalException if the attribute's type can't be aggregated
+     */
+    Class<?> resultType(RelationSchema schema) {
+        if (kind == Kind.COUNT) {
+            return resultType;
+        }
+
+        Class<?> type = schema.getAttribute(attributeName).getType();
+        switch (kind) {
+            case SUM:
+                requireNumeric(type);
+                return type == Double.class ? Double.class : Long.class;
+            case AVG:
+                requireNumeric(type);
+                return Double.class;
+            case MIN:
+            case MAX:
+                if (!Comparable.class.isAssignableFrom(type)) {
+                    throw new RelationalException(String.format(
+                            "Attribute '%s' of type '%s' is not comparable", attributeName, type.getName()));
+                }
+                return type;
+            default:
+                return resultType;
+        }
+    }
+
+    private void requireNumeric(Class<?> type) {
+        if (type != Integer.class && type != Long.class && type != Double.class) {
+            throw new RelationalException(String.format(
+                    "Attribute '%s' of type '%s' is not numeric", attributeName, type.getName()));
+        }
+    }
+
+    /**
+     * Create an empty accumulator for the tuples of the given schema.
+     */
+    Accumulator newAccumulator(RelationSchema schema) {
+        Class<?> type = resultType(schema);
+        int slot = attributeName != null ? schema.indexOf(attributeName) : -1;
+        switch (kind) {
+            case COUNT:
+                return new CountAccumulator();
+            case SUM:
+                return type == Double.class ? new DoubleSumAccumulator(slot) : new LongSumAccumulator(slot);
+            case AVG:
+                return new AvgAccumulator(slot);
+            case MIN:
+            case MAX:
+                boolean min = kind == Kind.MIN;
+                if (type == Integer.class || type == Long.class) {
+                    return new LongExtremumAccumulator(slot, min, type == Integer.class);
+                } else if (type == Double.class) {
+                    return new DoubleExtremumAccumulator(slot, min);
+                } else {
+                    return new ComparableExtremumAccumulator(slot, min);
+                }
+            default:
+                return new CollectorAccumulator<>(slot, collector);
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, attributeName, collector);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || !this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+
+        Aggregate other = (Aggregate) obj;
+        return kind == other.kind
+                && Objects.equals(attributeName, other.attributeName)
+                && Objects.equals(resultType, other.resultType)
+                && collector == other.collector;
+    }
+
+    @Override
+    public String toString() {
+        return kind.name() + "(" + (attributeName != null ? attributeName : "") + ")";
+    }
+
+    /**
+     * Mutable state of an aggregate for a single group.
+     */
+    abstract static class Accumulator {
+
+        abstract void add(Tuple tuple);
+
+        /**
+         * Add the state of an accumulator of the same aggregate to this one.
+         */
+        abstract void merge(Accumulator other);
+
+        abstract Object result();
+    }
+
+    private static final class CountAccumulator extends Accumulator {
+
+        private long count;
+
+        @Override
+        void add(Tuple tuple) {
+            count++;
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            count += ((CountAccumulator) other).count;
+        }
+
+        @Override
+        Object result() {
+            return count;
+        }
+    }
+
+    private static final class LongSumAccumulator extends Accumulator {
+
+        private final int slot;
+        private long sum;
+
+        LongSumAccumulator(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        void add(Tuple tuple) {
+            sum += ((Number) tuple.getValue(slot)).longValue();
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            sum += ((LongSumAccumulator) other).sum;
+        }
+
+        @Override
+        Object result() {
+            return sum;
+        }
+    }
+
+    private static final class DoubleSumAccumulator extends Accumulator {
+
+        private final int slot;
+        private double sum;
+
+        DoubleSumAccumulator(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        void add(Tuple tuple) {
+            sum += (Double) tuple.getValue(slot);
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            sum += ((DoubleSumAccumulator) other).sum;
+        }
+
+        @Override
+        Object result() {
+            return sum;
+        }
+    }
+
+    private static final class AvgAccumulator extends Accumulator {
+
+        private final int slot;
+        private double sum;
+        private long count;
+
+        AvgAccumulator(int slot) {
+            this.slot = slot;
+        }
+
+        @Override
+        void add(Tuple tuple) {
+            sum += ((Number) tuple.getValue(slot)).doubleValue();
+            count++;
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            AvgAccumulator accumulator = (AvgAccumulator) other;
+            sum += accumulator.sum;
+            count += accumulator.count;
+        }
+
+        @Override
+        Object result() {
+            return sum / count;
+        }
+    }
+
+    private static final class LongExtremumAccumulator extends Accumulator {
+
+        private final int slot;
+        private final boolean min;
+        private final boolean integer;
+        private long value;
+
+        LongExtremumAccumulator(int slot, boolean min, boolean integer) {
+            this.slot = slot;
+            this.min = min;
+            this.integer = integer;
+            this.value = min ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+
+        @Override
+        void add(Tuple tuple) {
+            accept(((Number) tuple.getValue(slot)).longValue());
+        }
+
+        private void accept(long v) {
+            value = min ? Math.min(value, v) : Math.max(value, v);
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            accept(((LongExtremumAccumulator) other).value);
+        }
+
+        @Override
+        Object result() {
+            return integer ? (Object) (int) value : (Object) value;
+        }
+    }
+
+    private static final class DoubleExtremumAccumulator extends Accumulator {
+
+        private final int slot;
+        private final boolean min;
+        private double value;
+
+        DoubleExtremumAccumulator(int slot, boolean min) {
+            this.slot = slot;
+            this.min = min;
+            this.value = min ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+        }
+
+        @Override
+        void add(Tuple tuple) {
+            accept((Double) tuple.getValue(slot));
+        }
+
+        private void accept(double v) {
+            value = min ? Math.min(value, v) : Math.max(value, v);
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            accept(((DoubleExtremumAccumulator) other).value);
+        }
+
+        @Override
+        Object result() {
+            return value;
+        }
+    }
+
+    private static final class ComparableExtremumAccumulator extends Accumulator {
+
+        private final int slot;
+        private final boolean min;
+        private Comparable<Object> value;
+
+        ComparableExtremumAccumulator(int slot, boolean min) {
+            this.slot = slot;
+            this.min = min;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void add(Tuple tuple) {
+            accept((Comparable<Object>) tuple.getValue(slot));
+        }
+
+        private void accept(Comparable<Object> v) {
+            if (value == null || (min ? v.compareTo(value) < 0 : v.compareTo(value) > 0)) {
+                value = v;
+            }
+        }
+
+        @Override
+        void merge(Accumulator other) {
+            Comparable<Object> v = ((ComparableExtremumAccumulator) other).value;
+            if (v != null) {
+                accept(v);
+            }
+        }
+
+        @Override
+        Object result() {
+            return value;
+        }
+    }
+
+    private final class CollectorAccumulator<A> extends Accumulator {
+
+        private final int slot;
+        private final BiConsumer<A, Object> accumulator;
+        private final BinaryOperator<A> combiner;
+        private final Function<A, ?> finisher;
+        private A container;
+
+        @SuppressWarnings("unchecked")
+        CollectorAccumulator(int slot, Collector<Object, ?, ?> collector) {
+            Collector<Object, A, ?> c = (Collector<Object, A, ?>) collector;
+            this.slot = slot;
+            this.accumulator = c.accumulator();
+            this.combiner = c.combiner();
+            this.finisher = c.finisher();
+            this.container = c.supplier().get();
+        }
+
+        @Override
+        void add(Tuple tuple) {
+            accumulator.accept(container, tuple.getValue(slot));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void merge(Accumulator other) {
+            container = combiner.apply(container, ((CollectorAccumulator<A>) other).container);
+        }
+
+        @Override
+        Object result() {
+            Object result = finisher.apply(container);
+            if (result == null || result.getClass() != resultType) {
+                throw new RelationalException(String.format(
+                        "Aggregate of attribute '%s' must produce a value of type '%s', but got '%s'",
+                        attributeName, resultType.getName(), result != null ? result.getClass().getName() : null));
+            }
+
+            return result;
+        }
+    }
+}
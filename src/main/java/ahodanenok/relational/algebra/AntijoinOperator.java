@@ -0,0 +1,77 @@
+package ahodanenok.relational.algebra;
+
+import ahodanenok.relational.Relation;
+import ahodanenok.relational.RelationSchema;
+import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.expression.TupleCursor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Antijoin of two relations (left NOT MATCHING right).
+ *
+ * <p>Produces a new relation containing tuples of the left relation which don't have the same values of the common attributes
+ * as any tuple of the right relation. If there are no common attributes - result is the left relation if the right one is empty.
+ *
+ * <p>Only the values of the common attributes of the right relation are kept in a hash set
+ * and the tuples of the left relation are streamed through it.
+ */
+public final class AntijoinOperator implements RelationalOperator {
+
+    private final RelationalExpression leftExpr;
+    private final RelationalExpression rightExpr;
+
+    public AntijoinOperator(RelationalExpression leftExpr, RelationalExpression rightExpr) {
+        Objects.requireNonNull(leftExpr, "Expression can't be null: left");
+        Objects.requireNonNull(rightExpr, "Expression can't be null: right");
+        this.leftExpr = leftExpr;
+        this.rightExpr = rightExpr;
+    }
+
+    @Override
+    public Relation execute() {
+        return Matching.execute(leftExpr, rightExpr, false);
+    }
+
+    @Override
+    public RelationSchema schema() {
+        return Matching.schema(leftExpr.schema(), rightExpr.schema());
+    }
+
+    @Override
+    public List<RelationalExpression> operands() {
+        return Arrays.asList(leftExpr, rightExpr);
+    }
+
+    @Override
+    public AntijoinOperator withOperands(List<RelationalExpression> operands) {
+        Operands.requireCount(operands, 2);
+        return new AntijoinOperator(operands.get(0), operands.get(1));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(AntijoinOperator.class, leftExpr, rightExpr);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || !this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+
+        AntijoinOperator other = (AntijoinOperator) obj;
+        return leftExpr.equals(other.leftExpr) && rightExpr.equals(other.rightExpr);
+    }
+
+    @Override
+    public TupleCursor cursor() {
+        return new Matching.MatchingCursor(leftExpr, rightExpr, false);
+    }
+}
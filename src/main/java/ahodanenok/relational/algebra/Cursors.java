@@ -0,0 +1,33 @@
+package ahodanenok.relational.algebra;
+
+import ahodanenok.relational.Tuple;
+import ahodanenok.relational.expression.TupleCursor;
+
+import java.util.function.Consumer;
+
+/**
+ * Helpers for the operators' cursors.
+ */
+final class Cursors {
+
+    private Cursors() { }
+
+    /**
+     * Pass all remaining tuples of an opened cursor to the consumer.
+     */
+    static void drain(TupleCursor cursor, Consumer<Tuple> consumer) {
+        Tuple tuple;
+        while ((tuple = cursor.next()) != null) {
+            consumer.accept(tuple);
+        }
+    }
+
+    /**
+     * Close the cursor if it was created.
+     */
+    static void close(TupleCursor cursor) {
+        if (cursor != null) {
+            cursor.close();
+        }
+    }
+}
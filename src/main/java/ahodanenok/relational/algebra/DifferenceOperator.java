@@ -1,17 +1,28 @@
 package ahodanenok.relational.algebra;
 
 import ahodanenok.relational.Relation;
-import ahodanenok.relational.RelationSelector;
+import ahodanenok.relational.RelationBuilder;
+import ahodanenok.relational.RelationSchema;
+import ahodanenok.relational.Tuple;
 import ahodanenok.relational.exception.RelationSchemaMismatchException;
+import ahodanenok.relational.expression.IdentityExpression;
 import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.expression.TupleCursor;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Difference of two relations.
  *
  * <p>Produces a new relation with each tuple in it existing only in the left relation, but not in the right.
  * Schema of all tuples must be the same.
+ *
+ * <p>If both relations are ordered on the same attributes, they are merged instead of looking up
+ * each left tuple in the right relation, see {@link ahodanenok.relational.OrderedRelationStorage}.
  */
 public final class DifferenceOperator implements RelationalOperator {
 
@@ -34,9 +45,118 @@ public final class DifferenceOperator implements RelationalOperator {
             throw new RelationSchemaMismatchException(right, left.schema());
         }
 
-        RelationSelector relationSelector = new RelationSelector().withSchema(left.schema());
-        left.tuples().filter(t -> !right.contains(t)).forEach(relationSelector::addTuple);
+        List<String> mergeKey = Merging.key(left, right);
+        if (!mergeKey.isEmpty()) {
+            return Merging.execute(left, right, mergeKey, Merging.Mode.DIFFERENCE);
+        }
+
+        RelationBuilder relationBuilder = new RelationBuilder(left.schema(), left.cardinality());
+        left.tuples().filter(t -> !right.contains(t)).forEach(relationBuilder::add);
+
+        return relationBuilder.build();
+    }
+
+    @Override
+    public RelationSchema schema() {
+        RelationSchema left = leftExpr.schema();
+        RelationSchema right = rightExpr.schema();
+        if (!left.equals(right)) {
+            throw new RelationSchemaMismatchException(right, left);
+        }
+
+        return left;
+    }
+
+    @Override
+    public List<RelationalExpression> operands() {
+        return Arrays.asList(leftExpr, rightExpr);
+    }
+
+    @Override
+    public DifferenceOperator withOperands(List<RelationalExpression> operands) {
+        Operands.requireCount(operands, 2);
+        return new DifferenceOperator(operands.get(0), operands.get(1));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(DifferenceOperator.class, leftExpr, rightExpr);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
 
-        return relationSelector.select();
+        if (obj == null || !this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+
+        DifferenceOperator other = (DifferenceOperator) obj;
+        return leftExpr.equals(other.leftExpr) && rightExpr.equals(other.rightExpr);
+    }
+
+    @Override
+    public TupleCursor cursor() {
+        if (leftExpr instanceof IdentityExpression && rightExpr instanceof IdentityExpression) {
+            Relation left = leftExpr.execute();
+            Relation right = rightExpr.execute();
+            List<String> mergeKey = Merging.key(left, right);
+            if (!mergeKey.isEmpty()) {
+                return Merging.cursor(left, right, mergeKey, Merging.Mode.DIFFERENCE);
+            }
+        }
+
+        return new DifferenceCursor();
+    }
+
+    private final class DifferenceCursor implements TupleCursor {
+
+        private TupleCursor left;
+        private Set<Tuple> rightTuples;
+
+        @Override
+        public void open() {
+            left = leftExpr.cursor();
+            left.open();
+
+            // tuples of the left relation are checked against the tuples of the right one
+            TupleCursor right = rightExpr.cursor();
+            try {
+                right.open();
+                if (!left.schema().equals(right.schema())) {
+                    throw new RelationSchemaMismatchException(right.schema(), left.schema());
+                }
+
+                rightTuples = new HashSet<>();
+                Cursors.drain(right, rightTuples::add);
+            } finally {
+                right.close();
+            }
+        }
+
+        @Override
+        public RelationSchema schema() {
+            return left.schema();
+        }
+
+        @Override
+        public Tuple next() {
+            Tuple tuple;
+            while ((tuple = left.next()) != null) {
+                if (!rightTuples.contains(tuple)) {
+                    return tuple;
+                }
+            }
+
+            return null;
+        }
+
+        @Override
+        public void close() {
+            rightTuples = null;
+            Cursors.close(left);
+        }
     }
 }
@@ -0,0 +1,234 @@
+package ahodanenok.relational.algebra;
+
+import ahodanenok.relational.*;
+import ahodanenok.relational.exception.AttributeAlreadyExistsException;
+import ahodanenok.relational.exception.RelationalException;
+import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.expression.TupleCursor;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Extension of a single relation with computed attributes.
+ *
+ * <p>Produces a new relation with all attributes of the given relation and the added ones,
+ * values of the added attributes are computed by functions of the source tuple.
+ * All functions receive the source tuple, so an added attribute can't be used to compute another one.
+ *
+ * <p>Schema of the result and the slots of the values are resolved once, then each tuple is built in a single pass.
+ * The result has the same cardinality as the source, so the cursor produces tuples one by one without buffering.
+ */
+public final class ExtendOperator implements RelationalOperator {
+
+    private final RelationalExpression expr;
+    private final Map<String, Extension> extensions;
+
+    public ExtendOperator(RelationalExpression expr) {
+        Objects.requireNonNull(expr, "Expression can't be null");
+        this.expr = expr;
+        this.extensions = new LinkedHashMap<>();
+    }
+
+    /**
+     * Add a computed attribute.
+     *
+     * @param name name of the attribute in the result
+     * @param type type of the attribute, values returned by the function must be of this type
+     * @param function computes the value of the attribute from a tuple of the source relation
+     * @throws NullPointerException if any of the arguments is null
+     */
+    public ExtendOperator addAttribute(String name, Class<?> type, Function<Tuple, ?> function) {
+        Objects.requireNonNull(name, "Name can't be null");
+        Objects.requireNonNull(type, "Type can't be null");
+        Objects.requireNonNull(function, "Function can't be null");
+        this.extensions.put(name.trim(), new Extension(type, function));
+        return this;
+    }
+
+    /**
+     * Names of the added attributes.
+     */
+    public Set<String> getAttributeNames() {
+        return Collections.unmodifiableSet(extensions.keySet());
+    }
+
+    @Override
+    public Relation execute() {
+        Relation relation = expr.execute();
+        if (extensions.isEmpty()) {
+            return relation;
+        }
+
+        Extender extender = new Extender(relation.schema());
+        RelationBuilder resultRelationBuilder = new RelationBuilder(extender.tupleFactory.schema(), relation.cardinality());
+        relation.tuples().map(extender::extend).forEach(resultRelationBuilder::add);
+
+        return resultRelationBuilder.build();
+    }
+
+    @Override
+    public RelationSchema schema() {
+        return extendSchema(expr.schema());
+    }
+
+    private RelationSchema extendSchema(RelationSchema schema) {
+        RelationSchemaGenerator resultSchemaGenerator = new RelationSchemaGenerator();
+        schema.attributes().forEach(resultSchemaGenerator::withAttribute);
+        for (Map.Entry<String, Extension> entry : extensions.entrySet()) {
+            if (schema.hasAttribute(entry.getKey())) {
+                throw new AttributeAlreadyExistsException(schema.getAttribute(entry.getKey()));
+            }
+
+            resultSchemaGenerator.withAttribute(entry.getKey(), entry.getValue().type);
+        }
+
+        return resultSchemaGenerator.generate();
+    }
+
+    @Override
+    public List<RelationalExpression> operands() {
+        return Collections.singletonList(expr);
+    }
+
+    @Override
+    public ExtendOperator withOperands(List<RelationalExpression> operands) {
+        Operands.requireCount(operands, 1);
+        ExtendOperator operator = new ExtendOperator(operands.get(0));
+        operator.extensions.putAll(extensions);
+        return operator;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ExtendOperator.class, expr, extensions);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || !this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+
+        ExtendOperator other = (ExtendOperator) obj;
+        return expr.equals(other.expr) && extensions.equals(other.extensions);
+    }
+
+    @Override
+    public TupleCursor cursor() {
+        return new ExtendCursor();
+    }
+
+    /**
+     * Function computing the value of an added attribute, compared by identity.
+     */
+    private static final class Extension {
+
+        private final Class<?> type;
+        private final Function<Tuple, ?> function;
+
+        Extension(Class<?> type, Function<Tuple, ?> function) {
+            this.type = type;
+            this.function = function;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + System.identityHashCode(function);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (obj == null || !this.getClass().equals(obj.getClass())) {
+                return false;
+            }
+
+            Extension other = (Extension) obj;
+            return type.equals(other.type) && function == other.function;
+        }
+    }
+
+    /**
+     * Extension bound to the schema of the source tuples.
+     */
+    private final class Extender {
+
+        private final TupleFactory tupleFactory;
+        private final String[] names;
+        private final Extension[] functions;
+        // for each slot of the result either slot of the source + 1 or -(index of the function + 1)
+        private final int[] sources;
+
+        Extender(RelationSchema schema) {
+            this.tupleFactory = TupleFactory.of(extendSchema(schema));
+            this.names = extensions.keySet().toArray(new String[0]);
+            this.functions = extensions.values().toArray(new Extension[0]);
+
+            RelationSchema resultSchema = tupleFactory.schema();
+            this.sources = new int[resultSchema.degree()];
+            for (int i = 0; i < sources.length; i++) {
+                int slot = schema.indexOf(resultSchema.getAttribute(i).getName());
+                sources[i] = slot >= 0 ? slot + 1 : -(Arrays.asList(names).indexOf(resultSchema.getAttribute(i).getName()) + 1);
+            }
+        }
+
+        Tuple extend(Tuple tuple) {
+            Object[] values = new Object[sources.length];
+            for (int i = 0; i < values.length; i++) {
+                int source = sources[i];
+                values[i] = source > 0 ? tuple.getValue(source - 1) : compute(-source - 1, tuple);
+            }
+
+            return tupleFactory.create(values);
+        }
+
+        private Object compute(int index, Tuple tuple) {
+            Extension extension = functions[index];
+            Object value = extension.function.apply(tuple);
+            if (value == null || value.getClass() != extension.type) {
+                throw new RelationalException(String.format(
+                        "Attribute '%s' must have a value of type '%s', but got '%s'",
+                        names[index], extension.type.getName(), value != null ? value.getClass().getName() : null));
+            }
+
+            return value;
+        }
+    }
+
+    private final class ExtendCursor implements TupleCursor {
+
+        private TupleCursor input;
+        private Extender extender;
+
+        @Override
+        public void open() {
+            input = expr.cursor();
+            input.open();
+            extender = new Extender(input.schema());
+        }
+
+        @Override
+        public RelationSchema schema() {
+            return extender.tupleFactory.schema();
+        }
+
+        @Override
+        public Tuple next() {
+            Tuple tuple = input.next();
+            return tuple != null ? extender.extend(tuple) : null;
+        }
+
+        @Override
+        public void close() {
+            Cursors.close(input);
+        }
+    }
+}
@@ -1,17 +1,28 @@
 package ahodanenok.relational.algebra;
 
 import ahodanenok.relational.Relation;
-import ahodanenok.relational.RelationSelector;
+import ahodanenok.relational.RelationBuilder;
+import ahodanenok.relational.RelationSchema;
+import ahodanenok.relational.Tuple;
 import ahodanenok.relational.exception.RelationSchemaMismatchException;
+import ahodanenok.relational.expression.IdentityExpression;
 import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.expression.TupleCursor;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Intersection of two relations.
  *
  * <p>Produces a new relation with each tuple in it existing in both relations.
  * Schema of all tuples must be the same.
+ *
+ * <p>If both relations are ordered on the same attributes, they are merged instead of looking up
+ * each left tuple in the right relation, see {@link ahodanenok.relational.OrderedRelationStorage}.
  */
 public final class IntersectOperator implements RelationalOperator {
 
@@ -34,9 +45,120 @@ public final class IntersectOperator implements RelationalOperator {
             throw new RelationSchemaMismatchException(right, left.schema());
         }
 
-        RelationSelector relationSelector = new RelationSelector().withSchema(left.schema());
-        left.tuples().filter(right::contains).forEach(relationSelector::addTuple);
+        List<String> mergeKey = Merging.key(left, right);
+        if (!mergeKey.isEmpty()) {
+            return Merging.execute(left, right, mergeKey, Merging.Mode.INTERSECT);
+        }
+
+        RelationBuilder relationBuilder = new RelationBuilder(left.schema(), Math.min(left.cardinality(), right.cardinality()));
+        left.tuples().filter(right::contains).forEach(relationBuilder::add);
+
+        return relationBuilder.build();
+    }
+
+    @Override
+    public RelationSchema schema() {
+        RelationSchema left = leftExpr.schema();
+        RelationSchema right = rightExpr.schema();
+        if (!left.equals(right)) {
+            throw new RelationSchemaMismatchException(right, left);
+        }
+
+        return left;
+    }
+
+    @Override
+    public List<RelationalExpression> operands() {
+        return Arrays.asList(leftExpr, rightExpr);
+    }
+
+    @Override
+    public IntersectOperator withOperands(List<RelationalExpression> operands) {
+        Operands.requireCount(operands, 2);
+        return new IntersectOperator(operands.get(0), operands.get(1));
+    }
+
+    @Override
+    public int hashCode() {
+        // operator is commutative, so the hash doesn't depend on the order of the operands
+        return 31 * IntersectOperator.class.hashCode() + leftExpr.hashCode() + rightExpr.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
 
-        return relationSelector.select();
+        if (obj == null || !this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+
+        IntersectOperator other = (IntersectOperator) obj;
+        return leftExpr.equals(other.leftExpr) && rightExpr.equals(other.rightExpr)
+                || leftExpr.equals(other.rightExpr) && rightExpr.equals(other.leftExpr);
+    }
+
+    @Override
+    public TupleCursor cursor() {
+        if (leftExpr instanceof IdentityExpression && rightExpr instanceof IdentityExpression) {
+            Relation left = leftExpr.execute();
+            Relation right = rightExpr.execute();
+            List<String> mergeKey = Merging.key(left, right);
+            if (!mergeKey.isEmpty()) {
+                return Merging.cursor(left, right, mergeKey, Merging.Mode.INTERSECT);
+            }
+        }
+
+        return new IntersectCursor();
+    }
+
+    private final class IntersectCursor implements TupleCursor {
+
+        private TupleCursor left;
+        private Set<Tuple> rightTuples;
+
+        @Override
+        public void open() {
+            left = leftExpr.cursor();
+            left.open();
+
+            // tuples of the left relation are checked against the tuples of the right one
+            TupleCursor right = rightExpr.cursor();
+            try {
+                right.open();
+                if (!left.schema().equals(right.schema())) {
+                    throw new RelationSchemaMismatchException(right.schema(), left.schema());
+                }
+
+                rightTuples = new HashSet<>();
+                Cursors.drain(right, rightTuples::add);
+            } finally {
+                right.close();
+            }
+        }
+
+        @Override
+        public RelationSchema schema() {
+            return left.schema();
+        }
+
+        @Override
+        public Tuple next() {
+            Tuple tuple;
+            while ((tuple = left.next()) != null) {
+                if (rightTuples.contains(tuple)) {
+                    return tuple;
+                }
+            }
+
+            return null;
+        }
+
+        @Override
+        public void close() {
+            rightTuples = null;
+            Cursors.close(left);
+        }
     }
 }
@@ -1,10 +1,11 @@
 package ahodanenok.relational.algebra;
 
 import ahodanenok.relational.*;
+import ahodanenok.relational.expression.IdentityExpression;
 import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.expression.TupleCursor;
 
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -12,6 +13,14 @@ import java.util.stream.Collectors;
  *
  * <p>Produces a new relation containing tuples that have the same values of the common attributes in both relations.
  * If there are no common attributes - result is the same as of the cartesian product operator.
+ *
+ * <p>Join is performed by building a hash table on the common attributes of the smaller relation
+ * and probing it with the tuples of the larger relation.
+ * If one of the relations already has an index on the common attributes, it is probed instead of building the table,
+ * see {@link Relation#index(String...)}.
+ *
+ * <p>If both relations are ordered on some of the common attributes, they are merged on them instead
+ * of building the table, see {@link OrderedRelationStorage}.
  */
 public final class JoinOperator implements RelationalOperator {
 
@@ -30,34 +39,237 @@ public final class JoinOperator implements RelationalOperator {
         Relation left = leftExpr.execute();
         Relation right = rightExpr.execute();
 
+        RelationSchema resultSchema = joinSchema(left.schema(), right.schema());
+        List<String> commonAttributes = commonAttributes(resultSchema, left.schema(), right.schema());
+
+        List<String> mergeKey = Merging.key(left, right);
+        if (!mergeKey.isEmpty()) {
+            return Merging.execute(left, right, mergeKey, Merging.Mode.JOIN);
+        }
+
+        TupleFactory tupleFactory = TupleFactory.union(left.schema(), right.schema(), resultSchema);
+        RelationBuilder resultRelationBuilder = new RelationBuilder(resultSchema, Math.max(left.cardinality(), right.cardinality()));
+        if (commonAttributes.isEmpty()) {
+            left.tuples().forEach(tl ->
+                    right.tuples().forEach(tr ->
+                            resultRelationBuilder.add(tupleFactory.create(tl, tr))));
+
+            return resultRelationBuilder.build();
+        }
+
+        TupleIndex leftIndex = left.findIndex(commonAttributes);
+        TupleIndex rightIndex = right.findIndex(commonAttributes);
+        if (leftIndex != null || rightIndex != null) {
+            // the smaller relation probes an index of the larger one if both have it
+            boolean probeRight = rightIndex != null && (leftIndex == null || right.cardinality() >= left.cardinality());
+            TupleIndex index = probeRight ? rightIndex : leftIndex;
+            Relation probe = probeRight ? left : right;
+            int[] probeSlots = slots(probe.schema(), index.attributeNames());
+            probe.tuples().forEach(tp -> {
+                for (Tuple ti : index.lookup(key(tp, probeSlots))) {
+                    resultRelationBuilder.add(probeRight ? tupleFactory.create(tp, ti) : tupleFactory.create(ti, tp));
+                }
+            });
+
+            return resultRelationBuilder.build();
+        }
+
+        int[] leftSlots = slots(left.schema(), commonAttributes);
+        int[] rightSlots = slots(right.schema(), commonAttributes);
+
+        Relation build;
+        int[] buildSlots;
+        Relation probe;
+        int[] probeSlots;
+        boolean buildLeft = left.cardinality() <= right.cardinality();
+        if (buildLeft) {
+            build = left;
+            buildSlots = leftSlots;
+            probe = right;
+            probeSlots = rightSlots;
+        } else {
+            build = right;
+            buildSlots = rightSlots;
+            probe = left;
+            probeSlots = leftSlots;
+        }
+
+        Map<List<Object>, List<Tuple>> table = new HashMap<>();
+        build.tuples().forEach(t -> table.computeIfAbsent(key(t, buildSlots), k -> new ArrayList<>()).add(t));
+        probe.tuples().forEach(tp -> {
+            List<Tuple> matches = table.get(key(tp, probeSlots));
+            if (matches != null) {
+                for (Tuple tb : matches) {
+                    resultRelationBuilder.add(buildLeft ? tupleFactory.create(tb, tp) : tupleFactory.create(tp, tb));
+                }
+            }
+        });
+
+        return resultRelationBuilder.build();
+    }
+
+    private static RelationSchema joinSchema(RelationSchema left, RelationSchema right) {
         RelationSchemaGenerator resultSchemaGenerator = new RelationSchemaGenerator();
         left.attributes().forEach(resultSchemaGenerator::withAttribute);
         right.attributes().forEach(resultSchemaGenerator::withAttribute);
 
-        RelationSchema resultSchema = resultSchemaGenerator.generate();
+        return resultSchemaGenerator.generate();
+    }
 
-        Set<String> commonAttributes = resultSchema.attributes()
+    private static List<String> commonAttributes(RelationSchema resultSchema, RelationSchema left, RelationSchema right) {
+        return resultSchema.attributes()
                 .map(Attribute::getName)
-                .filter(a -> left.schema().hasAttribute(a) && right.schema().hasAttribute(a))
-                .collect(Collectors.toSet());
-
-        RelationSelector resultRelationSelector = new RelationSelector().withSchema(resultSchema);
-        left.tuples().forEach(tl -> {
-            right.tuples().forEach(tr -> {
-                if (commonAttributes.stream().allMatch(a -> Objects.equals(tl.getValue(a), tr.getValue(a)))) {
-                    resultRelationSelector.addTuple(union(tl, tr));
-                }
-            });
-        });
+                .filter(a -> left.hasAttribute(a) && right.hasAttribute(a))
+                .collect(Collectors.toList());
+    }
 
-        return resultRelationSelector.select();
+    private static int[] slots(RelationSchema schema, List<String> attributeNames) {
+        int[] slots = new int[attributeNames.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = schema.indexOf(attributeNames.get(i));
+        }
+
+        return slots;
     }
 
-    private Tuple union(Tuple left, Tuple right) {
-        TupleSelector tupleSelector = new TupleSelector();
-        left.attributes().forEach(a -> tupleSelector.withValue(a.getName(), left.getValue(a.getName())));
-        right.attributes().forEach(a -> tupleSelector.withValue(a.getName(), right.getValue(a.getName())));
+    private static List<Object> key(Tuple tuple, int[] slots) {
+        Object[] values = new Object[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            values[i] = tuple.getValue(slots[i]);
+        }
+
+        return Arrays.asList(values);
+    }
+
+    @Override
+    public RelationSchema schema() {
+        return joinSchema(leftExpr.schema(), rightExpr.schema());
+    }
+
+    @Override
+    public List<RelationalExpression> operands() {
+        return Arrays.asList(leftExpr, rightExpr);
+    }
+
+    @Override
+    public JoinOperator withOperands(List<RelationalExpression> operands) {
+        Operands.requireCount(operands, 2);
+        return new JoinOperator(operands.get(0), operands.get(1));
+    }
+
+    @Override
+    public int hashCode() {
+        // operator is commutative, so the hash doesn't depend on the order of the operands
+        return 31 * JoinOperator.class.hashCode() + leftExpr.hashCode() + rightExpr.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || !this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+
+        JoinOperator other = (JoinOperator) obj;
+        return leftExpr.equals(other.leftExpr) && rightExpr.equals(other.rightExpr)
+                || leftExpr.equals(other.rightExpr) && rightExpr.equals(other.leftExpr);
+    }
+
+    @Override
+    public TupleCursor cursor() {
+        if (leftExpr instanceof IdentityExpression && rightExpr instanceof IdentityExpression) {
+            Relation left = leftExpr.execute();
+            Relation right = rightExpr.execute();
+            List<String> mergeKey = Merging.key(left, right);
+            if (!mergeKey.isEmpty()) {
+                return Merging.cursor(left, right, mergeKey, Merging.Mode.JOIN);
+            }
+        }
+
+        return new JoinCursor();
+    }
+
+    /**
+     * Builds a hash table on the right relation and streams the left relation through it.
+     * Without common attributes all right tuples have the same (empty) key, which results in the product.
+     */
+    private final class JoinCursor implements TupleCursor {
+
+        private TupleCursor left;
+        private RelationSchema schema;
+        private TupleFactory tupleFactory;
+        private int[] leftSlots;
+        private Map<List<Object>, List<Tuple>> table;
+        private TupleIndex index;
+        private Tuple current;
+        private Iterator<Tuple> matches = Collections.emptyIterator();
+
+        @Override
+        public void open() {
+            left = leftExpr.cursor();
+            left.open();
+
+            if (rightExpr instanceof IdentityExpression) {
+                Relation right = rightExpr.execute();
+                schema = joinSchema(left.schema(), right.schema());
+                tupleFactory = TupleFactory.union(left.schema(), right.schema(), schema);
+                index = right.findIndex(commonAttributes(schema, left.schema(), right.schema()));
+                if (index != null) {
+                    leftSlots = slots(left.schema(), index.attributeNames());
+                    return;
+                }
+
+                index = null;
+            }
+
+            TupleCursor right = rightExpr.cursor();
+            try {
+                right.open();
+                schema = joinSchema(left.schema(), right.schema());
+                tupleFactory = TupleFactory.union(left.schema(), right.schema(), schema);
+
+                List<String> commonAttributes = commonAttributes(schema, left.schema(), right.schema());
+                leftSlots = slots(left.schema(), commonAttributes);
+                int[] rightSlots = slots(right.schema(), commonAttributes);
+
+                table = new HashMap<>();
+                Cursors.drain(right, t -> table.computeIfAbsent(key(t, rightSlots), k -> new ArrayList<>()).add(t));
+            } finally {
+                right.close();
+            }
+        }
+
+        @Override
+        public RelationSchema schema() {
+            return schema;
+        }
+
+        @Override
+        public Tuple next() {
+            while (!matches.hasNext()) {
+                if ((index != null ? index.size() == 0 : table.isEmpty()) || (current = left.next()) == null) {
+                    return null;
+                }
+
+                List<Tuple> tuples = index != null
+                        ? index.lookup(key(current, leftSlots))
+                        : table.get(key(current, leftSlots));
+                if (tuples != null) {
+                    matches = tuples.iterator();
+                }
+            }
+
+            return tupleFactory.create(current, matches.next());
+        }
 
-        return tupleSelector.select();
+        @Override
+        public void close() {
+            table = null;
+            index = null;
+            Cursors.close(left);
+        }
     }
 }
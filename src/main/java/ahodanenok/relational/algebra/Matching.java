@@ -0,0 +1,166 @@
+package ahodanenok.relational.algebra;
+
+import ahodanenok.relational.*;
+import ahodanenok.relational.expression.IdentityExpression;
+import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.expression.TupleCursor;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Common implementation of the semijoin and the antijoin.
+ *
+ * <p>Only the values of the common attributes of the right relation are kept in a hash set,
+ * tuples of the left relation are streamed through it and kept as is if they have (or don't have) a match.
+ * If the right relation already has an index on the common attributes, it's used instead of the set.
+ */
+final class Matching {
+
+    private Matching() { }
+
+    /**
+     * Schema of the result, which is the schema of the left relation.
+     * Fails if the common attributes have different types in the relations.
+     */
+    static RelationSchema schema(RelationSchema left, RelationSchema right) {
+        RelationSchemaGenerator generator = new RelationSchemaGenerator();
+        left.attributes().forEach(generator::withAttribute);
+        right.attributes().forEach(generator::withAttribute);
+        generator.generate();
+
+        return left;
+    }
+
+    static Relation execute(RelationalExpression leftExpr, RelationalExpression rightExpr, boolean matching) {
+        Relation left = leftExpr.execute();
+        Relation right = rightExpr.execute();
+        schema(left.schema(), right.schema());
+
+        Predicate<Tuple> matches = matcher(left.schema(), right);
+        Predicate<Tuple> filter = matching ? matches : matches.negate();
+
+        RelationBuilder resultRelationBuilder = new RelationBuilder(left.schema(), left.cardinality());
+        left.tuples().filter(filter).forEach(resultRelationBuilder::add);
+
+        return resultRelationBuilder.build();
+    }
+
+    private static Predicate<Tuple> matcher(RelationSchema left, Relation right) {
+        List<String> commonAttributes = commonAttributes(left, right.schema());
+        if (commonAttributes.isEmpty()) {
+            boolean empty = right.isEmpty();
+            return t -> !empty;
+        }
+
+        int[] leftSlots = slots(left, commonAttributes);
+        TupleIndex index = right.findIndex(commonAttributes);
+        if (index != null) {
+            int[] indexSlots = slots(left, index.attributeNames());
+            return t -> !index.lookup(key(t, indexSlots)).isEmpty();
+        }
+
+        int[] rightSlots = slots(right.schema(), commonAttributes);
+        Set<List<Object>> keys = new HashSet<>();
+        right.tuples().forEach(t -> keys.add(key(t, rightSlots)));
+
+        return t -> keys.contains(key(t, leftSlots));
+    }
+
+    private static List<String> commonAttributes(RelationSchema left, RelationSchema right) {
+        return left.attributes()
+                .map(Attribute::getName)
+                .filter(right::hasAttribute)
+                .collect(Collectors.toList());
+    }
+
+    private static int[] slots(RelationSchema schema, List<String> attributeNames) {
+        int[] slots = new int[attributeNames.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = schema.indexOf(attributeNames.get(i));
+        }
+
+        return slots;
+    }
+
+    private static List<Object> key(Tuple tuple, int[] slots) {
+        Object[] values = new Object[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            values[i] = tuple.getValue(slots[i]);
+        }
+
+        return Arrays.asList(values);
+    }
+
+    /**
+     * Collects the keys of the right relation on open and streams the left relation through them.
+     */
+    static final class MatchingCursor implements TupleCursor {
+
+        private final RelationalExpression leftExpr;
+        private final RelationalExpression rightExpr;
+        private final boolean matching;
+        private TupleCursor left;
+        private Predicate<Tuple> filter;
+
+        MatchingCursor(RelationalExpression leftExpr, RelationalExpression rightExpr, boolean matching) {
+            this.leftExpr = leftExpr;
+            this.rightExpr = rightExpr;
+            this.matching = matching;
+        }
+
+        @Override
+        public void open() {
+            left = leftExpr.cursor();
+            left.open();
+
+            Predicate<Tuple> matches;
+            if (rightExpr instanceof IdentityExpression) {
+                Relation right = rightExpr.execute();
+                Matching.schema(left.schema(), right.schema());
+                matches = matcher(left.schema(), right);
+            } else {
+                TupleCursor right = rightExpr.cursor();
+                try {
+                    right.open();
+                    Matching.schema(left.schema(), right.schema());
+
+                    List<String> commonAttributes = commonAttributes(left.schema(), right.schema());
+                    int[] leftSlots = slots(left.schema(), commonAttributes);
+                    int[] rightSlots = slots(right.schema(), commonAttributes);
+                    Set<List<Object>> keys = new HashSet<>();
+                    Cursors.drain(right, t -> keys.add(key(t, rightSlots)));
+                    matches = t -> keys.contains(key(t, leftSlots));
+                } finally {
+                    right.close();
+                }
+            }
+
+            filter = matching ? matches : matches.negate();
+        }
+
+        @Override
+        public RelationSchema schema() {
+            return left.schema();
+        }
+
+        @Override
+        public Tuple next() {
+            Tuple tuple;
+            while ((tuple = left.next()) != null) {
+                if (filter.test(tuple)) {
+                    return tuple;
+                }
+            }
+
+            return null;
+        }
+
+        @Override
+        public void close() {
+            filter = null;
+            Cursors.close(left);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package ahodanenok.relational.algebra;
+
+import ahodanenok.relational.*;
+import ahodanenok.relational.exception.RelationSchemaMismatchException;
+import ahodanenok.relational.expression.TupleCursor;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Merge of two relations with {@link OrderedRelationStorage ordered storages} used by the join and the set operators.
+ *
+ * <p>Relations are merged on the longest common prefix of their orderings which consists of the common attributes.
+ * Both relations are streamed once in that order and only the tuples of the right relation having
+ * the same values of the prefix as the current left tuple are kept in memory.
+ * Result is ordered by the prefix as well, so it's stored in a {@link SortedRelationStorage}.
+ */
+final class Merging {
+
+    private Merging() { }
+
+    /**
+     * Attributes the relations can be merged on, empty if they can't be merged.
+     */
+    static List<String> key(Relation left, Relation right) {
+        if (!(left.storage() instanceof OrderedRelationStorage) || !(right.storage() instanceof OrderedRelationStorage)) {
+            return Collections.emptyList();
+        }
+
+        List<String> leftOrdering = ((OrderedRelationStorage) left.storage()).ordering();
+        List<String> rightOrdering = ((OrderedRelationStorage) right.storage()).ordering();
+        List<String> key = new ArrayList<>();
+        for (int i = 0; i < Math.min(leftOrdering.size(), rightOrdering.size()); i++) {
+            String name = leftOrdering.get(i);
+            if (!name.equals(rightOrdering.get(i))
+                    || left.schema().getAttribute(name).getType() != right.schema().getAttribute(name).getType()) {
+                break;
+            }
+
+            key.add(name);
+        }
+
+        return key;
+    }
+
+    /**
+     * Merge the relations and collect the result.
+     */
+    static Relation execute(Relation left, Relation right, List<String> key, Mode mode) {
+        TupleCursor cursor = cursor(left, right, key, mode);
+        try {
+            cursor.open();
+            List<Tuple> tuples = new ArrayList<>();
+            Cursors.drain(cursor, tuples::add);
+
+            return new Relation(cursor.schema(), SortedRelationStorage.ofSorted(cursor.schema(), key, tuples));
+        } finally {
+            cursor.close();
+        }
+    }
+
+    static TupleCursor cursor(Relation left, Relation right, List<String> key, Mode mode) {
+        return new MergeCursor(left, right, key, mode);
+    }
+
+    private static int[] slots(RelationSchema schema, List<String> attributeNames) {
+        int[] slots = new int[attributeNames.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = schema.indexOf(attributeNames.get(i));
+        }
+
+        return slots;
+    }
+
+    enum Mode {
+        JOIN,
+        INTERSECT,
+        DIFFERENCE
+    }
+
+    private static final class MergeCursor implements TupleCursor {
+
+        private final Relation leftRelation;
+        private final Relation rightRelation;
+        private final List<String> key;
+        private final Mode mode;
+        private RelationSchema schema;
+        private TupleFactory tupleFactory;
+        private Stream<Tuple> leftStream;
+        private Stream<Tuple> rightStream;
+        private Iterator<Tuple> left;
+        private Iterator<Tuple> right;
+        private int[] leftKeySlots;
+        private int[] rightKeySlots;
+        // all common attributes, their equality is checked for each joined pair
+        private int[] leftCommonSlots;
+        private int[] rightCommonSlots;
+        // right tuples with the same key as the current left one, set is used only by the set operators
+        private final List<Tuple> run = new ArrayList<>();
+        private final Set<Tuple> runSet = new HashSet<>();
+        private Tuple nextRight;
+        private Tuple current;
+        private int runPos;
+
+        MergeCursor(Relation left, Relation right, List<String> key, Mode mode) {
+            this.leftRelation = left;
+            this.rightRelation = right;
+            this.key = key;
+            this.mode = mode;
+        }
+
+        @Override
+        public void open() {
+            RelationSchema leftSchema = leftRelation.schema();
+            RelationSchema rightSchema = rightRelation.schema();
+            if (mode == Mode.JOIN) {
+                RelationSchemaGenerator generator = new RelationSchemaGenerator();
+                leftSchema.attributes().forEach(generator::withAttribute);
+                rightSchema.attributes().forEach(generator::withAttribute);
+                schema = generator.generate();
+                tupleFactory = TupleFactory.union(leftSchema, rightSchema, schema);
+
+                List<String> commonAttributes = leftSchema.attributes()
+                        .map(Attribute::getName)
+                        .filter(rightSchema::hasAttribute)
+                        .collect(Collectors.toList());
+                leftCommonSlots = slots(leftSchema, commonAttributes);
+                rightCommonSlots = slots(rightSchema, commonAttributes);
+            } else {
+                if (!leftSchema.equals(rightSchema)) {
+                    throw new RelationSchemaMismatchException(rightSchema, leftSchema);
+                }
+
+                schema = leftSchema;
+            }
+
+            leftKeySlots = slots(leftSchema, key);
+            rightKeySlots = slots(rightSchema, key);
+            leftStream = leftRelation.tuples();
+            rightStream = rightRelation.tuples();
+            left = leftStream.iterator();
+            right = rightStream.iterator();
+            nextRight = right.hasNext() ? right.next() : null;
+        }
+
+        @Override
+        public RelationSchema schema() {
+            return schema;
+        }
+
+        @Override
+        public Tuple next() {
+            while (true) {
+                if (current != null) {
+                    while (runPos < run.size()) {
+                        Tuple tr = run.get(runPos++);
+                        if (matches(current, tr)) {
+                            return tupleFactory.create(current, tr);
+                        }
+                    }
+
+                    current = null;
+                }
+
+                if (!left.hasNext()) {
+                    return null;
+                }
+
+                Tuple tl = left.next();
+                seek(tl);
+                if (mode == Mode.JOIN) {
+                    current = tl;
+                    runPos = 0;
+                } else if (runSet.contains(tl) == (mode == Mode.INTERSECT)) {
+                    return tl;
+                }
+            }
+        }
+
+        /**
+         * Collect the right tuples with the same key as the given left tuple, skipping the ones with lesser keys.
+         */
+        private void seek(Tuple tl) {
+            if (!run.isEmpty() && compare(tl, run.get(0)) == 0) {
+                return;
+            }
+
+            run.clear();
+            runSet.clear();
+            while (nextRight != null && compare(tl, nextRight) > 0) {
+                nextRight = right.hasNext() ? right.next() : null;
+            }
+            while (nextRight != null && compare(tl, nextRight) == 0) {
+                run.add(nextRight);
+                if (mode != Mode.JOIN) {
+                    runSet.add(nextRight);
+                }
+                nextRight = right.hasNext() ? right.next() : null;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private int compare(Tuple tl, Tuple tr) {
+            for (int i = 0; i < leftKeySlots.length; i++) {
+                int result = ((Comparable<Object>) tl.getValue(leftKeySlots[i])).compareTo(tr.getValue(rightKeySlots[i]));
+                if (result != 0) {
+                    return result;
+                }
+            }
+
+            return 0;
+        }
+
+        private boolean matches(Tuple tl, Tuple tr) {
+            for (int i = 0; i < leftCommonSlots.length; i++) {
+                if (!tl.getValue(leftCommonSlots[i]).equals(tr.getValue(rightCommonSlots[i]))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        @Override
+        public void close() {
+            run.clear();
+            runSet.clear();
+            current = null;
+            nextRight = null;
+            if (leftStream != null) {
+                leftStream.close();
+                leftStream = null;
+            }
+            if (rightStream != null) {
+                rightStream.close();
+                rightStream = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ahodanenok.relational.algebra;
+
+import ahodanenok.relational.expression.RelationalExpression;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Checks of the operands given to {@link RelationalOperator#withOperands(List)}.
+ */
+final class Operands {
+
+    private Operands() { }
+
+    static void requireCount(List<RelationalExpression> operands, int count) {
+        Objects.requireNonNull(operands, "Operands can't be null");
+        if (operands.size() != count) {
+            throw new IllegalArgumentException(
+                    String.format("Operator takes %d operand(s), but %d given", count, operands.size()));
+        }
+    }
+}
@@ -3,7 +3,11 @@ package ahodanenok.relational.algebra;
 import ahodanenok.relational.*;
 import ahodanenok.relational.exception.AttributeAlreadyExistsException;
 import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.expression.TupleCursor;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -14,6 +18,9 @@ import java.util.Objects;
  *
  * <p>It is required that schemas of input relations do not have common attributes, otherwise
  * {@link AttributeAlreadyExistsException} is thrown.
+ *
+ * <p>Executed product is not materialized, its tuples are combined when they are streamed,
+ * see {@link ProductRelationStorage}.
  */
 public final class ProductOperator implements RelationalOperator {
 
@@ -32,8 +39,13 @@ public final class ProductOperator implements RelationalOperator {
         Relation left = leftExpr.execute();
         Relation right = rightExpr.execute();
 
+        RelationSchema resultSchema = productSchema(left.schema(), right.schema());
+        return new Relation(resultSchema, new ProductRelationStorage(resultSchema, left, right));
+    }
+
+    private static RelationSchema productSchema(RelationSchema left, RelationSchema right) {
         left.attributes()
-                .filter(a -> right.schema().hasAttribute(a.getName()))
+                .filter(a -> right.hasAttribute(a.getName()))
                 .findFirst()
                 .ifPresent(a -> {
                     throw new AttributeAlreadyExistsException(a);
@@ -43,20 +55,104 @@ public final class ProductOperator implements RelationalOperator {
         left.attributes().forEach(resultSchemaGenerator::withAttribute);
         right.attributes().forEach(resultSchemaGenerator::withAttribute);
 
-        RelationSelector resultRelationSelector = new RelationSelector()
-                .withSchema(resultSchemaGenerator.generate());
-        left.tuples().forEach(tl ->
-                right.tuples().forEach(tr ->
-                        resultRelationSelector.addTuple(union(tl, tr))));
+        return resultSchemaGenerator.generate();
+    }
+
+    @Override
+    public RelationSchema schema() {
+        return productSchema(leftExpr.schema(), rightExpr.schema());
+    }
+
+    @Override
+    public List<RelationalExpression> operands() {
+        return Arrays.asList(leftExpr, rightExpr);
+    }
+
+    @Override
+    public ProductOperator withOperands(List<RelationalExpression> operands) {
+        Operands.requireCount(operands, 2);
+        return new ProductOperator(operands.get(0), operands.get(1));
+    }
+
+    @Override
+    public int hashCode() {
+        // operator is commutative, so the hash doesn't depend on the order of the operands
+        return 31 * ProductOperator.class.hashCode() + leftExpr.hashCode() + rightExpr.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || !this.getClass().equals(obj.getClass())) {
+            return false;
+        }
 
-        return resultRelationSelector.select();
+        ProductOperator other = (ProductOperator) obj;
+        return leftExpr.equals(other.leftExpr) && rightExpr.equals(other.rightExpr)
+                || leftExpr.equals(other.rightExpr) && rightExpr.equals(other.leftExpr);
     }
 
-    private Tuple union(Tuple left, Tuple right) {
-        TupleSelector tupleSelector = new TupleSelector();
-        left.attributes().forEach(a -> tupleSelector.withValue(a.getName(), left.getValue(a.getName())));
-        right.attributes().forEach(a -> tupleSelector.withValue(a.getName(), right.getValue(a.getName())));
+    @Override
+    public TupleCursor cursor() {
+        return new ProductCursor();
+    }
+
+    /**
+     * Keeps tuples of the right relation and streams the left relation, pairing each tuple with all of them.
+     */
+    private final class ProductCursor implements TupleCursor {
+
+        private TupleCursor left;
+        private RelationSchema schema;
+        private TupleFactory tupleFactory;
+        private List<Tuple> rightTuples;
+        private Tuple current;
+        private int position;
+
+        @Override
+        public void open() {
+            left = leftExpr.cursor();
+            left.open();
+
+            TupleCursor right = rightExpr.cursor();
+            try {
+                right.open();
+                schema = productSchema(left.schema(), right.schema());
+                tupleFactory = TupleFactory.union(left.schema(), right.schema(), schema);
+                rightTuples = new ArrayList<>();
+                Cursors.drain(right, rightTuples::add);
+            } finally {
+                right.close();
+            }
+
+            position = rightTuples.size();
+        }
+
+        @Override
+        public RelationSchema schema() {
+            return schema;
+        }
+
+        @Override
+        public Tuple next() {
+            if (position == rightTuples.size()) {
+                if (rightTuples.isEmpty() || (current = left.next()) == null) {
+                    return null;
+                }
+
+                position = 0;
+            }
+
+            return tupleFactory.create(current, rightTuples.get(position++));
+        }
 
-        return tupleSelector.select();
+        @Override
+        public void close() {
+            rightTuples = null;
+            Cursors.close(left);
+        }
     }
 }
@@ -3,20 +3,26 @@ package ahodanenok.relational.algebra;
 import ahodanenok.relational.*;
 import ahodanenok.relational.exception.AttributeNotFoundException;
 import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.expression.TupleCursor;
 
 import java.util.*;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 /**
  * Projection of a single tuple.
  *
  * <p>Produces a new relation with a subset of its attributes.
+ *
+ * <p>In the parallel mode tuples are projected concurrently in the common fork-join pool,
+ * each worker removes duplicates in its own part of the result before the parts are merged.
  */
 public final class ProjectOperator implements RelationalOperator {
 
     private final RelationalExpression expr;
     private final Set<String> attributeNames;
     private boolean included = true;
+    private boolean parallel;
 
     public ProjectOperator(RelationalExpression expr, String... attributeNames) {
         this(expr, Arrays.asList(attributeNames));
@@ -45,6 +51,34 @@ public final class ProjectOperator implements RelationalOperator {
         return this;
     }
 
+    /**
+     * Project the tuples concurrently.
+     *
+     * @return new operator projecting the tuples concurrently
+     */
+    public ProjectOperator parallel() {
+        return withParallel(true);
+    }
+
+    /**
+     * Project the tuples on the current thread. This is default mode.
+     *
+     * @return new operator projecting the tuples on the current thread
+     */
+    public ProjectOperator sequential() {
+        return withParallel(false);
+    }
+
+    private ProjectOperator withParallel(boolean parallel) {
+        ProjectOperator operator = withOperands(operands());
+        operator.parallel = parallel;
+        return operator;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
     @Override
     public Relation execute() {
         Relation relation = expr.execute();
@@ -54,37 +88,135 @@ public final class ProjectOperator implements RelationalOperator {
         }
 
         RelationSchema schema = relation.schema();
+        RelationSchema resultSchema = projectSchema(schema);
+        if (relation.storage() instanceof ColumnarRelationStorage) {
+            // only the columns of the projected attributes are scanned
+            return new Relation(resultSchema, ((ColumnarRelationStorage) relation.storage()).project(resultSchema));
+        }
+
+        TupleFactory tupleFactory = TupleFactory.projection(schema, resultSchema);
+        if (parallel) {
+            Set<Tuple> tuples = relation.tuples()
+                    .parallel()
+                    .map(tupleFactory::create)
+                    .collect(Collectors.toCollection(HashSet::new));
+            return RelationBuilder.of(resultSchema, tuples);
+        }
+
+        RelationBuilder resultRelationBuilder = new RelationBuilder(resultSchema, relation.cardinality());
+        relation.tuples().map(tupleFactory::create).forEach(resultRelationBuilder::add);
+
+        return resultRelationBuilder.build();
+    }
+
+    private RelationSchema projectSchema(RelationSchema schema) {
         for (String name : attributeNames) {
             if (!schema.hasAttribute(name)) {
                 throw new AttributeNotFoundException(name);
             }
         }
 
-        RelationSchema resultSchema = projectSchema(relation);
-        RelationSelector resultRelationSelector = new RelationSelector().withSchema(resultSchema);
-        relation.tuples().map(t -> projectTuple(t, resultSchema)).forEach(resultRelationSelector::addTuple);
-
-        return resultRelationSelector.select();
-    }
-
-    private RelationSchema projectSchema(Relation relation) {
         Predicate<Attribute> predicate = a -> attributeNames.contains(a.getName());
         if (!included) {
             predicate = predicate.negate();
         }
 
         RelationSchemaGenerator resultSchemaGenerator = new RelationSchemaGenerator();
-        relation.attributes()
+        schema.attributes()
                 .filter(predicate)
                 .forEach(resultSchemaGenerator::withAttribute);
 
         return resultSchemaGenerator.generate();
     }
 
-    private Tuple projectTuple(Tuple tuple, RelationSchema resultSchema) {
-        TupleSelector tupleSelector = new TupleSelector();
-        resultSchema.attributes().forEach(a -> tupleSelector.withValue(a.getName(), tuple.getValue(a.getName())));
+    @Override
+    public RelationSchema schema() {
+        if (attributeNames.isEmpty() && included) {
+            return RelationSchema.EMPTY;
+        }
+
+        return projectSchema(expr.schema());
+    }
+
+    @Override
+    public List<RelationalExpression> operands() {
+        return Collections.singletonList(expr);
+    }
+
+    @Override
+    public ProjectOperator withOperands(List<RelationalExpression> operands) {
+        Operands.requireCount(operands, 1);
+        ProjectOperator operator = new ProjectOperator(operands.get(0), new ArrayList<>(attributeNames));
+        operator.included = included;
+        operator.parallel = parallel;
+        return operator;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ProjectOperator.class, expr, attributeNames, included);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || !this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+
+        ProjectOperator other = (ProjectOperator) obj;
+        return expr.equals(other.expr)
+                && attributeNames.equals(other.attributeNames)
+                && included == other.included;
+    }
 
-        return tupleSelector.select();
+    @Override
+    public TupleCursor cursor() {
+        return new ProjectCursor();
+    }
+
+    private final class ProjectCursor implements TupleCursor {
+
+        private TupleCursor input;
+        private RelationSchema schema;
+        private TupleFactory tupleFactory;
+        private Set<Tuple> seen;
+
+        @Override
+        public void open() {
+            input = expr.cursor();
+            input.open();
+            schema = projectSchema(input.schema());
+            tupleFactory = TupleFactory.projection(input.schema(), schema);
+            seen = new HashSet<>();
+        }
+
+        @Override
+        public RelationSchema schema() {
+            return schema;
+        }
+
+        @Override
+        public Tuple next() {
+            // different tuples can become equal after dropping some of the attributes
+            Tuple tuple;
+            while ((tuple = input.next()) != null) {
+                Tuple projected = tupleFactory.create(tuple);
+                if (seen.add(projected)) {
+                    return projected;
+                }
+            }
+
+            return null;
+        }
+
+        @Override
+        public void close() {
+            seen = null;
+            Cursors.close(input);
+        }
     }
 }
@@ -3,12 +3,31 @@ package ahodanenok.relational.algebra;
 import ahodanenok.relational.Relation;
 import ahodanenok.relational.expression.RelationalExpression;
 
+import java.util.List;
+
 /**
  * Relational operator take relations as their arguments
  * and produce a new relation when executed.
+ *
+ * <p>Operators are compared structurally: they are equal if they have the same type,
+ * the same parameters and equal operands. Predicate functions of restrictions are compared by identity.
+ * Operands of commutative operators (join, product, union and intersection) are compared in any order.
  */
 public interface RelationalOperator extends RelationalExpression {
 
     @Override
     Relation execute();
+
+    /**
+     * Expressions producing the relations this operator takes as its arguments.
+     */
+    List<RelationalExpression> operands();
+
+    /**
+     * Create the same operator, but taking the given expressions as its arguments.
+     *
+     * @param operands expressions in the same order as returned by {@link #operands()}
+     * @throws IllegalArgumentException if the number of operands is not the one the operator takes
+     */
+    RelationalOperator withOperands(List<RelationalExpression> operands);
 }
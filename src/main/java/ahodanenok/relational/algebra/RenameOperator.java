@@ -4,9 +4,11 @@ import ahodanenok.relational.*;
 import ahodanenok.relational.exception.AttributeNotFoundException;
 import ahodanenok.relational.exception.AttributeAlreadyExistsException;
 import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.expression.TupleCursor;
 
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -43,20 +45,25 @@ public final class RenameOperator implements RelationalOperator {
     @Override
     public Relation execute() {
         Relation relation = expr.execute();
+        Map<String, String> mappings = effectiveMappings();
         if (mappings.isEmpty()) {
             return relation;
         }
 
         RelationSchema sourceSchema = relation.schema();
-        Iterator<Map.Entry<String, String>> iterator = mappings.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Map.Entry<String, String> entry = iterator.next();
-            // dropping unnecessary work
-            if (entry.getKey().equals(entry.getValue())) {
-                iterator.remove();
-                continue;
-            }
+        RelationSchema resultSchema = renameSchema(sourceSchema, mappings);
+        TupleFactory tupleFactory = TupleFactory.rename(sourceSchema, resultSchema, mappings);
+
+        RelationBuilder resultRelationBuilder = new RelationBuilder(resultSchema, relation.cardinality());
+        relation.tuples().map(tupleFactory::create).forEach(resultRelationBuilder::add);
+
+        return resultRelationBuilder.build();
+    }
 
+    // the operator can be shared by concurrently executing expressions,
+    // so the mappings are passed as a copy without mappings of attributes to themselves
+    private static RelationSchema renameSchema(RelationSchema sourceSchema, Map<String, String> mappings) {
+        for (Map.Entry<String, String> entry : mappings.entrySet()) {
             String name = entry.getKey();
             // check that the attribute exists in the schema
             if (!sourceSchema.hasAttribute(name)) {
@@ -80,20 +87,113 @@ public final class RenameOperator implements RelationalOperator {
             }
         });
 
-        RelationSchema resultSchema = resultSchemaGenerator.generate();
-        RelationSelector resultRelationSelector = new RelationSelector().withSchema(resultSchema);
-        relation.tuples().map(this::renameTuple).forEach(resultRelationSelector::addTuple);
+        return resultSchemaGenerator.generate();
+    }
+
+    @Override
+    public RelationSchema schema() {
+        Map<String, String> mappings = effectiveMappings();
+        if (mappings.isEmpty()) {
+            return expr.schema();
+        }
+
+        return renameSchema(expr.schema(), mappings);
+    }
+
+    /**
+     * Renaming mappings, keys are attributes to rename and values are their new names.
+     */
+    public Map<String, String> getMappings() {
+        return Collections.unmodifiableMap(mappings);
+    }
+
+    @Override
+    public List<RelationalExpression> operands() {
+        return Collections.singletonList(expr);
+    }
 
-        return resultRelationSelector.select();
+    @Override
+    public RenameOperator withOperands(List<RelationalExpression> operands) {
+        Operands.requireCount(operands, 1);
+        RenameOperator operator = new RenameOperator(operands.get(0));
+        operator.mappings.putAll(mappings);
+        return operator;
     }
 
-    private Tuple renameTuple(Tuple t) {
-        TupleSelector tupleSelector = new TupleSelector();
-        t.attributes().forEach(a -> {
-            String resultName = mappings.getOrDefault(a.getName(), a.getName());
-            tupleSelector.withValue(resultName, t.getValue(a.getName()));
+    // mappings of attributes to themselves don't change the result
+    private Map<String, String> effectiveMappings() {
+        Map<String, String> result = new HashMap<>();
+        mappings.forEach((name, targetName) -> {
+            if (!name.equals(targetName)) {
+                result.put(name, targetName);
+            }
         });
 
-        return tupleSelector.select();
+        return result;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(RenameOperator.class, expr, effectiveMappings());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || !this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+
+        RenameOperator other = (RenameOperator) obj;
+        return expr.equals(other.expr) && effectiveMappings().equals(other.effectiveMappings());
+    }
+
+    @Override
+    public TupleCursor cursor() {
+        return new RenameCursor();
+    }
+
+    private final class RenameCursor implements TupleCursor {
+
+        private TupleCursor input;
+        private RelationSchema schema;
+        private TupleFactory tupleFactory;
+
+        @Override
+        public void open() {
+            input = expr.cursor();
+            input.open();
+            Map<String, String> mappings = effectiveMappings();
+            if (mappings.isEmpty()) {
+                schema = input.schema();
+            } else {
+                schema = renameSchema(input.schema(), mappings);
+                tupleFactory = TupleFactory.rename(input.schema(), schema, mappings);
+            }
+        }
+
+        @Override
+        public RelationSchema schema() {
+            return schema;
+        }
+
+        @Override
+        public Tuple next() {
+            // renaming is one-to-one, so renamed tuples are distinct as well
+            Tuple tuple = input.next();
+            if (tuple == null || tupleFactory == null) {
+                return tuple;
+            }
+
+            return tupleFactory.create(tuple);
+        }
+
+        @Override
+        public void close() {
+            Cursors.close(input);
+        }
     }
 }
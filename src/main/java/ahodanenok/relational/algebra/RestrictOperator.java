@@ -1,36 +1,335 @@
 package ahodanenok.relational.algebra;
 
+import ahodanenok.relational.ColumnarRelationStorage;
 import ahodanenok.relational.Relation;
-import ahodanenok.relational.RelationSelector;
+import ahodanenok.relational.RelationSchema;
+import ahodanenok.relational.RelationBuilder;
 import ahodanenok.relational.Tuple;
+import ahodanenok.relational.TupleIndex;
+import ahodanenok.relational.expression.IdentityExpression;
 import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.expression.TupleCursor;
+import ahodanenok.relational.predicate.TuplePredicate;
 
-import java.util.Objects;
+import java.util.*;
 import java.util.function.BiPredicate;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Restrict operator for a single relation.
  *
  * <p>Produces a new relation with all tuples in it satisfying some boolean predicate.
+ *
+ * <p>The predicate is either an arbitrary function or a {@link TuplePredicate}.
+ * The latter can be inspected by the optimizer, is evaluated against columns of a columnar storage directly
+ * and doesn't require the input to be built before filtering when executed with a cursor.
+ * If the relation has an index on the attributes compared for equality with constants,
+ * only the tuples found with the index are checked, see {@link TuplePredicate#equalityBindings()}.
+ *
+ * <p>In the parallel mode tuples are filtered concurrently in the common fork-join pool.
  */
 public final class RestrictOperator implements RelationalOperator {
 
     private final RelationalExpression expr;
     private final BiPredicate<Relation, Tuple> predicate;
+    private final TuplePredicate tuplePredicate;
+    private boolean parallel;
 
     public RestrictOperator(RelationalExpression expr, BiPredicate<Relation, Tuple> predicate) {
         Objects.requireNonNull(expr, "Expression can't be null");
         Objects.requireNonNull(predicate, "Predicate can't be null");
         this.expr = expr;
         this.predicate = predicate;
+        this.tuplePredicate = null;
+    }
+
+    public RestrictOperator(RelationalExpression expr, TuplePredicate predicate) {
+        Objects.requireNonNull(expr, "Expression can't be null");
+        Objects.requireNonNull(predicate, "Predicate can't be null");
+        this.expr = expr;
+        this.predicate = null;
+        this.tuplePredicate = predicate;
+    }
+
+    /**
+     * Filter the tuples concurrently, each worker collects its own part of the result.
+     * Predicate functions must be thread-safe in this mode.
+     *
+     * @return new operator filtering the tuples concurrently
+     */
+    public RestrictOperator parallel() {
+        return withParallel(true);
+    }
+
+    /**
+     * Filter the tuples on the current thread. This is default mode.
+     *
+     * @return new operator filtering the tuples on the current thread
+     */
+    public RestrictOperator sequential() {
+        return withParallel(false);
+    }
+
+    private RestrictOperator withParallel(boolean parallel) {
+        RestrictOperator operator = withOperands(operands());
+        operator.parallel = parallel;
+        return operator;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * @return predicate of the operator or null if it was created with a function
+     */
+    public TuplePredicate getTuplePredicate() {
+        return tuplePredicate;
     }
 
     @Override
     public Relation execute() {
         Relation relation = expr.execute();
-        RelationSelector resultRelationSelector = new RelationSelector().withSchema(relation.schema());
-        relation.tuples().filter(t -> predicate.test(relation, t)).forEach(resultRelationSelector::addTuple);
+        if (tuplePredicate != null) {
+            Predicate<Tuple> test = tuplePredicate.compile(relation.schema());
+            List<Tuple> candidates = indexedCandidates(relation);
+            if (candidates != null) {
+                RelationBuilder resultRelationBuilder = new RelationBuilder(relation.schema(), candidates.size());
+                candidates.stream().filter(test).forEach(resultRelationBuilder::add);
+                return resultRelationBuilder.build();
+            }
+
+            if (relation.storage() instanceof ColumnarRelationStorage) {
+                ColumnarRelationStorage storage = (ColumnarRelationStorage) relation.storage();
+                return restrictColumns(relation, storage, tuplePredicate.compile(storage, relation.schema()));
+            }
+
+            return restrictTuples(relation, test);
+        }
+
+        if (relation.storage() instanceof ColumnarRelationStorage) {
+            ColumnarRelationStorage storage = (ColumnarRelationStorage) relation.storage();
+            return restrictColumns(relation, storage, row -> predicate.test(relation, storage.getTuple(row)));
+        }
+
+        return restrictTuples(relation, t -> predicate.test(relation, t));
+    }
+
+    /**
+     * @return tuples which might satisfy the predicate or null if none of the relation's indexes can be used
+     */
+    private List<Tuple> indexedCandidates(Relation relation) {
+        Map<String, Object> bindings = tuplePredicate.equalityBindings();
+        if (bindings.isEmpty()) {
+            return null;
+        }
+
+        // the index fixing the most attributes is the most selective
+        TupleIndex bestIndex = null;
+        for (TupleIndex index : relation.indexes()) {
+            if (bindings.keySet().containsAll(index.attributeNames())
+                    && (bestIndex == null || index.attributeNames().size() > bestIndex.attributeNames().size())) {
+                bestIndex = index;
+            }
+        }
+
+        if (bestIndex == null) {
+            return null;
+        }
+
+        List<Object> key = new ArrayList<>(bestIndex.attributeNames().size());
+        for (String name : bestIndex.attributeNames()) {
+            key.add(bindings.get(name));
+        }
+
+        return bestIndex.lookup(key);
+    }
+
+    private Relation restrictTuples(Relation relation, Predicate<Tuple> test) {
+        if (parallel) {
+            // tuples of the input are distinct, so the parts of the result don't intersect
+            Set<Tuple> tuples = relation.tuples().parallel().filter(test).collect(Collectors.toCollection(HashSet::new));
+            return RelationBuilder.of(relation.schema(), tuples);
+        }
+
+        RelationBuilder resultRelationBuilder = new RelationBuilder(relation.schema());
+        relation.tuples().filter(test).forEach(resultRelationBuilder::add);
+
+        return resultRelationBuilder.build();
+    }
+
+    private Relation restrictColumns(Relation relation, ColumnarRelationStorage storage, IntPredicate test) {
+        int[] rows;
+        int count;
+        if (parallel) {
+            // ordered stream keeps the rows ascending
+            rows = IntStream.range(0, storage.size()).parallel().filter(test).toArray();
+            count = rows.length;
+        } else {
+            rows = new int[storage.size()];
+            count = 0;
+            for (int row = 0; row < storage.size(); row++) {
+                if (test.test(row)) {
+                    rows[count++] = row;
+                }
+            }
+        }
+
+        // selected rows are already distinct, so they are copied column by column without deduplication
+        return new Relation(relation.schema(), storage.selectRows(rows, count));
+    }
+
+    @Override
+    public RelationSchema schema() {
+        return expr.schema();
+    }
+
+    @Override
+    public List<RelationalExpression> operands() {
+        return Collections.singletonList(expr);
+    }
+
+    @Override
+    public RestrictOperator withOperands(List<RelationalExpression> operands) {
+        Operands.requireCount(operands, 1);
+        RestrictOperator operator = tuplePredicate != null
+                ? new RestrictOperator(operands.get(0), tuplePredicate)
+                : new RestrictOperator(operands.get(0), predicate);
+        operator.parallel = parallel;
+        return operator;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(RestrictOperator.class, expr, predicate, tuplePredicate);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || !this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+
+        RestrictOperator other = (RestrictOperator) obj;
+        return expr.equals(other.expr)
+                && Objects.equals(predicate, other.predicate)
+                && Objects.equals(tuplePredicate, other.tuplePredicate);
+    }
+
+    @Override
+    public TupleCursor cursor() {
+        if (tuplePredicate != null) {
+            return new StreamingRestrictCursor();
+        }
+
+        return new RestrictCursor();
+    }
+
+    private final class RestrictCursor implements TupleCursor {
+
+        private Relation relation;
+        private Iterator<Tuple> tuples;
+
+        @Override
+        public void open() {
+            // predicate receives the whole relation, so the input is built before filtering
+            try (TupleCursor input = expr.cursor()) {
+                input.open();
+                RelationBuilder relationBuilder = new RelationBuilder(input.schema());
+                Cursors.drain(input, relationBuilder::add);
+                relation = relationBuilder.build();
+            }
+            tuples = relation.tuples().iterator();
+        }
+
+        @Override
+        public RelationSchema schema() {
+            return relation.schema();
+        }
+
+        @Override
+        public Tuple next() {
+            while (tuples.hasNext()) {
+                Tuple tuple = tuples.next();
+                if (predicate.test(relation, tuple)) {
+                    return tuple;
+                }
+            }
+
+            return null;
+        }
+
+        @Override
+        public void close() {
+            relation = null;
+            tuples = null;
+        }
+    }
+
+    private final class StreamingRestrictCursor implements TupleCursor {
+
+        private TupleCursor input;
+        private RelationSchema schema;
+        private Iterator<Tuple> candidates;
+        private Predicate<Tuple> test;
+
+        @Override
+        public void open() {
+            if (expr instanceof IdentityExpression) {
+                Relation relation = expr.execute();
+                List<Tuple> indexed = indexedCandidates(relation);
+                if (indexed != null) {
+                    schema = relation.schema();
+                    candidates = indexed.iterator();
+                    test = tuplePredicate.compile(schema);
+                    return;
+                }
+            }
+
+            input = expr.cursor();
+            input.open();
+            schema = input.schema();
+            test = tuplePredicate.compile(schema);
+        }
+
+        @Override
+        public RelationSchema schema() {
+            return schema;
+        }
+
+        @Override
+        public Tuple next() {
+            Tuple tuple;
+            while ((tuple = nextInput()) != null) {
+                if (test.test(tuple)) {
+                    return tuple;
+                }
+            }
+
+            return null;
+        }
+
+        private Tuple nextInput() {
+            if (candidates != null) {
+                return candidates.hasNext() ? candidates.next() : null;
+            }
+
+            return input.next();
+        }
 
-        return resultRelationSelector.select();
+        @Override
+        public void close() {
+            Cursors.close(input);
+            input = null;
+            candidates = null;
+            test = null;
+        }
     }
 }
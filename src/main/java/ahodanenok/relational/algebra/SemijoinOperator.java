@@ -0,0 +1,78 @@
+package ahodanenok.relational.algebra;
+
+import ahodanenok.relational.Relation;
+import ahodanenok.relational.RelationSchema;
+import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.expression.TupleCursor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Semijoin of two relations (left MATCHING right).
+ *
+ * <p>Produces a new relation containing tuples of the left relation which have the same values of the common attributes
+ * as some tuple of the right relation. It's the same as a join projected onto the attributes of the left relation,
+ * but tuples are never widened. If there are no common attributes - result is the left relation if the right one is not empty.
+ *
+ * <p>Only the values of the common attributes of the right relation are kept in a hash set
+ * and the tuples of the left relation are streamed through it.
+ */
+public final class SemijoinOperator implements RelationalOperator {
+
+    private final RelationalExpression leftExpr;
+    private final RelationalExpression rightExpr;
+
+    public SemijoinOperator(RelationalExpression leftExpr, RelationalExpression rightExpr) {
+        Objects.requireNonNull(leftExpr, "Expression can't be null: left");
+        Objects.requireNonNull(rightExpr, "Expression can't be null: right");
+        this.leftExpr = leftExpr;
+        this.rightExpr = rightExpr;
+    }
+
+    @Override
+    public Relation execute() {
+        return Matching.execute(leftExpr, rightExpr, true);
+    }
+
+    @Override
+    public RelationSchema schema() {
+        return Matching.schema(leftExpr.schema(), rightExpr.schema());
+    }
+
+    @Override
+    public List<RelationalExpression> operands() {
+        return Arrays.asList(leftExpr, rightExpr);
+    }
+
+    @Override
+    public SemijoinOperator withOperands(List<RelationalExpression> operands) {
+        Operands.requireCount(operands, 2);
+        return new SemijoinOperator(operands.get(0), operands.get(1));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(SemijoinOperator.class, leftExpr, rightExpr);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || !this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+
+        SemijoinOperator other = (SemijoinOperator) obj;
+        return leftExpr.equals(other.leftExpr) && rightExpr.equals(other.rightExpr);
+    }
+
+    @Override
+    public TupleCursor cursor() {
+        return new Matching.MatchingCursor(leftExpr, rightExpr, true);
+    }
+}
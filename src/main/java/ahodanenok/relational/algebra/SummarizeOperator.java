@@ -0,0 +1,312 @@
+package ahodanenok.relational.algebra;
+
+import ahodanenok.relational.*;
+import ahodanenok.relational.exception.AttributeAlreadyExistsException;
+import ahodanenok.relational.exception.AttributeNotFoundException;
+import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.expression.TupleCursor;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+
+/**
+ * Summarization of a single relation.
+ *
+ * <p>Produces a new relation with a tuple for each group of tuples having the same values of the grouping attributes,
+ * the tuple consists of the grouping attributes and the values of the given aggregates computed over the group.
+ * Without grouping attributes all tuples form a single group. Empty relation produces an empty result.
+ *
+ * <p>Groups are found with a hash table. In the parallel mode each worker of the common fork-join pool
+ * aggregates its own part of the tuples into a separate table, tables are merged afterwards.
+ */
+public final class SummarizeOperator implements RelationalOperator {
+
+    private final RelationalExpression expr;
+    private final Set<String> attributeNames;
+    private final Map<String, Aggregate> aggregates;
+    private boolean parallel;
+
+    public SummarizeOperator(RelationalExpression expr, String... attributeNames) {
+        this(expr, Arrays.asList(attributeNames));
+    }
+
+    /**
+     * @param attributeNames grouping attributes
+     */
+    public SummarizeOperator(RelationalExpression expr, List<String> attributeNames) {
+        Objects.requireNonNull(expr, "Expression can't be null");
+        Objects.requireNonNull(attributeNames, "Attribute names can't be null");
+        this.expr = expr;
+        this.attributeNames = new HashSet<>();
+        for (String name : attributeNames) {
+            Objects.requireNonNull(name, "Attribute name can't be null");
+            this.attributeNames.add(name.trim());
+        }
+        this.aggregates = new LinkedHashMap<>();
+    }
+
+    /**
+     * Add an attribute with the values of the aggregate.
+     *
+     * @param name name of the attribute in the result
+     * @param aggregate aggregate computing the values of the attribute
+     * @throws NullPointerException if the name or the aggregate is null
+     */
+    public SummarizeOperator addAggregate(String name, Aggregate aggregate) {
+        Objects.requireNonNull(name, "Name can't be null");
+        Objects.requireNonNull(aggregate, "Aggregate can't be null");
+        this.aggregates.put(name.trim(), aggregate);
+        return this;
+    }
+
+    /**
+     * Aggregate the tuples concurrently.
+     *
+     * @return new operator aggregating the tuples concurrently
+     */
+    public SummarizeOperator parallel() {
+        return withParallel(true);
+    }
+
+    /**
+     * Aggregate the tuples on the current thread. This is default mode.
+     *
+     * @return new operator aggregating the tuples on the current thread
+     */
+    public SummarizeOperator sequential() {
+        return withParallel(false);
+    }
+
+    private SummarizeOperator withParallel(boolean parallel) {
+        SummarizeOperator operator = withOperands(operands());
+        operator.parallel = parallel;
+        return operator;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    @Override
+    public Relation execute() {
+        Relation relation = expr.execute();
+        Summary summary = new Summary(relation.schema());
+
+        Map<Tuple, Aggregate.Accumulator[]> groups;
+        if (parallel) {
+            groups = relation.tuples().parallel().collect(Collector.of(
+                    HashMap::new,
+                    summary::accumulate,
+                    summary::merge,
+                    Collector.Characteristics.UNORDERED));
+        } else {
+            Map<Tuple, Aggregate.Accumulator[]> table = new HashMap<>();
+            relation.tuples().forEach(tuple -> summary.accumulate(table, tuple));
+            groups = table;
+        }
+
+        RelationBuilder resultRelationBuilder = new RelationBuilder(summary.resultSchema, groups.size());
+        summary.results(groups, resultRelationBuilder::add);
+
+        return resultRelationBuilder.build();
+    }
+
+    @Override
+    public RelationSchema schema() {
+        return summarizeSchema(expr.schema());
+    }
+
+    private RelationSchema summarizeSchema(RelationSchema schema) {
+        RelationSchemaGenerator resultSchemaGenerator = new RelationSchemaGenerator();
+        Map<String, Attribute> resultAttributes = new HashMap<>();
+        for (String name : attributeNames) {
+            if (!schema.hasAttribute(name)) {
+                throw new AttributeNotFoundException(name);
+            }
+
+            Attribute attribute = schema.getAttribute(name);
+            resultAttributes.put(name, attribute);
+            resultSchemaGenerator.withAttribute(attribute);
+        }
+
+        for (Map.Entry<String, Aggregate> entry : aggregates.entrySet()) {
+            Attribute existing = resultAttributes.get(entry.getKey());
+            if (existing != null) {
+                throw new AttributeAlreadyExistsException(existing);
+            }
+
+            Attribute attribute = new Attribute(entry.getKey(), entry.getValue().resultType(schema));
+            resultAttributes.put(entry.getKey(), attribute);
+            resultSchemaGenerator.withAttribute(attribute);
+        }
+
+        return resultSchemaGenerator.generate();
+    }
+
+    @Override
+    public List<RelationalExpression> operands() {
+        return Collections.singletonList(expr);
+    }
+
+    @Override
+    public SummarizeOperator withOperands(List<RelationalExpression> operands) {
+        Operands.requireCount(operands, 1);
+        SummarizeOperator operator = new SummarizeOperator(operands.get(0), new ArrayList<>(attributeNames));
+        operator.aggregates.putAll(aggregates);
+        operator.parallel = parallel;
+        return operator;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(SummarizeOperator.class, expr, attributeNames, aggregates);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || !this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+
+        SummarizeOperator other = (SummarizeOperator) obj;
+        return expr.equals(other.expr)
+                && attributeNames.equals(other.attributeNames)
+                && aggregates.equals(other.aggregates);
+    }
+
+    @Override
+    public TupleCursor cursor() {
+        return new SummarizeCursor();
+    }
+
+    /**
+     * Summarization bound to the schema of the input tuples.
+     */
+    private final class Summary {
+
+        private final RelationSchema schema;
+        private final RelationSchema resultSchema;
+        private final TupleFactory keyFactory;
+        private final TupleFactory resultFactory;
+        private final Aggregate[] aggregateList;
+        // for each slot of the result either slot of the key + 1 or -(index of the aggregate + 1)
+        private final int[] sources;
+
+        Summary(RelationSchema schema) {
+            this.schema = schema;
+            this.resultSchema = summarizeSchema(schema);
+
+            RelationSchemaGenerator keySchemaGenerator = new RelationSchemaGenerator();
+            attributeNames.stream().map(schema::getAttribute).forEach(keySchemaGenerator::withAttribute);
+            RelationSchema keySchema = keySchemaGenerator.generate();
+            this.keyFactory = TupleFactory.projection(schema, keySchema);
+            this.resultFactory = TupleFactory.of(resultSchema);
+
+            this.aggregateList = aggregates.values().toArray(new Aggregate[0]);
+            List<String> aggregateNames = new ArrayList<>(aggregates.keySet());
+            this.sources = new int[resultSchema.degree()];
+            for (int i = 0; i < sources.length; i++) {
+                String name = resultSchema.getAttribute(i).getName();
+                int keySlot = keySchema.indexOf(name);
+                sources[i] = keySlot >= 0 ? keySlot + 1 : -(aggregateNames.indexOf(name) + 1);
+            }
+
+            // check that all aggregates can be computed even if there are no tuples
+            for (Aggregate aggregate : aggregateList) {
+                aggregate.newAccumulator(schema);
+            }
+        }
+
+        void accumulate(Map<Tuple, Aggregate.Accumulator[]> groups, Tuple tuple) {
+            Aggregate.Accumulator[] accumulators = groups.computeIfAbsent(keyFactory.create(tuple), k -> newAccumulators());
+            for (Aggregate.Accumulator accumulator : accumulators) {
+                accumulator.add(tuple);
+            }
+        }
+
+        Map<Tuple, Aggregate.Accumulator[]> merge(Map<Tuple, Aggregate.Accumulator[]> target,
+                                                  Map<Tuple, Aggregate.Accumulator[]> source) {
+            if (target.size() < source.size()) {
+                return merge(source, target);
+            }
+
+            for (Map.Entry<Tuple, Aggregate.Accumulator[]> entry : source.entrySet()) {
+                Aggregate.Accumulator[] accumulators = target.putIfAbsent(entry.getKey(), entry.getValue());
+                if (accumulators != null) {
+                    for (int i = 0; i < accumulators.length; i++) {
+                        accumulators[i].merge(entry.getValue()[i]);
+                    }
+                }
+            }
+
+            return target;
+        }
+
+        private Aggregate.Accumulator[] newAccumulators() {
+            Aggregate.Accumulator[] accumulators = new Aggregate.Accumulator[aggregateList.length];
+            for (int i = 0; i < accumulators.length; i++) {
+                accumulators[i] = aggregateList[i].newAccumulator(schema);
+            }
+
+            return accumulators;
+        }
+
+        void results(Map<Tuple, Aggregate.Accumulator[]> groups, Consumer<Tuple> consumer) {
+            for (Map.Entry<Tuple, Aggregate.Accumulator[]> entry : groups.entrySet()) {
+                Object[] values = new Object[sources.length];
+                for (int i = 0; i < values.length; i++) {
+                    int source = sources[i];
+                    values[i] = source > 0
+                            ? entry.getKey().getValue(source - 1)
+                            : entry.getValue()[-source - 1].result();
+                }
+
+                consumer.accept(resultFactory.create(values));
+            }
+        }
+    }
+
+    private final class SummarizeCursor implements TupleCursor {
+
+        private TupleCursor input;
+        private RelationSchema schema;
+        private Iterator<Tuple> results;
+
+        @Override
+        public void open() {
+            input = expr.cursor();
+            input.open();
+
+            // all input tuples must be seen before any group is complete
+            Summary summary = new Summary(input.schema());
+            Map<Tuple, Aggregate.Accumulator[]> groups = new HashMap<>();
+            Cursors.drain(input, tuple -> summary.accumulate(groups, tuple));
+
+            List<Tuple> tuples = new ArrayList<>(groups.size());
+            summary.results(groups, tuples::add);
+            schema = summary.resultSchema;
+            results = tuples.iterator();
+        }
+
+        @Override
+        public RelationSchema schema() {
+            return schema;
+        }
+
+        @Override
+        public Tuple next() {
+            return results.hasNext() ? results.next() : null;
+        }
+
+        @Override
+        public void close() {
+            results = null;
+            Cursors.close(input);
+        }
+    }
+}
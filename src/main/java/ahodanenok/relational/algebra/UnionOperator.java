@@ -1,11 +1,18 @@
 package ahodanenok.relational.algebra;
 
 import ahodanenok.relational.Relation;
-import ahodanenok.relational.RelationSelector;
+import ahodanenok.relational.RelationBuilder;
+import ahodanenok.relational.RelationSchema;
+import ahodanenok.relational.Tuple;
 import ahodanenok.relational.exception.RelationSchemaMismatchException;
 import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.expression.TupleCursor;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Union of two relations.
@@ -34,10 +41,120 @@ public final class UnionOperator implements RelationalOperator {
             throw new RelationSchemaMismatchException(right, left.schema());
         }
 
-        RelationSelector relationSelector = new RelationSelector().withSchema(left.schema());
-        left.tuples().forEach(relationSelector::addTuple);
-        right.tuples().forEach(relationSelector::addTuple);
+        // cardinalities of products saturate at Integer.MAX_VALUE, the sum must not overflow,
+        // the builder caps the initial capacity itself
+        int expectedCardinality = (int) Math.min((long) left.cardinality() + right.cardinality(), Integer.MAX_VALUE);
+        RelationBuilder relationBuilder = new RelationBuilder(left.schema(), expectedCardinality);
+        left.tuples().forEach(relationBuilder::add);
+        right.tuples().forEach(relationBuilder::add);
 
-        return relationSelector.select();
+        return relationBuilder.build();
+    }
+
+    @Override
+    public RelationSchema schema() {
+        RelationSchema left = leftExpr.schema();
+        RelationSchema right = rightExpr.schema();
+        if (!left.equals(right)) {
+            throw new RelationSchemaMismatchException(right, left);
+        }
+
+        return left;
+    }
+
+    @Override
+    public List<RelationalExpression> operands() {
+        return Arrays.asList(leftExpr, rightExpr);
+    }
+
+    @Override
+    public UnionOperator withOperands(List<RelationalExpression> operands) {
+        Operands.requireCount(operands, 2);
+        return new UnionOperator(operands.get(0), operands.get(1));
+    }
+
+    @Override
+    public int hashCode() {
+        // operator is commutative, so the hash doesn't depend on the order of the operands
+        return 31 * UnionOperator.class.hashCode() + leftExpr.hashCode() + rightExpr.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || !this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+
+        UnionOperator other = (UnionOperator) obj;
+        return leftExpr.equals(other.leftExpr) && rightExpr.equals(other.rightExpr)
+                || leftExpr.equals(other.rightExpr) && rightExpr.equals(other.leftExpr);
+    }
+
+    @Override
+    public TupleCursor cursor() {
+        return new UnionCursor();
+    }
+
+    private final class UnionCursor implements TupleCursor {
+
+        private TupleCursor left;
+        private TupleCursor right;
+        private Set<Tuple> leftTuples;
+        private boolean leftExhausted;
+
+        @Override
+        public void open() {
+            left = leftExpr.cursor();
+            left.open();
+            right = rightExpr.cursor();
+            right.open();
+            if (!left.schema().equals(right.schema())) {
+                throw new RelationSchemaMismatchException(right.schema(), left.schema());
+            }
+
+            leftTuples = new HashSet<>();
+        }
+
+        @Override
+        public RelationSchema schema() {
+            return left.schema();
+        }
+
+        @Override
+        public Tuple next() {
+            // all tuples of the left relation are passed through, tuples of the right one only if not seen yet
+            Tuple tuple;
+            if (!leftExhausted) {
+                tuple = left.next();
+                if (tuple != null) {
+                    leftTuples.add(tuple);
+                    return tuple;
+                }
+
+                leftExhausted = true;
+            }
+
+            while ((tuple = right.next()) != null) {
+                if (!leftTuples.contains(tuple)) {
+                    return tuple;
+                }
+            }
+
+            return null;
+        }
+
+        @Override
+        public void close() {
+            leftTuples = null;
+            try {
+                Cursors.close(left);
+            } finally {
+                Cursors.close(right);
+            }
+        }
     }
 }
@@ -9,18 +9,37 @@ import ahodanenok.relational.RelationSchema;
 public class RelationSchemaMismatchException extends RuntimeException {
 
     private final Relation mismatchedRelation;
+    private final RelationSchema mismatchedSchema;
     private final RelationSchema targetSchema;
 
     public RelationSchemaMismatchException(Relation mismatchedRelation, RelationSchema targetSchema) {
         super("Relation's schema is not compatible with the target schema.");
         this.mismatchedRelation = mismatchedRelation;
+        this.mismatchedSchema = mismatchedRelation.schema();
         this.targetSchema = targetSchema;
     }
 
+    /**
+     * Used when the relation itself is not available, for example when tuples are streamed through cursors.
+     */
+    public RelationSchemaMismatchException(RelationSchema mismatchedSchema, RelationSchema targetSchema) {
+        super("Relation's schema is not compatible with the target schema.");
+        this.mismatchedRelation = null;
+        this.mismatchedSchema = mismatchedSchema;
+        this.targetSchema = targetSchema;
+    }
+
+    /**
+     * Relation with the mismatched schema or null if the relation is not available.
+     */
     public Relation getMismatchedRelation() {
         return mismatchedRelation;
     }
 
+    public RelationSchema getMismatchedSchema() {
+        return mismatchedSchema;
+    }
+
     public RelationSchema getTargetSchema() {
         return targetSchema;
     }
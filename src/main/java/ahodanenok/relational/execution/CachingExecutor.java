@@ -0,0 +1,117 @@
+package ahodanenok.relational.execution;
+
+import ahodanenok.relational.Relation;
+import ahodanenok.relational.algebra.RelationalOperator;
+import ahodanenok.relational.expression.IdentityExpression;
+import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.io.SpillingTupleSet;
+
+import java.util.*;
+
+/**
+ * Executor memoizing the results of operators.
+ *
+ * <p>Results are keyed by the operator subtrees, which are compared structurally
+ * and base relations by their contents, see {@link RelationalOperator}.
+ * Each operator of an expression is looked up in the cache first, only missing results are computed.
+ *
+ * <p>Cache has a memory budget, when it is exceeded the least recently used results are evicted.
+ * Size of a result is estimated from its cardinality and degree, results larger than the budget are not cached.
+ * Cached subtrees keep their base relations reachable and must not be modified after the execution.
+ *
+ * <p>Executor is thread-safe, concurrent executions of the same expression may compute its result more than once.
+ */
+public final class CachingExecutor implements RelationalExecutor {
+
+    // rough size of a cache entry
+    private static final long ENTRY_SIZE = 64;
+
+    private final long memoryBudget;
+    private final LinkedHashMap<RelationalExpression, Relation> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryUsage;
+
+    /**
+     * @param memoryBudget approximate number of bytes the cached results can take
+     */
+    public CachingExecutor(long memoryBudget) {
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("Memory budget can't be negative: " + memoryBudget);
+        }
+
+        this.memoryBudget = memoryBudget;
+    }
+
+    @Override
+    public Relation execute(RelationalExpression expression) {
+        Objects.requireNonNull(expression, "Expression can't be null");
+        if (!(expression instanceof RelationalOperator)) {
+            return expression.execute();
+        }
+
+        Relation result = get(expression);
+        if (result != null) {
+            return result;
+        }
+
+        RelationalOperator operator = (RelationalOperator) expression;
+        List<RelationalExpression> operands = operator.operands();
+        List<RelationalExpression> evaluated = new ArrayList<>(operands.size());
+        for (RelationalExpression operand : operands) {
+            evaluated.add(operand instanceof IdentityExpression ? operand : new IdentityExpression(execute(operand)));
+        }
+
+        result = operator.withOperands(evaluated).execute();
+        put(expression, result);
+
+        return result;
+    }
+
+    /**
+     * Number of cached results.
+     */
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    /**
+     * Estimated number of bytes taken by the cached results.
+     */
+    public synchronized long memoryUsage() {
+        return memoryUsage;
+    }
+
+    /**
+     * Remove all cached results.
+     */
+    public synchronized void clear() {
+        cache.clear();
+        memoryUsage = 0;
+    }
+
+    private synchronized Relation get(RelationalExpression expression) {
+        return cache.get(expression);
+    }
+
+    private synchronized void put(RelationalExpression expression, Relation result) {
+        long size = estimateSize(result);
+        if (size > memoryBudget) {
+            return;
+        }
+
+        Relation previous = cache.put(expression, result);
+        if (previous != null) {
+            memoryUsage -= estimateSize(previous);
+        }
+        memoryUsage += size;
+
+        Iterator<Relation> iterator = cache.values().iterator();
+        while (memoryUsage > memoryBudget) {
+            memoryUsage -= estimateSize(iterator.next());
+            iterator.remove();
+        }
+    }
+
+    private static long estimateSize(Relation relation) {
+        return ENTRY_SIZE + SpillingTupleSet.estimateSize(relation.cardinality(), relation.degree());
+    }
+}
@@ -0,0 +1,91 @@
+package ahodanenok.relational.execution;
+
+import ahodanenok.relational.Relation;
+import ahodanenok.relational.algebra.RelationalOperator;
+import ahodanenok.relational.expression.IdentityExpression;
+import ahodanenok.relational.expression.RelationalExpression;
+
+import java.util.*;
+
+/**
+ * Executor evaluating each distinct subexpression only once.
+ *
+ * <p>Expression tree is turned into a directed acyclic graph first, structurally equal subtrees
+ * become a single node shared by all of their parents, see {@link RelationalOperator} for the equality.
+ * Then the graph is evaluated bottom-up, the result of every node is kept until the end of the execution.
+ */
+public final class DagExecutor implements RelationalExecutor {
+
+    @Override
+    public Relation execute(RelationalExpression expression) {
+        Objects.requireNonNull(expression, "Expression can't be null");
+        RelationalExpression dag = toDag(expression, new HashMap<>());
+        return evaluate(dag, new IdentityHashMap<>());
+    }
+
+    /**
+     * Number of distinct subexpressions in the expression, which is the number of evaluations done by the executor.
+     */
+    public int countDistinct(RelationalExpression expression) {
+        Objects.requireNonNull(expression, "Expression can't be null");
+        Map<RelationalExpression, RelationalExpression> nodes = new HashMap<>();
+        toDag(expression, nodes);
+        return nodes.size();
+    }
+
+    /**
+     * @param nodes canonical node for each distinct subexpression seen so far
+     */
+    private RelationalExpression toDag(RelationalExpression expression,
+                                       Map<RelationalExpression, RelationalExpression> nodes) {
+        RelationalExpression node = nodes.get(expression);
+        if (node != null) {
+            return node;
+        }
+
+        node = expression;
+        if (expression instanceof RelationalOperator) {
+            RelationalOperator operator = (RelationalOperator) expression;
+            List<RelationalExpression> operands = operator.operands();
+            List<RelationalExpression> sharedOperands = new ArrayList<>(operands.size());
+            boolean changed = false;
+            for (RelationalExpression operand : operands) {
+                RelationalExpression sharedOperand = toDag(operand, nodes);
+                changed |= sharedOperand != operand;
+                sharedOperands.add(sharedOperand);
+            }
+
+            if (changed) {
+                node = operator.withOperands(sharedOperands);
+            }
+        }
+
+        nodes.put(expression, node);
+        return node;
+    }
+
+    private Relation evaluate(RelationalExpression node, Map<RelationalExpression, Relation> results) {
+        Relation result = results.get(node);
+        if (result != null) {
+            return result;
+        }
+
+        if (node instanceof RelationalOperator) {
+            RelationalOperator operator = (RelationalOperator) node;
+            List<RelationalExpression> operands = operator.operands();
+            List<RelationalExpression> evaluated = new ArrayList<>(operands.size());
+            for (RelationalExpression operand : operands) {
+                evaluated.add(operand instanceof IdentityExpression
+                        ? operand
+                        : new IdentityExpression(evaluate(operand, results)));
+            }
+
+            result = operator.withOperands(evaluated).execute();
+        } else {
+            result = node.execute();
+        }
+
+        results.put(node, result);
+        return result;
+    }
+}
@@ -0,0 +1,39 @@
+package ahodanenok.relational.execution;
+
+import ahodanenok.relational.Relation;
+import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.optimizer.QueryOptimizer;
+
+import java.util.Objects;
+
+/**
+ * Executor rewriting the expression with {@link QueryOptimizer} before passing it to another executor.
+ */
+public final class OptimizingExecutor implements RelationalExecutor {
+
+    private final QueryOptimizer optimizer;
+    private final RelationalExecutor executor;
+
+    /**
+     * Optimized expression will be executed by calling {@link RelationalExpression#execute()}.
+     */
+    public OptimizingExecutor() {
+        this(RelationalExpression::execute);
+    }
+
+    public OptimizingExecutor(RelationalExecutor executor) {
+        this(new QueryOptimizer(), executor);
+    }
+
+    public OptimizingExecutor(QueryOptimizer optimizer, RelationalExecutor executor) {
+        Objects.requireNonNull(optimizer, "Optimizer can't be null");
+        Objects.requireNonNull(executor, "Executor can't be null");
+        this.optimizer = optimizer;
+        this.executor = executor;
+    }
+
+    @Override
+    public Relation execute(RelationalExpression expression) {
+        return executor.execute(optimizer.optimize(expression));
+    }
+}
@@ -0,0 +1,128 @@
+package ahodanenok.relational.execution;
+
+import ahodanenok.relational.Relation;
+import ahodanenok.relational.algebra.RelationalOperator;
+import ahodanenok.relational.expression.IdentityExpression;
+import ahodanenok.relational.expression.RelationalExpression;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Executor evaluating the operands of an operator concurrently in a fork-join pool.
+ *
+ * <p>Operands of every operator are evaluated first, then the operator is applied to their relations.
+ * Subtrees with the total cardinality of their base relations below the threshold are evaluated sequentially
+ * on the current thread, as forking them would cost more than it saves.
+ * Cardinality of the expressions other than {@link IdentityExpression} and operators is unknown,
+ * so they are always considered large enough.
+ */
+public final class ParallelExecutor implements RelationalExecutor {
+
+    public static final int DEFAULT_THRESHOLD = 10_000;
+
+    private final ForkJoinPool pool;
+    private final long threshold;
+
+    /**
+     * Executor using the common pool and the default threshold.
+     */
+    public ParallelExecutor() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param pool pool evaluating the operands
+     * @param threshold minimal number of tuples in the base relations of a subtree to evaluate it concurrently
+     */
+    public ParallelExecutor(ForkJoinPool pool, long threshold) {
+        Objects.requireNonNull(pool, "Pool can't be null");
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold can't be negative: " + threshold);
+        }
+
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public Relation execute(RelationalExpression expression) {
+        Objects.requireNonNull(expression, "Expression can't be null");
+        Map<RelationalExpression, Long> cardinalities = new IdentityHashMap<>();
+        estimateCardinality(expression, cardinalities);
+        return pool.invoke(new EvaluationTask(expression, cardinalities));
+    }
+
+    /**
+     * Estimate the cardinality of the expression and put it to the map along with the estimates of its operands,
+     * so that the tasks only look them up. Subtrees shared by several operators are visited once.
+     */
+    private static long estimateCardinality(RelationalExpression expression, Map<RelationalExpression, Long> cardinalities) {
+        Long known = cardinalities.get(expression);
+        if (known != null) {
+            return known;
+        }
+
+        long total;
+        if (expression instanceof IdentityExpression) {
+            total = expression.execute().cardinality();
+        } else if (!(expression instanceof RelationalOperator)) {
+            total = Long.MAX_VALUE;
+        } else {
+            total = 0;
+            for (RelationalExpression operand : ((RelationalOperator) expression).operands()) {
+                long cardinality = estimateCardinality(operand, cardinalities);
+                total = cardinality == Long.MAX_VALUE || total == Long.MAX_VALUE ? Long.MAX_VALUE : total + cardinality;
+            }
+        }
+
+        cardinalities.put(expression, total);
+        return total;
+    }
+
+    private final class EvaluationTask extends RecursiveTask<Relation> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final RelationalExpression expression;
+        // filled before the tasks are started and only read by them
+        private final Map<RelationalExpression, Long> cardinalities;
+
+        EvaluationTask(RelationalExpression expression, Map<RelationalExpression, Long> cardinalities) {
+            this.expression = expression;
+            this.cardinalities = cardinalities;
+        }
+
+        @Override
+        protected Relation compute() {
+            if (!(expression instanceof RelationalOperator) || cardinalities.get(expression) < threshold) {
+                return expression.execute();
+            }
+
+            RelationalOperator operator = (RelationalOperator) expression;
+            List<RelationalExpression> operands = operator.operands();
+            List<EvaluationTask> tasks = new ArrayList<>(operands.size());
+            for (RelationalExpression operand : operands) {
+                tasks.add(new EvaluationTask(operand, cardinalities));
+            }
+
+            // all operands except the first are forked, the first one is evaluated by the current thread
+            for (int i = tasks.size() - 1; i > 0; i--) {
+                tasks.get(i).fork();
+            }
+
+            List<RelationalExpression> evaluated = new ArrayList<>(operands.size());
+            for (int i = 0; i < tasks.size(); i++) {
+                Relation relation = i == 0 ? tasks.get(i).compute() : tasks.get(i).join();
+                evaluated.add(new IdentityExpression(relation));
+            }
+
+            return operator.withOperands(evaluated).execute();
+        }
+    }
+}
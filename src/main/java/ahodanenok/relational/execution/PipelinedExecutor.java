@@ -0,0 +1,35 @@
+package ahodanenok.relational.execution;
+
+import ahodanenok.relational.Relation;
+import ahodanenok.relational.RelationBuilder;
+import ahodanenok.relational.Tuple;
+import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.expression.TupleCursor;
+
+import java.util.Objects;
+
+/**
+ * Executor pulling tuples through the cursors of the expression tree.
+ *
+ * <p>Operators pass tuples to their parents one by one without producing intermediate relations,
+ * the resulting relation is built only once at the root of the tree.
+ */
+public final class PipelinedExecutor implements RelationalExecutor {
+
+    @Override
+    public Relation execute(RelationalExpression expression) {
+        Objects.requireNonNull(expression, "Expression can't be null");
+        try (TupleCursor cursor = expression.cursor()) {
+            cursor.open();
+
+            // cursors produce tuples of their schema, so they are not checked again
+            RelationBuilder relationBuilder = new RelationBuilder(cursor.schema());
+            Tuple tuple;
+            while ((tuple = cursor.next()) != null) {
+                relationBuilder.add(tuple);
+            }
+
+            return relationBuilder.build();
+        }
+    }
+}
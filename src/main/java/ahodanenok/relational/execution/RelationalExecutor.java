@@ -0,0 +1,15 @@
+package ahodanenok.relational.execution;
+
+import ahodanenok.relational.Relation;
+import ahodanenok.relational.expression.RelationalExpression;
+
+/**
+ * Strategy for evaluating a relational expression.
+ */
+public interface RelationalExecutor {
+
+    /**
+     * Evaluate the expression and produce its relation.
+     */
+    Relation execute(RelationalExpression expression);
+}
@@ -0,0 +1,137 @@
+package ahodanenok.relational.execution;
+
+import ahodanenok.relational.*;
+import ahodanenok.relational.algebra.JoinOperator;
+import ahodanenok.relational.algebra.ProductOperator;
+import ahodanenok.relational.algebra.ProjectOperator;
+import ahodanenok.relational.algebra.RelationalOperator;
+import ahodanenok.relational.algebra.UnionOperator;
+import ahodanenok.relational.expression.IdentityExpression;
+import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.expression.TupleCursor;
+import ahodanenok.relational.io.SpillingJoin;
+import ahodanenok.relational.io.SpillingTupleSet;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Executor keeping the results of operators within a memory budget.
+ *
+ * <p>Operators are executed bottom-up and each result is collected by a {@link SpillingTupleSet},
+ * which moves the tuples to temporary files when they don't fit into the budget.
+ * Projections and unions put the tuples right into the set, so it's the only place where the duplicates are removed.
+ *
+ * <p>Joins and products are executed by a {@link SpillingJoin}, which partitions the relations into temporary files
+ * if a hash table on the smaller one doesn't fit into the budget.
+ *
+ * <p>Other operators are executed with their cursors and keep their own state in memory.
+ * Only attributes of types {@code Integer}, {@code Long}, {@code Double}, {@code Boolean} and {@code String} can be spilled.
+ *
+ * <p>Files of the intermediate results are deleted as soon as they are consumed. If the result is spilled,
+ * its storage is a {@link ahodanenok.relational.io.SpilledRelationStorage}, which must be closed to delete its files.
+ */
+public final class SpillingExecutor implements RelationalExecutor {
+
+    private final long memoryBudget;
+    private final Path directory;
+
+    /**
+     * @param memoryBudget approximate number of bytes the tuples of a result or of a hash table can take
+     */
+    public SpillingExecutor(long memoryBudget) {
+        this(memoryBudget, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * @param memoryBudget approximate number of bytes the tuples of a result or of a hash table can take
+     * @param directory directory for the temporary files
+     */
+    public SpillingExecutor(long memoryBudget, Path directory) {
+        Objects.requireNonNull(directory, "Directory can't be null");
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("Memory budget can't be negative: " + memoryBudget);
+        }
+
+        this.memoryBudget = memoryBudget;
+        this.directory = directory;
+    }
+
+    @Override
+    public Relation execute(RelationalExpression expression) {
+        Objects.requireNonNull(expression, "Expression can't be null");
+        if (!(expression instanceof RelationalOperator)) {
+            return expression.execute();
+        }
+
+        RelationalOperator operator = (RelationalOperator) expression;
+        List<Relation> operands = new ArrayList<>();
+        try {
+            for (RelationalExpression operand : operator.operands()) {
+                operands.add(execute(operand));
+            }
+
+            return evaluate(operator, operands);
+        } finally {
+            // results of the operands are not referenced by the result, so their files can be deleted
+            for (int i = 0; i < operands.size(); i++) {
+                if (operator.operands().get(i) instanceof RelationalOperator) {
+                    close(operands.get(i));
+                }
+            }
+        }
+    }
+
+    private Relation evaluate(RelationalOperator operator, List<Relation> operands) {
+        RelationalOperator bound = operator.withOperands(operands.stream()
+                .map(IdentityExpression::new)
+                .collect(Collectors.toList()));
+
+        if (operator instanceof JoinOperator || operator instanceof ProductOperator) {
+            return new SpillingJoin(memoryBudget, directory).join(operands.get(0), operands.get(1), bound.schema());
+        }
+
+        if (operator instanceof ProjectOperator) {
+            RelationSchema schema = bound.schema();
+            TupleFactory tupleFactory = TupleFactory.projection(operands.get(0).schema(), schema);
+            SpillingTupleSet result = new SpillingTupleSet(schema, memoryBudget, directory);
+            operands.get(0).tuples().map(tupleFactory::create).forEach(result::add);
+            return result.build();
+        }
+
+        if (operator instanceof UnionOperator) {
+            // fails if the schemas are different
+            SpillingTupleSet result = new SpillingTupleSet(bound.schema(), memoryBudget, directory);
+            operands.forEach(relation -> relation.tuples().forEach(result::add));
+            return result.build();
+        }
+
+        try (TupleCursor cursor = bound.cursor()) {
+            cursor.open();
+            SpillingTupleSet result = new SpillingTupleSet(cursor.schema(), memoryBudget, directory);
+            Tuple tuple;
+            while ((tuple = cursor.next()) != null) {
+                result.add(tuple);
+            }
+
+            return result.build();
+        }
+    }
+
+    private static void close(Relation relation) {
+        if (relation.storage() instanceof Closeable) {
+            try {
+                ((Closeable) relation.storage()).close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package ahodanenok.relational.expression;
 
 import ahodanenok.relational.Relation;
+import ahodanenok.relational.RelationSchema;
 
 import java.util.Objects;
 
 /**
  * Expression which always produces the given relation.
+ *
+ * <p>Expressions are equal if their relations are equal.
  */
 public class IdentityExpression implements RelationalExpression {
 
@@ -20,4 +23,28 @@ public class IdentityExpression implements RelationalExpression {
     public Relation execute() {
         return relation;
     }
+
+    @Override
+    public RelationSchema schema() {
+        return relation.schema();
+    }
+
+    @Override
+    public int hashCode() {
+        return relation.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || !this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+
+        IdentityExpression other = (IdentityExpression) obj;
+        return relation.equals(other.relation);
+    }
 }
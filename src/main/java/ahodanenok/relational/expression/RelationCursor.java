@@ -0,0 +1,46 @@
+package ahodanenok.relational.expression;
+
+import ahodanenok.relational.Relation;
+import ahodanenok.relational.RelationSchema;
+import ahodanenok.relational.Tuple;
+
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * Cursor over the tuples of a relation produced by an expression.
+ * The expression is executed when the cursor is opened.
+ */
+public final class RelationCursor implements TupleCursor {
+
+    private final RelationalExpression expr;
+    private Relation relation;
+    private Iterator<Tuple> tuples;
+
+    public RelationCursor(RelationalExpression expr) {
+        Objects.requireNonNull(expr, "Expression can't be null");
+        this.expr = expr;
+    }
+
+    @Override
+    public void open() {
+        relation = expr.execute();
+        tuples = relation.tuples().iterator();
+    }
+
+    @Override
+    public RelationSchema schema() {
+        return relation.schema();
+    }
+
+    @Override
+    public Tuple next() {
+        return tuples.hasNext() ? tuples.next() : null;
+    }
+
+    @Override
+    public void close() {
+        relation = null;
+        tuples = null;
+    }
+}
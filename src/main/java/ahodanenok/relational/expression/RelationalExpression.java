@@ -1,8 +1,25 @@
 package ahodanenok.relational.expression;
 
 import ahodanenok.relational.Relation;
+import ahodanenok.relational.RelationSchema;
 
 public interface RelationalExpression {
 
     Relation execute();
+
+    /**
+     * Schema of the relation produced by this expression.
+     * By default the expression is executed to find it out.
+     */
+    default RelationSchema schema() {
+        return execute().schema();
+    }
+
+    /**
+     * Cursor producing the tuples of this expression one by one.
+     * By default the whole relation is produced by {@link #execute()} when the cursor is opened.
+     */
+    default TupleCursor cursor() {
+        return new RelationCursor(this);
+    }
 }
@@ -0,0 +1,35 @@
+package ahodanenok.relational.expression;
+
+import ahodanenok.relational.RelationSchema;
+import ahodanenok.relational.Tuple;
+
+/**
+ * Pull-based iterator over the tuples produced by an expression.
+ *
+ * <p>Cursor must be opened before requesting tuples and closed after that.
+ * Tuples returned by a cursor have the same schema and there are no duplicates among them.
+ */
+public interface TupleCursor extends AutoCloseable {
+
+    /**
+     * Prepare the cursor for producing tuples.
+     */
+    void open();
+
+    /**
+     * Schema of the produced tuples, available after the cursor is opened.
+     */
+    RelationSchema schema();
+
+    /**
+     * Produce the next tuple.
+     * @return the next tuple or null if there are no more tuples, once null is returned all the following calls return null
+     */
+    Tuple next();
+
+    /**
+     * Release all resources held by the cursor, can be called even if the cursor wasn't opened.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,257 @@
+package ahodanenok.relational.io;
+
+import ahodanenok.relational.Tuple;
+import ahodanenok.relational.exception.RelationalException;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Encoding of the values of an attribute in a column block.
+ *
+ * <p>Values of fixed size types are stored one after another. Strings are stored as offsets of their UTF-8 bytes
+ * relative to the start of the data, followed by the data itself, the last offset is the size of the data.
+ *
+ * <p>Single values can be written and read as well, see {@link TupleCodec}.
+ */
+enum ColumnType {
+
+    INT(1, Integer.class) {
+        @Override
+        void write(DataOutput out, List<Tuple> tuples, int slot) throws IOException {
+            for (Tuple tuple : tuples) {
+                out.writeInt((Integer) tuple.getValue(slot));
+            }
+        }
+
+        @Override
+        Object read(ByteBuffer buffer, int base, int rows, int row) {
+            return buffer.getInt(base + row * 4);
+        }
+
+        @Override
+        void writeValue(DataOutput out, Object value) throws IOException {
+            out.writeInt((Integer) value);
+        }
+
+        @Override
+        Object readValue(DataInput in) throws IOException {
+            return in.readInt();
+        }
+
+        @Override
+        int size(ByteBuffer buffer, int base, int rows) {
+            return rows * 4;
+        }
+    },
+
+    LONG(2, Long.class) {
+        @Override
+        void write(DataOutput out, List<Tuple> tuples, int slot) throws IOException {
+            for (Tuple tuple : tuples) {
+                out.writeLong((Long) tuple.getValue(slot));
+            }
+        }
+
+        @Override
+        Object read(ByteBuffer buffer, int base, int rows, int row) {
+            return buffer.getLong(base + row * 8);
+        }
+
+        @Override
+        void writeValue(DataOutput out, Object value) throws IOException {
+            out.writeLong((Long) value);
+        }
+
+        @Override
+        Object readValue(DataInput in) throws IOException {
+            return in.readLong();
+        }
+
+        @Override
+        int size(ByteBuffer buffer, int base, int rows) {
+            return rows * 8;
+        }
+    },
+
+    DOUBLE(3, Double.class) {
+        @Override
+        void write(DataOutput out, List<Tuple> tuples, int slot) throws IOException {
+            for (Tuple tuple : tuples) {
+                out.writeDouble((Double) tuple.getValue(slot));
+            }
+        }
+
+        @Override
+        Object read(ByteBuffer buffer, int base, int rows, int row) {
+            return buffer.getDouble(base + row * 8);
+        }
+
+        @Override
+        void writeValue(DataOutput out, Object value) throws IOException {
+            out.writeDouble((Double) value);
+        }
+
+        @Override
+        Object readValue(DataInput in) throws IOException {
+            return in.readDouble();
+        }
+
+        @Override
+        int size(ByteBuffer buffer, int base, int rows) {
+            return rows * 8;
+        }
+    },
+
+    BOOLEAN(4, Boolean.class) {
+        @Override
+        void write(DataOutput out, List<Tuple> tuples, int slot) throws IOException {
+            for (Tuple tuple : tuples) {
+                out.writeBoolean((Boolean) tuple.getValue(slot));
+            }
+        }
+
+        @Override
+        Object read(ByteBuffer buffer, int base, int rows, int row) {
+            return buffer.get(base + row) != 0;
+        }
+
+        @Override
+        void writeValue(DataOutput out, Object value) throws IOException {
+            out.writeBoolean((Boolean) value);
+        }
+
+        @Override
+        Object readValue(DataInput in) throws IOException {
+            return in.readBoolean();
+        }
+
+        @Override
+        int size(ByteBuffer buffer, int base, int rows) {
+            return rows;
+        }
+    },
+
+    STRING(5, String.class) {
+        @Override
+        void write(DataOutput out, List<Tuple> tuples, int slot) throws IOException {
+            byte[][] values = new byte[tuples.size()][];
+            int offset = 0;
+            out.writeInt(offset);
+            for (int row = 0; row < values.length; row++) {
+                values[row] = ((String) tuples.get(row).getValue(slot)).getBytes(StandardCharsets.UTF_8);
+                offset += values[row].length;
+                out.writeInt(offset);
+            }
+            for (byte[] value : values) {
+                out.write(value);
+            }
+        }
+
+        @Override
+        Object read(ByteBuffer buffer, int base, int rows, int row) {
+            int start = buffer.getInt(base + row * 4);
+            int end = buffer.getInt(base + (row + 1) * 4);
+
+            byte[] bytes = new byte[end - start];
+            ByteBuffer data = buffer.duplicate();
+            data.position(base + (rows + 1) * 4 + start);
+            data.get(bytes);
+
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        void writeValue(DataOutput out, Object value) throws IOException {
+            byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        Object readValue(DataInput in) throws IOException {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        int size(ByteBuffer buffer, int base, int rows) {
+            return (rows + 1) * 4 + buffer.getInt(base + rows * 4);
+        }
+    };
+
+    private final byte code;
+    private final Class<?> javaType;
+
+    ColumnType(int code, Class<?> javaType) {
+        this.code = (byte) code;
+        this.javaType = javaType;
+    }
+
+    byte code() {
+        return code;
+    }
+
+    Class<?> javaType() {
+        return javaType;
+    }
+
+    /**
+     * Write the values of the attribute in the given slot of the tuples as a column block.
+     */
+    abstract void write(DataOutput out, List<Tuple> tuples, int slot) throws IOException;
+
+    /**
+     * Decode the value of the given row from a column block.
+     *
+     * @param base position of the block in the buffer
+     * @param rows number of rows in the block
+     */
+    abstract Object read(ByteBuffer buffer, int base, int rows, int row);
+
+    /**
+     * Write a single value, strings are prefixed with the length of their UTF-8 bytes.
+     */
+    abstract void writeValue(DataOutput out, Object value) throws IOException;
+
+    /**
+     * Read a single value written by {@link #writeValue(DataOutput, Object)}.
+     */
+    abstract Object readValue(DataInput in) throws IOException;
+
+    /**
+     * Size of a column block in bytes.
+     */
+    abstract int size(ByteBuffer buffer, int base, int rows);
+
+    /**
+     * @throws RelationalException if the values of the type can't be stored
+     */
+    static ColumnType of(Class<?> javaType) {
+        for (ColumnType type : values()) {
+            if (type.javaType == javaType) {
+                return type;
+            }
+        }
+
+        throw new RelationalException(String.format("Values of type '%s' can't be stored", javaType.getName()));
+    }
+
+    /**
+     * @return type with the given code or null if there is no such type
+     */
+    static ColumnType ofCode(byte code) {
+        for (ColumnType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+
+        return null;
+    }
+}
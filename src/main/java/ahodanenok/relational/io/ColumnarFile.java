@@ -0,0 +1,145 @@
+package ahodanenok.relational.io;
+
+import ahodanenok.relational.*;
+import ahodanenok.relational.exception.RelationalException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Binary columnar file with the tuples of a relation.
+ *
+ * <p>File starts with a header: magic number, format version, degree, cardinality,
+ * then name (UTF-8) and type code of each attribute. The header is followed by a block
+ * with the values of each attribute in the same order, see {@link ColumnType} for the encoding of the blocks.
+ * Only attributes of types {@code Integer}, {@code Long}, {@code Double}, {@code Boolean} and {@code String} can be stored.
+ *
+ * <p>Opened file is mapped into memory, values are decoded only when they are accessed.
+ * File must not be larger than 2 GB.
+ */
+public final class ColumnarFile {
+
+    static final int MAGIC = 0x52454C43;
+    static final int VERSION = 1;
+
+    private ColumnarFile() { }
+
+    /**
+     * Write the tuples of the relation to the file, replacing its content.
+     *
+     * @throws RelationalException if the relation has attributes of types which can't be stored
+     */
+    public static void write(Relation relation, Path path) throws IOException {
+        Objects.requireNonNull(relation, "Relation can't be null");
+        Objects.requireNonNull(path, "Path can't be null");
+
+        RelationSchema schema = relation.schema();
+        ColumnType[] types = new ColumnType[schema.degree()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = ColumnType.of(schema.getAttribute(i).getType());
+        }
+
+        List<Tuple> tuples = relation.tuples().collect(Collectors.toList());
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(types.length);
+            out.writeInt(tuples.size());
+            for (int i = 0; i < types.length; i++) {
+                byte[] name = schema.getAttribute(i).getName().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(name.length);
+                out.write(name);
+                out.writeByte(types[i].code());
+            }
+
+            for (int i = 0; i < types.length; i++) {
+                types[i].write(out, tuples, i);
+            }
+        }
+    }
+
+    /**
+     * Open a relation stored in the file.
+     *
+     * <p>File is mapped into memory and can be closed right away,
+     * the mapping is released when the relation is no longer reachable.
+     *
+     * @throws IOException if the file can't be read or it's not a valid columnar file
+     */
+    public static Relation open(Path path) throws IOException {
+        Objects.requireNonNull(path, "Path can't be null");
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(String.format("File '%s' is larger than 2 GB", path));
+            }
+
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            return read(buffer);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException(String.format("File '%s' is truncated or corrupted", path), e);
+        }
+    }
+
+    private static Relation read(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a columnar relation file");
+        }
+
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException(String.format("Unsupported format version: %d", version));
+        }
+
+        int degree = buffer.getInt();
+        int rows = buffer.getInt();
+        TupleSchemaGenerator schemaGenerator = new TupleSchemaGenerator();
+        String[] names = new String[degree];
+        ColumnType[] types = new ColumnType[degree];
+        for (int i = 0; i < degree; i++) {
+            byte[] name = new byte[buffer.getInt()];
+            buffer.get(name);
+            names[i] = new String(name, StandardCharsets.UTF_8);
+            types[i] = ColumnType.ofCode(buffer.get());
+            if (types[i] == null) {
+                throw new IOException(String.format("Unknown type of attribute '%s'", names[i]));
+            }
+
+            schemaGenerator.withAttribute(names[i], types[i].javaType());
+        }
+
+        TupleSchema schema = schemaGenerator.generate();
+        int[] bases = new int[degree];
+        ColumnType[] slotTypes = new ColumnType[degree];
+        int base = buffer.position();
+        for (int i = 0; i < degree; i++) {
+            int slot = schema.indexOf(names[i]);
+            bases[slot] = base;
+            slotTypes[slot] = types[i];
+            base += types[i].size(buffer, base, rows);
+        }
+
+        if (base > buffer.limit()) {
+            throw new BufferUnderflowException();
+        }
+
+        MappedRelationStorage storage = new MappedRelationStorage(schema, buffer, rows, slotTypes, bases);
+        return new Relation(storage.schema(), storage);
+    }
+}
@@ -0,0 +1,639 @@
+package ahodanenok.relational.io;
+
+import ahodanenok.relational.*;
+import ahodanenok.relational.exception.AttributeNotFoundException;
+import ahodanenok.relational.exception.RelationalException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Loads a relation from a CSV file.
+ *
+ * <p>Each line of the file is a tuple, values are separated by the delimiter and can be enclosed in double quotes,
+ * a quote inside a quoted value is written twice. Line breaks inside values are not supported. Empty lines are skipped.
+ * Names of the columns are read from the first line of the file unless they are given with {@link #withColumns(String...)}.
+ * Only attributes of types {@code Integer}, {@code Long}, {@code Double}, {@code Boolean} and {@code String} can be loaded.
+ *
+ * <p>File is split into ranges of whole lines, which are mapped into memory and parsed concurrently
+ * in the common fork-join pool. Each worker removes duplicates among its own tuples in a table sized
+ * by the number of lines in its range, then the parts are merged into a table sized for all of them.
+ * In the sequential mode all ranges are parsed into the same table.
+ */
+public final class CsvLoader {
+
+    static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    private final RelationSchema schema;
+    private char delimiter = ',';
+    private List<String> columns;
+    private boolean parallel = true;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * @param schema schema of the loaded relation
+     * @throws RelationalException if the schema has attributes of types which can't be loaded
+     */
+    public CsvLoader(RelationSchema schema) {
+        Objects.requireNonNull(schema, "Schema can't be null");
+        schema.attributes().forEach(a -> FieldParser.of(a.getType()));
+        this.schema = schema;
+    }
+
+    /**
+     * Separator of the values in a line, comma is used by default.
+     */
+    public CsvLoader withDelimiter(char delimiter) {
+        if (delimiter == '"' || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("Invalid delimiter: " + delimiter);
+        }
+
+        this.delimiter = delimiter;
+        return this;
+    }
+
+    /**
+     * Names of the attributes in the order of the values in a line, the file doesn't have a header in this case.
+     */
+    public CsvLoader withColumns(String... names) {
+        this.columns = new ArrayList<>(names.length);
+        for (String name : names) {
+            Objects.requireNonNull(name, "Column name can't be null");
+            this.columns.add(name.trim());
+        }
+
+        return this;
+    }
+
+    /**
+     * Approximate size in bytes of the ranges parsed concurrently.
+     */
+    public CsvLoader withChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Parse ranges of the file concurrently. This is default mode.
+     */
+    public CsvLoader parallel() {
+        this.parallel = true;
+        return this;
+    }
+
+    /**
+     * Parse the file on the current thread.
+     */
+    public CsvLoader sequential() {
+        this.parallel = false;
+        return this;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Load the tuples from the file.
+     *
+     * @throws IOException if the file can't be read
+     * @throws RelationalException if a line has a wrong number of values or a value can't be converted to the attribute's type
+     */
+    public Relation load(Path path) throws IOException {
+        Objects.requireNonNull(path, "Path can't be null");
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = 0;
+            List<String> names = columns;
+            if (names == null) {
+                long headerEnd = lineEnd(channel, 0, size);
+                ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerEnd);
+                names = new ArrayList<>();
+                new Parser(new FieldParser[0], new int[0], null).splitHeader(header, names);
+                start = Math.min(headerEnd + 1, size);
+            }
+
+            Layout layout = new Layout(names);
+
+            List<long[]> ranges = new ArrayList<>();
+            while (start < size) {
+                long end = start + chunkSize >= size ? size : Math.min(lineEnd(channel, start + chunkSize, size) + 1, size);
+                ranges.add(new long[] { start, end });
+                start = end;
+            }
+
+            if (!parallel) {
+                RelationBuilder resultRelationBuilder = new RelationBuilder(schema);
+                for (long[] range : ranges) {
+                    parse(channel, range[0], range[1], layout, resultRelationBuilder::add);
+                }
+
+                return resultRelationBuilder.build();
+            }
+
+            List<Set<Tuple>> parts = ranges.parallelStream()
+                    .map(range -> parse(channel, range[0], range[1], layout))
+                    .collect(Collectors.toList());
+            if (parts.size() == 1) {
+                return RelationBuilder.of(schema, parts.get(0));
+            }
+
+            // sized for all tuples, so the merged table is never resized
+            RelationBuilder resultRelationBuilder = new RelationBuilder(schema, parts.stream().mapToInt(Set::size).sum());
+            parts.forEach(resultRelationBuilder::addAll);
+
+            return resultRelationBuilder.build();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Set<Tuple> parse(FileChannel channel, long start, long end, Layout layout) {
+        ByteBuffer buffer = map(channel, start, end);
+        int lines = 1;
+        for (int i = 0; i < buffer.limit(); i++) {
+            if (buffer.get(i) == '\n') {
+                lines++;
+            }
+        }
+
+        Set<Tuple> tuples = new HashSet<>(lines * 4 / 3 + 1);
+        new Parser(layout.parsers, layout.slots, TupleFactory.of(schema)).parse(buffer, start, tuples::add);
+        return tuples;
+    }
+
+    private void parse(FileChannel channel, long start, long end, Layout layout, Consumer<Tuple> consumer) {
+        new Parser(layout.parsers, layout.slots, TupleFactory.of(schema)).parse(map(channel, start, end), start, consumer);
+    }
+
+    private static ByteBuffer map(FileChannel channel, long start, long end) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Position of the first line break at or after the given position or the size of the file if there is none.
+     */
+    private static long lineEnd(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long pos = position;
+        while (pos < size) {
+            buffer.clear();
+            int read = channel.read(buffer, pos);
+            if (read <= 0) {
+                break;
+            }
+
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return pos + i;
+                }
+            }
+
+            pos += read;
+        }
+
+        return size;
+    }
+
+    /**
+     * Parsers of the columns and slots of their values in the tuples.
+     */
+    private final class Layout {
+
+        private final FieldParser[] parsers;
+        private final int[] slots;
+
+        Layout(List<String> names) {
+            if (names.size() != schema.degree()) {
+                throw new RelationalException(String.format(
+                        "Expected %d columns, but got %d: %s", schema.degree(), names.size(), names));
+            }
+
+            this.parsers = new FieldParser[names.size()];
+            this.slots = new int[names.size()];
+            Set<String> seen = new HashSet<>();
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(i);
+                if (!schema.hasAttribute(name)) {
+                    throw new AttributeNotFoundException(name);
+                }
+                if (!seen.add(name)) {
+                    throw new RelationalException(String.format("Column '%s' is given more than once", name));
+                }
+
+                parsers[i] = FieldParser.of(schema.getAttribute(name).getType());
+                slots[i] = schema.indexOf(name);
+            }
+        }
+    }
+
+    /**
+     * Splits the lines of a range into values, not thread-safe.
+     */
+    private final class Parser {
+
+        private final FieldParser[] parsers;
+        private final int[] slots;
+        private final TupleFactory tupleFactory;
+        private final StringBuilder quoted = new StringBuilder();
+        private ByteBuffer buffer;
+        private long offset;
+        // end of the last parsed value and the unescaped content if it was quoted, null otherwise
+        private int valueEnd;
+        private String quotedValue;
+
+        Parser(FieldParser[] parsers, int[] slots, TupleFactory tupleFactory) {
+            this.parsers = parsers;
+            this.slots = slots;
+            this.tupleFactory = tupleFactory;
+        }
+
+        void splitHeader(ByteBuffer header, List<String> names) {
+            this.buffer = header;
+            int end = trimLineEnd(0, header.limit());
+            int pos = 0;
+            while (pos <= end) {
+                int fieldEnd = scanValue(pos, end);
+                names.add((quotedValue != null ? quotedValue : FieldParser.decode(buffer, pos, fieldEnd)).trim());
+                pos = valueEnd + 1;
+            }
+        }
+
+        void parse(ByteBuffer range, long rangeOffset, Consumer<Tuple> consumer) {
+            this.buffer = range;
+            this.offset = rangeOffset;
+            int limit = range.limit();
+            int pos = 0;
+            while (pos < limit) {
+                int lineEnd = pos;
+                while (lineEnd < limit && range.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+
+                int end = trimLineEnd(pos, lineEnd);
+                if (end > pos) {
+                    consumer.accept(parseLine(pos, end));
+                }
+
+                pos = lineEnd + 1;
+            }
+        }
+
+        private int trimLineEnd(int start, int end) {
+            return end > start && buffer.get(end - 1) == '\r' ? end - 1 : end;
+        }
+
+        private Tuple parseLine(int start, int end) {
+            Object[] values = new Object[parsers.length];
+            int pos = start;
+            for (int i = 0; i < parsers.length; i++) {
+                if (pos > end) {
+                    throw new RelationalException(String.format(
+                            "Expected %d values in the line at byte %d", parsers.length, offset + start));
+                }
+
+                int fieldEnd = scanValue(pos, end);
+                try {
+                    values[slots[i]] = quotedValue != null
+                            ? parsers[i].parse(quotedValue)
+                            : parsers[i].parse(buffer, pos, fieldEnd);
+                } catch (IllegalArgumentException e) {
+                    throw new RelationalException(String.format(
+                            "Invalid value '%s' of attribute '%s' at byte %d",
+                            quotedValue != null ? quotedValue : FieldParser.decode(buffer, pos, fieldEnd),
+                            schema.getAttribute(slots[i]).getName(), offset + pos));
+                }
+
+                pos = valueEnd + 1;
+            }
+
+            if (valueEnd != end) {
+                throw new RelationalException(String.format(
+                        "Expected %d values in the line at byte %d", parsers.length, offset + start));
+            }
+
+            return tupleFactory.create(values);
+        }
+
+        /**
+         * @return end of the unquoted value, quoted value is stored in {@code quotedValue}
+         */
+        private int scanValue(int start, int end) {
+            quotedValue = null;
+            if (start < end && buffer.get(start) == '"') {
+                quoted.setLength(0);
+                int pos = start + 1;
+                int chunkStart = pos;
+                while (true) {
+                    if (pos >= end) {
+                        throw new RelationalException(String.format("Unclosed quote at byte %d", offset + start));
+                    }
+
+                    if (buffer.get(pos) == '"') {
+                        quoted.append(FieldParser.decode(buffer, chunkStart, pos));
+                        if (pos + 1 < end && buffer.get(pos + 1) == '"') {
+                            quoted.append('"');
+                            pos += 2;
+                            chunkStart = pos;
+                            continue;
+                        }
+
+                        pos++;
+                        break;
+                    }
+
+                    pos++;
+                }
+
+                if (pos < end && buffer.get(pos) != delimiter) {
+                    throw new RelationalException(String.format("Unexpected character after quote at byte %d", offset + pos));
+                }
+
+                quotedValue = quoted.toString();
+                valueEnd = pos;
+                return pos;
+            }
+
+            int pos = start;
+            while (pos < end && buffer.get(pos) != delimiter) {
+                pos++;
+            }
+
+            valueEnd = pos;
+            return pos;
+        }
+    }
+
+    /**
+     * Converts the text of a value to the type of an attribute.
+     */
+    private enum FieldParser {
+
+        INT(Integer.class) {
+            @Override
+            Object parse(ByteBuffer buffer, int start, int end) {
+                long value = parseLong(buffer, start, end);
+                if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                    throw new NumberFormatException();
+                }
+
+                return (int) value;
+            }
+
+            @Override
+            Object parse(String value) {
+                return Integer.parseInt(value.trim());
+            }
+        },
+
+        LONG(Long.class) {
+            @Override
+            Object parse(ByteBuffer buffer, int start, int end) {
+                return parseLong(buffer, start, end);
+            }
+
+            @Override
+            Object parse(String value) {
+                return Long.parseLong(value.trim());
+            }
+        },
+
+        DOUBLE(Double.class) {
+            @Override
+            Object parse(ByteBuffer buffer, int start, int end) {
+                int from = trimStart(buffer, start, end);
+                int to = trimEnd(buffer, from, end);
+                double value = parseDecimal(buffer, from, to);
+                if (Double.isNaN(value)) {
+                    return parse(decode(buffer, from, to));
+                }
+
+                return value;
+            }
+
+            @Override
+            Object parse(String value) {
+                return Double.parseDouble(value.trim());
+            }
+        },
+
+        BOOLEAN(Boolean.class) {
+            @Override
+            Object parse(ByteBuffer buffer, int start, int end) {
+                int from = trimStart(buffer, start, end);
+                int to = trimEnd(buffer, from, end);
+                if (equalsIgnoreCase(buffer, from, to, "true")) {
+                    return Boolean.TRUE;
+                } else if (equalsIgnoreCase(buffer, from, to, "false")) {
+                    return Boolean.FALSE;
+                }
+
+                throw new IllegalArgumentException();
+            }
+
+            @Override
+            Object parse(String value) {
+                String text = value.trim();
+                if (text.equalsIgnoreCase("true")) {
+                    return Boolean.TRUE;
+                } else if (text.equalsIgnoreCase("false")) {
+                    return Boolean.FALSE;
+                }
+
+                throw new IllegalArgumentException();
+            }
+        },
+
+        STRING(String.class) {
+            @Override
+            Object parse(ByteBuffer buffer, int start, int end) {
+                return decode(buffer, start, end);
+            }
+
+            @Override
+            Object parse(String value) {
+                return value;
+            }
+        };
+
+        // exact powers of ten for the decimals parsed right from the bytes
+        private static final double[] POWERS_OF_TEN = {
+                1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15 };
+
+        private final Class<?> type;
+
+        FieldParser(Class<?> type) {
+            this.type = type;
+        }
+
+        /**
+         * Convert an unquoted value, whitespace around values other than strings is ignored
+         * the same way as {@link String#trim()} does for the quoted ones.
+         * @throws IllegalArgumentException if the text is not a valid value of the type
+         */
+        abstract Object parse(ByteBuffer buffer, int start, int end);
+
+        /**
+         * Convert the content of a quoted value.
+         * @throws IllegalArgumentException if the text is not a valid value of the type
+         */
+        abstract Object parse(String value);
+
+        static FieldParser of(Class<?> type) {
+            for (FieldParser parser : values()) {
+                if (parser.type == type) {
+                    return parser;
+                }
+            }
+
+            throw new RelationalException(String.format("Values of type '%s' can't be loaded", type.getName()));
+        }
+
+        static String decode(ByteBuffer buffer, int start, int end) {
+            byte[] bytes = new byte[end - start];
+            ByteBuffer data = buffer.duplicate();
+            data.position(start);
+            data.get(bytes);
+
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Parse decimal digits right from the bytes without creating a string.
+         */
+        static long parseLong(ByteBuffer buffer, int start, int end) {
+            start = trimStart(buffer, start, end);
+            end = trimEnd(buffer, start, end);
+
+            int pos = start;
+            boolean negative = false;
+            if (pos < end && (buffer.get(pos) == '-' || buffer.get(pos) == '+')) {
+                negative = buffer.get(pos) == '-';
+                pos++;
+            }
+
+            if (pos == end) {
+                throw new NumberFormatException();
+            }
+
+            // accumulated negatively to fit Long.MIN_VALUE, as Long.parseLong does
+            long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+            long multiplyLimit = limit / 10;
+            long result = 0;
+            for (; pos < end; pos++) {
+                int digit = buffer.get(pos) - '0';
+                if (digit < 0 || digit > 9 || result < multiplyLimit) {
+                    throw new NumberFormatException();
+                }
+
+                result *= 10;
+                if (result < limit + digit) {
+                    throw new NumberFormatException();
+                }
+
+                result -= digit;
+            }
+
+            return negative ? result : -result;
+        }
+
+        /**
+         * Parse a decimal without an exponent and with at most 15 digits right from the bytes.
+         * Its digits and the power of ten are exact doubles, so their quotient is rounded
+         * the same way as by {@link Double#parseDouble(String)}.
+         *
+         * @return the value or NaN if the text has another form and must be parsed as a string
+         */
+        static double parseDecimal(ByteBuffer buffer, int start, int end) {
+            int pos = start;
+            boolean negative = false;
+            if (pos < end && (buffer.get(pos) == '-' || buffer.get(pos) == '+')) {
+                negative = buffer.get(pos) == '-';
+                pos++;
+            }
+
+            long digits = 0;
+            int count = 0;
+            // number of digits after the point, -1 if there is no point
+            int scale = -1;
+            for (; pos < end; pos++) {
+                byte b = buffer.get(pos);
+                if (b >= '0' && b <= '9') {
+                    if (++count >= POWERS_OF_TEN.length) {
+                        return Double.NaN;
+                    }
+
+                    digits = digits * 10 + (b - '0');
+                    if (scale >= 0) {
+                        scale++;
+                    }
+                } else if (b == '.' && scale < 0) {
+                    scale = 0;
+                } else {
+                    return Double.NaN;
+                }
+            }
+
+            if (count == 0) {
+                return Double.NaN;
+            }
+
+            double value = scale > 0 ? digits / POWERS_OF_TEN[scale] : digits;
+            return negative ? -value : value;
+        }
+
+        static boolean equalsIgnoreCase(ByteBuffer buffer, int start, int end, String text) {
+            if (end - start != text.length()) {
+                return false;
+            }
+
+            for (int i = 0; i < text.length(); i++) {
+                // text is lower case ASCII, setting the bit converts an upper case ASCII letter to lower case
+                if ((buffer.get(start + i) | 0x20) != text.charAt(i)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Skip leading characters which are removed by {@link String#trim()}, they are all single bytes in UTF-8.
+         */
+        static int trimStart(ByteBuffer buffer, int start, int end) {
+            while (start < end && (buffer.get(start) & 0xff) <= ' ') {
+                start++;
+            }
+
+            return start;
+        }
+
+        /**
+         * Skip trailing characters which are removed by {@link String#trim()}.
+         */
+        static int trimEnd(ByteBuffer buffer, int start, int end) {
+            while (end > start && (buffer.get(end - 1) & 0xff) <= ' ') {
+                end--;
+            }
+
+            return end;
+        }
+    }
+}
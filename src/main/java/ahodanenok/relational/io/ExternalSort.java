@@ -0,0 +1,212 @@
+package ahodanenok.relational.io;
+
+import ahodanenok.relational.*;
+import ahodanenok.relational.exception.RelationalException;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Sorts the tuples of a relation within a memory budget.
+ *
+ * <p>If the tuples fit into the budget, they are sorted in memory into a {@link SortedRelationStorage}.
+ * Otherwise the relation is streamed into sorted runs of the budget size, which are written to temporary
+ * files and merged, at most {@value #MAX_FAN_IN} runs at a time, until a single run remains.
+ * The last run is read by a {@link SortedFileStorage}, which must be closed to delete it.
+ * If sorting fails, all written files are deleted.
+ *
+ * <p>Only attributes of types {@code Integer}, {@code Long}, {@code Double}, {@code Boolean} and {@code String} can be spilled.
+ * Methods throw {@link UncheckedIOException} if the files can't be written or read.
+ */
+public final class ExternalSort {
+
+    private static final int MAX_FAN_IN = 64;
+
+    private final long memoryBudget;
+    private final Path directory;
+
+    /**
+     * @param directory directory for the temporary files
+     */
+    public ExternalSort(long memoryBudget, Path directory) {
+        Objects.requireNonNull(directory, "Directory can't be null");
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("Memory budget can't be negative: " + memoryBudget);
+        }
+
+        this.memoryBudget = memoryBudget;
+        this.directory = directory;
+    }
+
+    /**
+     * Create a relation with the tuples of the given one sorted by the given attributes.
+     *
+     * @throws ahodanenok.relational.exception.AttributeNotFoundException if an attribute is not in the relation
+     * @throws RelationalException if an attribute has a type which can't be ordered,
+     *                             or the tuples must be spilled, but they have attributes of types which can't be spilled
+     */
+    public Relation sort(Relation relation, String... attributeNames) {
+        Objects.requireNonNull(relation, "Relation can't be null");
+        Objects.requireNonNull(attributeNames, "Attribute names can't be null");
+
+        RelationSchema schema = relation.schema();
+        if (SpillingTupleSet.estimateSize(relation.cardinality(), schema.degree()) <= memoryBudget) {
+            return SortedRelationStorage.sort(relation, attributeNames);
+        }
+
+        List<String> ordering = SortedRelationStorage.ordering(schema, Arrays.asList(attributeNames));
+        Comparator<Tuple> comparator = SortedRelationStorage.comparator(schema, ordering);
+        TupleCodec codec = new TupleCodec(schema);
+        List<Path> createdFiles = new ArrayList<>();
+        try {
+            List<Run> runs = new ArrayList<>();
+            List<Tuple> buffer = new ArrayList<>();
+            Iterator<Tuple> tuples = relation.tuples().iterator();
+            while (tuples.hasNext()) {
+                buffer.add(tuples.next());
+                if (!tuples.hasNext() || SpillingTupleSet.estimateSize(buffer.size() + 1, schema.degree()) > memoryBudget) {
+                    buffer.sort(comparator);
+                    runs.add(writeRun(codec, buffer, createdFiles));
+                    buffer.clear();
+                }
+            }
+
+            while (runs.size() > MAX_FAN_IN) {
+                List<Run> merged = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += MAX_FAN_IN) {
+                    merged.add(merge(codec, comparator, runs.subList(i, Math.min(i + MAX_FAN_IN, runs.size())), false, createdFiles));
+                }
+                runs = merged;
+            }
+
+            Run run = merge(codec, comparator, runs, true, createdFiles);
+            return new Relation(schema, new SortedFileStorage(
+                    codec, ordering, comparator, run.file, run.count, run.blockOffsets, run.blockFirsts));
+        } catch (IOException | RuntimeException e) {
+            // runs are deleted once they are merged, the remaining ones are deleted here
+            for (Path file : createdFiles) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+
+            if (e instanceof IOException) {
+                throw new UncheckedIOException((IOException) e);
+            } else {
+                throw (RuntimeException) e;
+            }
+        }
+    }
+
+    private Run writeRun(TupleCodec codec, List<Tuple> tuples, List<Path> createdFiles) throws IOException {
+        Path file = SpillPartitions.createFile(directory);
+        createdFiles.add(file);
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (Tuple tuple : tuples) {
+                codec.write(output, tuple);
+            }
+        }
+
+        return new Run(file, tuples.size(), null, null);
+    }
+
+    /**
+     * Merge the runs into a new one and delete them, the index of the blocks is collected only for the last run.
+     */
+    private Run merge(TupleCodec codec, Comparator<Tuple> comparator, List<Run> runs, boolean last,
+                      List<Path> createdFiles) throws IOException {
+        Path file = SpillPartitions.createFile(directory);
+        createdFiles.add(file);
+        long count = 0;
+        List<Long> blockOffsets = new ArrayList<>();
+        List<Tuple> blockFirsts = new ArrayList<>();
+
+        List<RunReader> readers = new ArrayList<>();
+        PriorityQueue<RunReader> queue = new PriorityQueue<>((a, b) -> comparator.compare(a.current, b.current));
+        try {
+            for (Run run : runs) {
+                RunReader reader = new RunReader(codec, run);
+                readers.add(reader);
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+            }
+
+            CountingOutputStream counter = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+            try (DataOutputStream output = new DataOutputStream(counter)) {
+                while (!queue.isEmpty()) {
+                    RunReader reader = queue.poll();
+                    if (last && count % SortedFileStorage.BLOCK_SIZE == 0) {
+                        blockOffsets.add(counter.count());
+                        blockFirsts.add(reader.current);
+                    }
+
+                    codec.write(output, reader.current);
+                    count++;
+                    if (reader.advance()) {
+                        queue.add(reader);
+                    }
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.input.close();
+            }
+        }
+
+        for (Run run : runs) {
+            Files.delete(run.file);
+        }
+
+        long[] offsets = new long[blockOffsets.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = blockOffsets.get(i);
+        }
+
+        return new Run(file, count, offsets, blockFirsts.toArray(new Tuple[0]));
+    }
+
+    private static final class Run {
+
+        final Path file;
+        final long count;
+        final long[] blockOffsets;
+        final Tuple[] blockFirsts;
+
+        Run(Path file, long count, long[] blockOffsets, Tuple[] blockFirsts) {
+            this.file = file;
+            this.count = count;
+            this.blockOffsets = blockOffsets;
+            this.blockFirsts = blockFirsts;
+        }
+    }
+
+    private static final class RunReader {
+
+        final TupleCodec codec;
+        final DataInputStream input;
+        long remaining;
+        Tuple current;
+
+        RunReader(TupleCodec codec, Run run) throws IOException {
+            this.codec = codec;
+            this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(run.file)));
+            this.remaining = run.count;
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                current = null;
+                return false;
+            }
+
+            current = codec.read(input);
+            remaining--;
+            return true;
+        }
+    }
+}
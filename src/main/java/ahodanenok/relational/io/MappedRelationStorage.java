@@ -0,0 +1,164 @@
+package ahodanenok.relational.io;
+
+import ahodanenok.relational.*;
+
+import java.nio.ByteBuffer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Storage reading the tuples from the column blocks of a memory-mapped {@link ColumnarFile}.
+ *
+ * <p>Values are decoded from the mapped memory each time they are accessed, nothing is copied on opening.
+ * Hash index used by {@link #contains(Tuple)} is built on the first lookup.
+ */
+public final class MappedRelationStorage implements RelationStorage {
+
+    private final TupleSchema schema;
+    private final TupleFactory tupleFactory;
+    private final ByteBuffer buffer;
+    private final int rows;
+    private final ColumnType[] types;
+    private final int[] bases;
+    private volatile RowIndex index;
+
+    MappedRelationStorage(TupleSchema schema, ByteBuffer buffer, int rows, ColumnType[] types, int[] bases) {
+        this.schema = schema;
+        this.buffer = buffer;
+        this.rows = rows;
+        this.types = types;
+        this.bases = bases;
+
+        RelationSchemaGenerator schemaGenerator = new RelationSchemaGenerator();
+        schema.attributes().forEach(schemaGenerator::withAttribute);
+        this.tupleFactory = TupleFactory.of(schemaGenerator.generate());
+    }
+
+    @Override
+    public RelationSchema schema() {
+        return tupleFactory.schema();
+    }
+
+    @Override
+    public int size() {
+        return rows;
+    }
+
+    @Override
+    public boolean contains(Tuple tuple) {
+        if (tuple.schema() != schema) {
+            return false;
+        }
+
+        RowIndex rowIndex = index;
+        if (rowIndex == null) {
+            // concurrent lookups might build the index twice, but the result is the same
+            index = rowIndex = new RowIndex();
+        }
+
+        return rowIndex.contains(tuple);
+    }
+
+    @Override
+    public Stream<Tuple> tuples() {
+        return IntStream.range(0, rows).mapToObj(this::getTuple);
+    }
+
+    /**
+     * Tuple stored in the given row.
+     */
+    public Tuple getTuple(int row) {
+        Object[] values = new Object[types.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getValue(row, i);
+        }
+
+        return tupleFactory.create(values);
+    }
+
+    /**
+     * Value of the attribute in the given slot stored in the given row.
+     */
+    public Object getValue(int row, int slot) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Row: " + row);
+        }
+
+        return types[slot].read(buffer, bases[slot], rows, row);
+    }
+
+    private int rowHash(int row) {
+        int hash = 1;
+        for (int i = 0; i < types.length; i++) {
+            hash = 31 * hash + getValue(row, i).hashCode();
+        }
+
+        return hash;
+    }
+
+    private static int hash(Tuple tuple) {
+        int hash = 1;
+        for (int i = 0; i < tuple.degree(); i++) {
+            hash = 31 * hash + tuple.getValue(i).hashCode();
+        }
+
+        return hash;
+    }
+
+    /**
+     * Open addressing table of rows, each slot holds row + 1 and 0 marks an empty slot.
+     */
+    private final class RowIndex {
+
+        private final int[] hashes = new int[rows];
+        private final int[] table;
+
+        RowIndex() {
+            int size = 2;
+            while (size < rows * 2) {
+                size <<= 1;
+            }
+
+            table = new int[size];
+            int mask = size - 1;
+            for (int row = 0; row < rows; row++) {
+                hashes[row] = rowHash(row);
+                int pos = spread(hashes[row]) & mask;
+                while (table[pos] != 0) {
+                    pos = (pos + 1) & mask;
+                }
+                table[pos] = row + 1;
+            }
+        }
+
+        boolean contains(Tuple tuple) {
+            int hash = hash(tuple);
+            int mask = table.length - 1;
+            int pos = spread(hash) & mask;
+            while (table[pos] != 0) {
+                int row = table[pos] - 1;
+                if (hashes[row] == hash && rowEquals(row, tuple)) {
+                    return true;
+                }
+
+                pos = (pos + 1) & mask;
+            }
+
+            return false;
+        }
+
+        private boolean rowEquals(int row, Tuple tuple) {
+            for (int i = 0; i < types.length; i++) {
+                if (!getValue(row, i).equals(tuple.getValue(i))) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package ahodanenok.relational.io;
+
+import ahodanenok.relational.OrderedRelationStorage;
+import ahodanenok.relational.RelationSchema;
+import ahodanenok.relational.Tuple;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Storage reading sorted tuples from a temporary file, created by {@link ExternalSort}.
+ *
+ * <p>Tuples are streamed from the file, only the first tuple of each block of {@value #BLOCK_SIZE} tuples
+ * and the offset of the block are kept in memory. A lookup reads only the blocks the tuple could be in.
+ *
+ * <p>Storage must be closed to delete the file, it can't be used after that.
+ * Methods throw {@link UncheckedIOException} if the file can't be read.
+ */
+public final class SortedFileStorage implements OrderedRelationStorage, Closeable {
+
+    static final int BLOCK_SIZE = 1024;
+
+    private final TupleCodec codec;
+    private final List<String> ordering;
+    private final Comparator<Tuple> comparator;
+    private final Path file;
+    private final long count;
+    private final long[] blockOffsets;
+    private final Tuple[] blockFirsts;
+    private final int size;
+    private volatile boolean closed;
+
+    SortedFileStorage(TupleCodec codec, List<String> ordering, Comparator<Tuple> comparator,
+                      Path file, long count, long[] blockOffsets, Tuple[] blockFirsts) {
+        this.codec = codec;
+        this.ordering = ordering;
+        this.comparator = comparator;
+        this.file = file;
+        this.count = count;
+        this.blockOffsets = blockOffsets;
+        this.blockFirsts = blockFirsts;
+        this.size = Math.toIntExact(count);
+    }
+
+    @Override
+    public List<String> ordering() {
+        return ordering;
+    }
+
+    @Override
+    public RelationSchema schema() {
+        return codec.schema();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Tuple tuple) {
+        requireNotClosed();
+        if (blockFirsts.length == 0 || tuple.schema() != blockFirsts[0].schema()) {
+            return false;
+        }
+
+        // tuples with the same values of the ordering attributes might start in the previous block
+        int low = 0;
+        int high = blockFirsts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(blockFirsts[mid], tuple) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        int block = Math.max(low - 1, 0);
+        try (DataInputStream input = open(blockOffsets[block])) {
+            for (long i = (long) block * BLOCK_SIZE; i < count; i++) {
+                Tuple t = codec.read(input);
+                int result = comparator.compare(t, tuple);
+                if (result > 0) {
+                    return false;
+                } else if (result == 0 && t.equals(tuple)) {
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return false;
+    }
+
+    @Override
+    public Stream<Tuple> tuples() {
+        requireNotClosed();
+        TupleIterator iterator = new TupleIterator();
+        return StreamSupport.stream(Spliterators.spliterator(iterator, count,
+                        Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * Delete the file of the storage.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void requireNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("Storage is closed");
+        }
+    }
+
+    private DataInputStream open(long offset) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        channel.position(offset);
+        return new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+    }
+
+    /**
+     * Reads the file on the first access and closes it when the last tuple is read or the stream is closed.
+     */
+    private final class TupleIterator implements Iterator<Tuple> {
+
+        private DataInputStream input;
+        private long read;
+
+        @Override
+        public boolean hasNext() {
+            return read < count;
+        }
+
+        @Override
+        public Tuple next() {
+            if (read == count) {
+                throw new NoSuchElementException();
+            }
+
+            try {
+                if (input == null) {
+                    input = open(0);
+                }
+
+                Tuple tuple = codec.read(input);
+                if (++read == count) {
+                    close();
+                }
+
+                return tuple;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void close() {
+            if (input != null) {
+                try {
+                    input.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+
+                input = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ahodanenok.relational.io;
+
+import ahodanenok.relational.Tuple;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Temporary files with the tuples distributed among them by a hash of the tuples or of their keys.
+ *
+ * <p>Each level of partitioning uses a different hash function,
+ * so the tuples of a partition are distributed evenly when it is partitioned again.
+ * Files are created on the first write to them, their owner must delete them.
+ */
+final class SpillPartitions implements Closeable {
+
+    static final int COUNT = 16;
+    // partitioning stops at this level even if the tuples don't fit into the budget
+    static final int MAX_LEVEL = 4;
+    // partitions with fewer tuples are not partitioned again, it costs more than reading them
+    static final long MIN_REPARTITION_COUNT = 256;
+    // partitioning stops when the partitions of a set or a join could create more files
+    static final int MAX_FILES = 1024;
+
+    private final TupleCodec codec;
+    private final Path directory;
+    private final int level;
+    private final ToIntFunction<Tuple> hash;
+    private final Path[] files = new Path[COUNT];
+    private final DataOutputStream[] outputs = new DataOutputStream[COUNT];
+    private final long[] counts = new long[COUNT];
+
+    SpillPartitions(TupleCodec codec, Path directory, int level) {
+        this(codec, directory, level, Tuple::hashCode);
+    }
+
+    SpillPartitions(TupleCodec codec, Path directory, int level, ToIntFunction<Tuple> hash) {
+        this.codec = codec;
+        this.directory = directory;
+        this.level = level;
+        this.hash = hash;
+    }
+
+    int level() {
+        return level;
+    }
+
+    /**
+     * File of the partition or null if nothing was written to it.
+     */
+    Path file(int partition) {
+        return files[partition];
+    }
+
+    long count(int partition) {
+        return counts[partition];
+    }
+
+    /**
+     * Number of tuples in all partitions.
+     */
+    long total() {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+
+        return total;
+    }
+
+    /**
+     * Check if a partition which doesn't fit into the budget should be partitioned again.
+     * It's not if it's small or has all tuples of the partitions, i.e. the hash doesn't split its tuples.
+     */
+    boolean shouldRepartition(int partition) {
+        return level < MAX_LEVEL && counts[partition] >= MIN_REPARTITION_COUNT && counts[partition] < total();
+    }
+
+    void write(Tuple tuple) throws IOException {
+        int partition = partition(hash.applyAsInt(tuple), level);
+        if (outputs[partition] == null) {
+            files[partition] = createFile(directory);
+            outputs[partition] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(files[partition])));
+        }
+
+        codec.write(outputs[partition], tuple);
+        counts[partition]++;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (DataOutputStream output : outputs) {
+            if (output != null) {
+                output.close();
+            }
+        }
+    }
+
+    /**
+     * Partition of the tuple on the given level of partitioning.
+     */
+    static int partition(Tuple tuple, int level) {
+        return partition(tuple.hashCode(), level);
+    }
+
+    private static int partition(int hash, int level) {
+        // murmur3 finalizer over the hash salted by the level
+        int h = hash + level * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+
+        return (h & Integer.MAX_VALUE) % COUNT;
+    }
+
+    static Path createFile(Path directory) throws IOException {
+        return Files.createTempFile(directory, "relation", ".spill");
+    }
+
+    /**
+     * Delete the files of the partitions.
+     */
+    void delete() throws IOException {
+        for (Path file : files) {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Pass the given number of tuples from the file to the consumer.
+     */
+    static void read(TupleCodec codec, Path file, long count, Consumer<Tuple> consumer) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            for (long i = 0; i < count; i++) {
+                consumer.accept(codec.read(input));
+            }
+        }
+    }
+}
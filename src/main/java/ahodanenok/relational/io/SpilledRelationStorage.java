@@ -0,0 +1,248 @@
+package ahodanenok.relational.io;
+
+import ahodanenok.relational.RelationSchema;
+import ahodanenok.relational.RelationStorage;
+import ahodanenok.relational.Tuple;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Storage keeping the tuples in temporary files, created by {@link SpillingTupleSet}.
+ *
+ * <p>Tuples are distributed among the files by their hash, each file fits into the memory budget of the set.
+ * Tuples are streamed one file at a time. Hashes of the tuples and their offsets in the files are kept in memory
+ * (12 bytes per tuple), so a lookup reads only the tuples with the same hash. Files of the recent lookups are kept open.
+ *
+ * <p>Storage must be closed to delete the files, it can't be used after that.
+ * Methods throw {@link UncheckedIOException} if the files can't be read.
+ */
+public final class SpilledRelationStorage implements RelationStorage, Closeable {
+
+    // number of files kept open for the lookups
+    private static final int OPEN_FILES = 16;
+
+    private final TupleCodec codec;
+    private final Partition root;
+    private final int size;
+    private volatile boolean closed;
+    // recently read files, access is synchronized on the map
+    private final Map<Path, FileChannel> channels = new LinkedHashMap<Path, FileChannel>(OPEN_FILES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, FileChannel> eldest) {
+            if (size() <= OPEN_FILES) {
+                return false;
+            }
+
+            try {
+                eldest.getValue().close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            return true;
+        }
+    };
+
+    SpilledRelationStorage(TupleCodec codec, Partition root) {
+        this.codec = codec;
+        this.root = root;
+        this.size = Math.toIntExact(root.size());
+    }
+
+    @Override
+    public RelationSchema schema() {
+        return codec.schema();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Tuple tuple) {
+        requireNotClosed();
+        Partition partition = root;
+        while (partition.children != null) {
+            partition = partition.children[SpillPartitions.partition(tuple, partition.level)];
+        }
+
+        if (partition.file == null) {
+            return false;
+        }
+
+        int hash = tuple.hashCode();
+        int pos = Arrays.binarySearch(partition.hashes, hash);
+        if (pos < 0) {
+            return false;
+        }
+
+        while (pos > 0 && partition.hashes[pos - 1] == hash) {
+            pos--;
+        }
+
+        synchronized (channels) {
+            try {
+                return find(partition, pos, tuple);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private boolean find(Partition partition, int pos, Tuple tuple) throws IOException {
+        FileChannel channel = channels.get(partition.file);
+        if (channel == null) {
+            channel = FileChannel.open(partition.file, StandardOpenOption.READ);
+            channels.put(partition.file, channel);
+        }
+
+        for (int hash = tuple.hashCode(); pos < partition.hashes.length && partition.hashes[pos] == hash; pos++) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) (partition.offsets[pos + 1] - partition.offsets[pos]));
+            long position = partition.offsets[pos];
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException("Unexpected end of file " + partition.file);
+                }
+            }
+
+            if (codec.read(new DataInputStream(new ByteArrayInputStream(buffer.array()))).equals(tuple)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public Stream<Tuple> tuples() {
+        requireNotClosed();
+        List<Partition> leaves = new ArrayList<>();
+        root.collectLeaves(leaves);
+
+        // only the tuples of a single file are held in memory
+        return leaves.stream().flatMap(leaf -> {
+            List<Tuple> tuples = new ArrayList<>(leaf.hashes.length);
+            try {
+                SpillPartitions.read(codec, leaf.file, leaf.hashes.length, tuples::add);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            return tuples.stream();
+        });
+    }
+
+    /**
+     * Delete the files of the storage.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        synchronized (channels) {
+            for (FileChannel channel : channels.values()) {
+                channel.close();
+            }
+            channels.clear();
+        }
+
+        List<Partition> leaves = new ArrayList<>();
+        root.collectLeaves(leaves);
+        for (Partition leaf : leaves) {
+            Files.deleteIfExists(leaf.file);
+        }
+    }
+
+    private void requireNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("Storage is closed");
+        }
+    }
+
+    /**
+     * Write unique tuples to a file ordered by their hashes and create a partition for it.
+     */
+    static Partition write(TupleCodec codec, Path file, Tuple[] tuples) throws IOException {
+        Arrays.sort(tuples, (a, b) -> Integer.compare(a.hashCode(), b.hashCode()));
+        int[] hashes = new int[tuples.length];
+        long[] offsets = new long[tuples.length + 1];
+        CountingOutputStream counter = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        try (DataOutputStream output = new DataOutputStream(counter)) {
+            for (int i = 0; i < tuples.length; i++) {
+                hashes[i] = tuples[i].hashCode();
+                offsets[i] = counter.count();
+                codec.write(output, tuples[i]);
+            }
+            offsets[tuples.length] = counter.count();
+        }
+
+        return new Partition(file, hashes, offsets, -1, null);
+    }
+
+    /**
+     * Either a file with unique tuples ordered by their hashes or partitions of the next level.
+     */
+    static final class Partition {
+
+        private static final Partition EMPTY = new Partition(null, new int[0], new long[] { 0 }, -1, null);
+
+        private final Path file;
+        private final int[] hashes;
+        // offset of each tuple in the file and the size of the file
+        private final long[] offsets;
+        private final int level;
+        private final Partition[] children;
+
+        private Partition(Path file, int[] hashes, long[] offsets, int level, Partition[] children) {
+            this.file = file;
+            this.hashes = hashes;
+            this.offsets = offsets;
+            this.level = level;
+            this.children = children;
+        }
+
+        static Partition empty() {
+            return EMPTY;
+        }
+
+        static Partition split(int level, Partition[] children) {
+            return new Partition(null, null, null, level, children);
+        }
+
+        long size() {
+            if (children == null) {
+                return hashes.length;
+            }
+
+            long size = 0;
+            for (Partition child : children) {
+                size += child.size();
+            }
+
+            return size;
+        }
+
+        void collectLeaves(List<Partition> leaves) {
+            if (children == null) {
+                if (file != null) {
+                    leaves.add(this);
+                }
+            } else {
+                for (Partition child : children) {
+                    child.collectLeaves(leaves);
+                }
+            }
+        }
+    }
+}
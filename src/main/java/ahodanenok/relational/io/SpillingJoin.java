@@ -0,0 +1,271 @@
+package ahodanenok.relational.io;
+
+import ahodanenok.relational.*;
+import ahodanenok.relational.exception.RelationalException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Natural join of two relations within a memory budget.
+ *
+ * <p>If the relations have no common attributes, the right relation is streamed again for each tuple of the left one.
+ * Otherwise a hash table on the common attributes is built on the smaller relation if it fits into the budget
+ * and the other relation is streamed through it. If it doesn't fit, both relations are distributed among temporary
+ * files by the hash of the common attributes and the pairs of the files are joined one by one (Grace hash join),
+ * a pair which is still too large for the budget is partitioned again with a different hash,
+ * unless it's small or the hash doesn't split it.
+ *
+ * <p>Joined tuples are collected by a {@link SpillingTupleSet} with the same budget.
+ * All temporary files are deleted if the join fails.
+ */
+public final class SpillingJoin {
+
+    private final long memoryBudget;
+    private final Path directory;
+
+    /**
+     * @param directory directory for the temporary files
+     */
+    public SpillingJoin(long memoryBudget, Path directory) {
+        Objects.requireNonNull(directory, "Directory can't be null");
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("Memory budget can't be negative: " + memoryBudget);
+        }
+
+        this.memoryBudget = memoryBudget;
+        this.directory = directory;
+    }
+
+    /**
+     * Join the relations, the result has the given schema, which must be the union of the schemas of the relations.
+     *
+     * @throws RelationalException if the relations must be spilled, but they have attributes of types which can't be spilled
+     * @throws UncheckedIOException if the files can't be written or read
+     */
+    public Relation join(Relation left, Relation right, RelationSchema schema) {
+        Objects.requireNonNull(left, "Left relation can't be null");
+        Objects.requireNonNull(right, "Right relation can't be null");
+        Objects.requireNonNull(schema, "Schema can't be null");
+
+        TupleFactory tupleFactory = TupleFactory.union(left.schema(), right.schema(), schema);
+        SpillingTupleSet result = new SpillingTupleSet(schema, memoryBudget, directory);
+        BiConsumer<Tuple, Tuple> joined = (tl, tr) -> result.add(tupleFactory.create(tl, tr));
+        try {
+            join(left, right, joined);
+        } catch (RuntimeException e) {
+            try {
+                result.discard();
+            } catch (RuntimeException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+
+            throw e;
+        }
+
+        return result.build();
+    }
+
+    private void join(Relation left, Relation right, BiConsumer<Tuple, Tuple> joined) {
+        List<String> commonAttributes = left.schema().attributes()
+                .map(Attribute::getName)
+                .filter(right.schema()::hasAttribute)
+                .collect(Collectors.toList());
+        if (commonAttributes.isEmpty()) {
+            left.tuples().forEach(tl -> right.tuples().forEach(tr -> joined.accept(tl, tr)));
+            return;
+        }
+
+        Side leftSide = new Side(left.schema(), commonAttributes);
+        Side rightSide = new Side(right.schema(), commonAttributes);
+        if (fits(Math.min(left.cardinality(), right.cardinality()), leftSide, rightSide)) {
+            hashJoin(leftSide, left.tuples()::forEach, left.cardinality(),
+                    rightSide, right.tuples()::forEach, right.cardinality(), joined);
+            return;
+        }
+
+        // both relations must be spillable before any files are written
+        leftSide.createCodec();
+        rightSide.createCodec();
+        try {
+            // upper bound of the number of files created by partitioning
+            AtomicInteger files = new AtomicInteger(2 * SpillPartitions.COUNT);
+            partitionAndJoin(leftSide, left.tuples()::forEach, rightSide, right.tuples()::forEach, 0, joined, files);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void partitionAndJoin(Side leftSide, TupleSource left, Side rightSide, TupleSource right, int level,
+                                  BiConsumer<Tuple, Tuple> joined, AtomicInteger files) throws IOException {
+        SpillPartitions leftPartitions = leftSide.partition(left, level);
+        SpillPartitions rightPartitions;
+        try {
+            rightPartitions = rightSide.partition(right, level);
+        } catch (IOException | RuntimeException e) {
+            delete(leftPartitions, e);
+            throw e;
+        }
+
+        joinPartitions(leftSide, leftPartitions, rightSide, rightPartitions, joined, files);
+    }
+
+    private void joinPartitions(Side leftSide, SpillPartitions leftPartitions,
+                                Side rightSide, SpillPartitions rightPartitions,
+                                BiConsumer<Tuple, Tuple> joined, AtomicInteger files) throws IOException {
+        try {
+            for (int i = 0; i < SpillPartitions.COUNT; i++) {
+                Path leftFile = leftPartitions.file(i);
+                Path rightFile = rightPartitions.file(i);
+                if (leftFile == null || rightFile == null) {
+                    continue;
+                }
+
+                long leftCount = leftPartitions.count(i);
+                long rightCount = rightPartitions.count(i);
+                TupleSource leftTuples = consumer -> leftSide.read(leftFile, leftCount, consumer);
+                TupleSource rightTuples = consumer -> rightSide.read(rightFile, rightCount, consumer);
+                int level = leftPartitions.level();
+                boolean repartition = !fits(Math.min(leftCount, rightCount), leftSide, rightSide)
+                        && (leftCount <= rightCount ? leftPartitions.shouldRepartition(i) : rightPartitions.shouldRepartition(i))
+                        && files.addAndGet(2 * SpillPartitions.COUNT) <= SpillPartitions.MAX_FILES;
+                if (!repartition) {
+                    hashJoin(leftSide, leftTuples, leftCount, rightSide, rightTuples, rightCount, joined);
+                } else {
+                    partitionAndJoin(leftSide, leftTuples, rightSide, rightTuples, level + 1, joined, files);
+                }
+            }
+        } finally {
+            try {
+                leftPartitions.delete();
+            } finally {
+                rightPartitions.delete();
+            }
+        }
+    }
+
+    private static void delete(SpillPartitions partitions, Exception cause) {
+        try {
+            partitions.delete();
+        } catch (IOException suppressed) {
+            cause.addSuppressed(suppressed);
+        }
+    }
+
+    private boolean fits(long cardinality, Side left, Side right) {
+        return SpillingTupleSet.estimateSize(cardinality, Math.max(left.degree(), right.degree())) <= memoryBudget;
+    }
+
+    private static void hashJoin(Side leftSide, TupleSource left, long leftCount,
+                                 Side rightSide, TupleSource right, long rightCount,
+                                 BiConsumer<Tuple, Tuple> joined) {
+        if (leftCount <= rightCount) {
+            Map<List<Object>, List<Tuple>> table = leftSide.table(left);
+            right.forEach(tr -> {
+                List<Tuple> matches = table.get(rightSide.key(tr));
+                if (matches != null) {
+                    matches.forEach(tl -> joined.accept(tl, tr));
+                }
+            });
+        } else {
+            Map<List<Object>, List<Tuple>> table = rightSide.table(right);
+            left.forEach(tl -> {
+                List<Tuple> matches = table.get(leftSide.key(tl));
+                if (matches != null) {
+                    matches.forEach(tr -> joined.accept(tl, tr));
+                }
+            });
+        }
+    }
+
+    /**
+     * Tuples which can be visited more than once.
+     */
+    private interface TupleSource {
+
+        void forEach(Consumer<Tuple> consumer);
+    }
+
+    /**
+     * Slots of the common attributes in one of the relations, codec is created only if the relation is spilled.
+     */
+    private final class Side {
+
+        private final RelationSchema schema;
+        private final int[] slots;
+        private TupleCodec codec;
+
+        Side(RelationSchema schema, List<String> commonAttributes) {
+            this.schema = schema;
+            this.slots = new int[commonAttributes.size()];
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = schema.indexOf(commonAttributes.get(i));
+            }
+        }
+
+        int degree() {
+            return schema.degree();
+        }
+
+        List<Object> key(Tuple tuple) {
+            Object[] values = new Object[slots.length];
+            for (int i = 0; i < slots.length; i++) {
+                values[i] = tuple.getValue(slots[i]);
+            }
+
+            return Arrays.asList(values);
+        }
+
+        Map<List<Object>, List<Tuple>> table(TupleSource tuples) {
+            Map<List<Object>, List<Tuple>> table = new HashMap<>();
+            tuples.forEach(t -> table.computeIfAbsent(key(t), k -> new ArrayList<>(1)).add(t));
+            return table;
+        }
+
+        /**
+         * @throws RelationalException if the relation has attributes of types which can't be spilled
+         */
+        void createCodec() {
+            codec = new TupleCodec(schema);
+        }
+
+        /**
+         * Write the tuples to the partitions, which are deleted if writing fails.
+         */
+        SpillPartitions partition(TupleSource tuples, int level) throws IOException {
+            SpillPartitions partitions = new SpillPartitions(codec, directory, level, t -> key(t).hashCode());
+            try {
+                try {
+                    tuples.forEach(t -> {
+                        try {
+                            partitions.write(t);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } finally {
+                    partitions.close();
+                }
+            } catch (IOException | RuntimeException e) {
+                delete(partitions, e);
+                throw e;
+            }
+
+            return partitions;
+        }
+
+        void read(Path file, long count, Consumer<Tuple> consumer) {
+            try {
+                SpillPartitions.read(codec, file, count, consumer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package ahodanenok.relational.io;
+
+import ahodanenok.relational.Relation;
+import ahodanenok.relational.RelationBuilder;
+import ahodanenok.relational.RelationSchema;
+import ahodanenok.relational.Tuple;
+import ahodanenok.relational.exception.RelationalException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Collects unique tuples of a relation within a memory budget.
+ *
+ * <p>Tuples are kept in memory until their estimated size exceeds the budget. After that all tuples are
+ * distributed by their hash among temporary files in a compact binary encoding, and the following tuples
+ * are appended to the files. When the relation is built, duplicates are removed one file at a time,
+ * a file which is too large for the budget is partitioned again with a different hash, unless it's small or the hash doesn't split it.
+ * The built relation reads the tuples from the files and must be closed to delete them, see {@link SpilledRelationStorage}.
+ * Files written before the relation is built are deleted by building it or by {@link #discard() discarding} the set.
+ *
+ * <p>Only attributes of types {@code Integer}, {@code Long}, {@code Double}, {@code Boolean} and {@code String} can be spilled.
+ * Methods throw {@link UncheckedIOException} if the files can't be written or read.
+ */
+public final class SpillingTupleSet {
+
+    // estimated heap size of a tuple and each of its values in a hash set
+    private static final long TUPLE_SIZE = 80;
+    private static final long VALUE_SIZE = 24;
+
+    private final RelationSchema schema;
+    private final long memoryBudget;
+    private final Path directory;
+    private final long tupleSize;
+    private Set<Tuple> tuples = new HashSet<>();
+    private TupleCodec codec;
+    private SpillPartitions partitions;
+    private boolean built;
+    // upper bound of the number of files created by partitioning
+    private int files;
+
+    /**
+     * @param directory directory for the temporary files
+     */
+    public SpillingTupleSet(RelationSchema schema, long memoryBudget, Path directory) {
+        Objects.requireNonNull(schema, "Schema can't be null");
+        Objects.requireNonNull(directory, "Directory can't be null");
+        if (memoryBudget < 0) {
+            throw new IllegalArgumentException("Memory budget can't be negative: " + memoryBudget);
+        }
+
+        this.schema = schema;
+        this.memoryBudget = memoryBudget;
+        this.directory = directory;
+        this.tupleSize = estimateSize(1, schema.degree());
+    }
+
+    /**
+     * Approximate heap size of the given number of tuples with the given number of values.
+     */
+    public static long estimateSize(long cardinality, int degree) {
+        return cardinality * (TUPLE_SIZE + VALUE_SIZE * degree);
+    }
+
+    /**
+     * Add a tuple, which must have the schema of the set.
+     *
+     * @throws RelationalException if the tuples must be spilled, but the schema has attributes of types which can't be spilled
+     */
+    public void add(Tuple tuple) {
+        requireNotBuilt();
+        try {
+            if (partitions != null) {
+                partitions.write(tuple);
+                return;
+            }
+
+            if (tuples.add(tuple) && estimateSize(tuples.size(), schema.degree()) > memoryBudget) {
+                codec = new TupleCodec(schema);
+                partitions = new SpillPartitions(codec, directory, 0);
+                files = SpillPartitions.COUNT;
+                for (Tuple t : tuples) {
+                    partitions.write(t);
+                }
+                tuples = null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Check if the tuples were written to the files.
+     */
+    public boolean isSpilled() {
+        return partitions != null;
+    }
+
+    /**
+     * Delete the written files without building the relation, the set can't be used after that.
+     */
+    public void discard() {
+        requireNotBuilt();
+        built = true;
+        tuples = null;
+        if (partitions == null) {
+            return;
+        }
+
+        try {
+            try {
+                partitions.close();
+            } finally {
+                partitions.delete();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Create the relation, the set can't be used after that.
+     */
+    public Relation build() {
+        requireNotBuilt();
+        built = true;
+        if (partitions == null) {
+            Relation relation = RelationBuilder.of(schema, tuples);
+            tuples = null;
+            return relation;
+        }
+
+        List<Path> createdFiles = new ArrayList<>();
+        try {
+            partitions.close();
+            collectFiles(partitions, createdFiles);
+            return new Relation(schema, new SpilledRelationStorage(codec, deduplicate(partitions, createdFiles)));
+        } catch (IOException | RuntimeException e) {
+            // files being deduplicated are deleted by it, the remaining ones are deleted here
+            for (Path file : createdFiles) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+
+            if (e instanceof IOException) {
+                throw new UncheckedIOException((IOException) e);
+            } else {
+                throw (RuntimeException) e;
+            }
+        }
+    }
+
+    private SpilledRelationStorage.Partition deduplicate(SpillPartitions spilled, List<Path> createdFiles) throws IOException {
+
+        SpilledRelationStorage.Partition[] children = new SpilledRelationStorage.Partition[SpillPartitions.COUNT];
+        for (int i = 0; i < children.length; i++) {
+            Path file = spilled.file(i);
+            long count = spilled.count(i);
+            if (file == null) {
+                children[i] = SpilledRelationStorage.Partition.empty();
+                continue;
+            }
+
+            if (estimateSize(count, schema.degree()) > memoryBudget
+                    && spilled.shouldRepartition(i)
+                    && files + SpillPartitions.COUNT <= SpillPartitions.MAX_FILES) {
+                files += SpillPartitions.COUNT;
+                SpillPartitions next = new SpillPartitions(codec, directory, spilled.level() + 1);
+                try {
+                    SpillPartitions.read(codec, file, count, tuple -> write(next, tuple));
+                } finally {
+                    next.close();
+                    collectFiles(next, createdFiles);
+                }
+                children[i] = deduplicate(next, createdFiles);
+            } else {
+                Set<Tuple> unique = new HashSet<>();
+                SpillPartitions.read(codec, file, count, unique::add);
+
+                Path uniqueFile = SpillPartitions.createFile(directory);
+                createdFiles.add(uniqueFile);
+                children[i] = SpilledRelationStorage.write(codec, uniqueFile, unique.toArray(new Tuple[0]));
+            }
+
+            Files.delete(file);
+        }
+
+        return SpilledRelationStorage.Partition.split(spilled.level(), children);
+    }
+
+    private static void collectFiles(SpillPartitions partitions, List<Path> files) {
+        for (int i = 0; i < SpillPartitions.COUNT; i++) {
+            if (partitions.file(i) != null) {
+                files.add(partitions.file(i));
+            }
+        }
+    }
+
+    private static void write(SpillPartitions partitions, Tuple tuple) {
+        try {
+            partitions.write(tuple);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void requireNotBuilt() {
+        if (built) {
+            throw new IllegalStateException("Relation is already built");
+        }
+    }
+}
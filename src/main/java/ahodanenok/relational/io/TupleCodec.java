@@ -0,0 +1,49 @@
+package ahodanenok.relational.io;
+
+import ahodanenok.relational.RelationSchema;
+import ahodanenok.relational.Tuple;
+import ahodanenok.relational.TupleFactory;
+import ahodanenok.relational.exception.RelationalException;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Compact binary encoding of the tuples of a schema: values are written in the order of the slots without any header.
+ */
+final class TupleCodec {
+
+    private final TupleFactory tupleFactory;
+    private final ColumnType[] types;
+
+    /**
+     * @throws RelationalException if the schema has attributes of types which can't be encoded
+     */
+    TupleCodec(RelationSchema schema) {
+        this.tupleFactory = TupleFactory.of(schema);
+        this.types = new ColumnType[schema.degree()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = ColumnType.of(schema.getAttribute(i).getType());
+        }
+    }
+
+    RelationSchema schema() {
+        return tupleFactory.schema();
+    }
+
+    void write(DataOutput out, Tuple tuple) throws IOException {
+        for (int i = 0; i < types.length; i++) {
+            types[i].writeValue(out, tuple.getValue(i));
+        }
+    }
+
+    Tuple read(DataInput in) throws IOException {
+        Object[] values = new Object[types.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = types[i].readValue(in);
+        }
+
+        return tupleFactory.create(values);
+    }
+}
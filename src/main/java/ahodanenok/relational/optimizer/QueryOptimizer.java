@@ -0,0 +1,442 @@
+package ahodanenok.relational.optimizer;
+
+import ahodanenok.relational.Attribute;
+import ahodanenok.relational.Relation;
+import ahodanenok.relational.RelationSchema;
+import ahodanenok.relational.RelationSelector;
+import ahodanenok.relational.algebra.*;
+import ahodanenok.relational.expression.IdentityExpression;
+import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.predicate.And;
+import ahodanenok.relational.predicate.Predicates;
+import ahodanenok.relational.predicate.TuplePredicate;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Rewrites an expression tree into an equivalent one, which is cheaper to execute.
+ *
+ * <p>Applied rules:
+ * <ul>
+ *     <li>operations on empty relations and joins/products with {@link Relation#NULLARY_TUPLE} are folded</li>
+ *     <li>renames without mappings and projections onto all attributes are removed</li>
+ *     <li>consecutive renames and consecutive projections are merged into one</li>
+ *     <li>projections are pushed below renames, unions, joins and products</li>
+ *     <li>consecutive restrictions are merged into one</li>
+ *     <li>restrictions are pushed below projections, renames and set operations,
+ *     conjuncts of a restriction are pushed into the operands of joins and products which have all of their attributes
+ *     and below extensions if they don't use the added attributes,
+ *     restrictions of semijoins and antijoins are pushed into their left operands</li>
+ * </ul>
+ *
+ * <p>Only restrictions with a {@link TuplePredicate} are rewritten, a function can't be inspected.
+ *
+ * <p>Operators are rewritten bottom-up until none of the rules can be applied.
+ * Schemas of the operators are checked during the rewriting, so an invalid tree fails here
+ * with the same error as on execution.
+ */
+public final class QueryOptimizer {
+
+    public RelationalExpression optimize(RelationalExpression expression) {
+        Objects.requireNonNull(expression, "Expression can't be null");
+        return rewrite(expression);
+    }
+
+    private RelationalExpression rewrite(RelationalExpression expression) {
+        if (!(expression instanceof RelationalOperator)) {
+            return expression;
+        }
+
+        RelationalOperator operator = (RelationalOperator) expression;
+        List<RelationalExpression> operands = operator.operands();
+        List<RelationalExpression> rewrittenOperands = new ArrayList<>(operands.size());
+        boolean changed = false;
+        for (RelationalExpression operand : operands) {
+            RelationalExpression rewrittenOperand = rewrite(operand);
+            changed |= rewrittenOperand != operand;
+            rewrittenOperands.add(rewrittenOperand);
+        }
+
+        if (changed) {
+            operator = operator.withOperands(rewrittenOperands);
+        }
+
+        RelationalExpression result = applyRules(operator);
+        if (result == null) {
+            return operator;
+        }
+
+        // operands of the new node might allow further rewriting
+        return rewrite(result);
+    }
+
+    /**
+     * @return rewritten expression or null if no rule is applicable
+     */
+    private RelationalExpression applyRules(RelationalOperator operator) {
+        // fails the same way as the execution if the operator is invalid
+        RelationSchema schema = operator.schema();
+
+        RelationalExpression result = foldConstants(operator, schema);
+        if (result == null && operator instanceof ProjectOperator) {
+            result = rewriteProject((ProjectOperator) operator, schema);
+        }
+        if (result == null && operator instanceof RenameOperator) {
+            result = rewriteRename((RenameOperator) operator);
+        }
+        if (result == null && operator instanceof RestrictOperator) {
+            result = rewriteRestrict((RestrictOperator) operator);
+        }
+
+        return result;
+    }
+
+    private RelationalExpression foldConstants(RelationalOperator operator, RelationSchema schema) {
+        List<RelationalExpression> operands = operator.operands();
+        if (operands.size() == 1) {
+            return isEmpty(operands.get(0)) ? empty(schema) : null;
+        }
+
+        RelationalExpression left = operands.get(0);
+        RelationalExpression right = operands.get(1);
+        if (operator instanceof JoinOperator || operator instanceof ProductOperator) {
+            if (isEmpty(left) || isEmpty(right)) {
+                return empty(schema);
+            } else if (isNullaryTuple(left)) {
+                return right;
+            } else if (isNullaryTuple(right)) {
+                return left;
+            }
+        } else if (operator instanceof UnionOperator) {
+            if (isEmpty(left)) {
+                return right;
+            } else if (isEmpty(right)) {
+                return left;
+            }
+        } else if (operator instanceof IntersectOperator) {
+            if (isEmpty(left) || isEmpty(right)) {
+                return empty(schema);
+            }
+        } else if (operator instanceof DifferenceOperator || operator instanceof AntijoinOperator) {
+            if (isEmpty(left)) {
+                return empty(schema);
+            } else if (isEmpty(right)) {
+                return left;
+            }
+        } else if (operator instanceof SemijoinOperator) {
+            if (isEmpty(left) || isEmpty(right)) {
+                return empty(schema);
+            }
+        }
+
+        return null;
+    }
+
+    private RelationalExpression rewriteProject(ProjectOperator project, RelationSchema schema) {
+        RelationalExpression operand = project.operands().get(0);
+        Set<String> names = names(schema);
+        if (names.equals(names(operand.schema()))) {
+            return operand;
+        }
+
+        boolean parallel = project.isParallel();
+        if (operand instanceof ProjectOperator) {
+            ProjectOperator inner = (ProjectOperator) operand;
+            return project(inner.operands().get(0), names, parallel || inner.isParallel());
+        }
+
+        if (operand instanceof RenameOperator) {
+            return pushProjectBelowRename((RenameOperator) operand, names, parallel);
+        }
+
+        if (operand instanceof UnionOperator) {
+            UnionOperator union = (UnionOperator) operand;
+            List<RelationalExpression> unionOperands = union.operands();
+            return union.withOperands(Arrays.asList(
+                    project(unionOperands.get(0), names, parallel),
+                    project(unionOperands.get(1), names, parallel)));
+        }
+
+        if (operand instanceof ProductOperator) {
+            ProductOperator product = (ProductOperator) operand;
+            List<RelationalExpression> productOperands = product.operands();
+            return product.withOperands(Arrays.asList(
+                    project(productOperands.get(0), intersect(names(productOperands.get(0).schema()), names), parallel),
+                    project(productOperands.get(1), intersect(names(productOperands.get(1).schema()), names), parallel)));
+        }
+
+        if (operand instanceof JoinOperator) {
+            return pushProjectBelowJoin((JoinOperator) operand, names, parallel);
+        }
+
+        return null;
+    }
+
+    private RelationalExpression pushProjectBelowRename(RenameOperator rename, Set<String> names, boolean parallel) {
+        Map<String, String> mappings = rename.getMappings();
+        Map<String, String> sourceNames = new HashMap<>();
+        mappings.forEach((source, target) -> sourceNames.put(target, source));
+
+        Set<String> projectedNames = new HashSet<>();
+        Map<String, String> projectedMappings = new HashMap<>();
+        for (String name : names) {
+            String sourceName = sourceNames.getOrDefault(name, name);
+            projectedNames.add(sourceName);
+            if (!sourceName.equals(name)) {
+                projectedMappings.put(sourceName, name);
+            }
+        }
+
+        return rename(project(rename.operands().get(0), projectedNames, parallel), projectedMappings);
+    }
+
+    private RelationalExpression pushProjectBelowJoin(JoinOperator join, Set<String> names, boolean parallel) {
+        RelationalExpression left = join.operands().get(0);
+        RelationalExpression right = join.operands().get(1);
+        Set<String> leftNames = names(left.schema());
+        Set<String> rightNames = names(right.schema());
+
+        // common attributes are still needed to join the tuples
+        Set<String> requiredNames = new HashSet<>(names);
+        requiredNames.addAll(intersect(leftNames, rightNames));
+
+        Set<String> leftProjected = intersect(leftNames, requiredNames);
+        Set<String> rightProjected = intersect(rightNames, requiredNames);
+        if (leftProjected.equals(leftNames) && rightProjected.equals(rightNames)) {
+            return null;
+        }
+
+        JoinOperator result = join.withOperands(Arrays.asList(
+                project(left, leftProjected, parallel),
+                project(right, rightProjected, parallel)));
+
+        return project(result, names, parallel);
+    }
+
+    private RelationalExpression rewriteRename(RenameOperator rename) {
+        RelationalExpression operand = rename.operands().get(0);
+        Map<String, String> mappings = effectiveMappings(rename.getMappings());
+        if (mappings.isEmpty()) {
+            return operand;
+        }
+
+        if (operand instanceof RenameOperator) {
+            RenameOperator inner = (RenameOperator) operand;
+            Map<String, String> innerMappings = inner.getMappings();
+            RelationalExpression source = inner.operands().get(0);
+
+            Map<String, String> composedMappings = new HashMap<>();
+            source.schema().attributes().map(Attribute::getName).forEach(name -> {
+                String intermediateName = innerMappings.getOrDefault(name, name);
+                String targetName = mappings.getOrDefault(intermediateName, intermediateName);
+                if (!name.equals(targetName)) {
+                    composedMappings.put(name, targetName);
+                }
+            });
+
+            return rename(source, composedMappings);
+        }
+
+        return null;
+    }
+
+    private RelationalExpression rewriteRestrict(RestrictOperator restrict) {
+        TuplePredicate predicate = restrict.getTuplePredicate();
+        if (predicate == null) {
+            return null;
+        }
+
+        RelationalExpression operand = restrict.operands().get(0);
+        boolean parallel = restrict.isParallel();
+        if (operand instanceof RestrictOperator && ((RestrictOperator) operand).getTuplePredicate() != null) {
+            RestrictOperator inner = (RestrictOperator) operand;
+            List<TuplePredicate> merged = new ArrayList<>(conjuncts(inner.getTuplePredicate()));
+            merged.addAll(conjuncts(predicate));
+            return restrict(inner.operands().get(0), merged, parallel || inner.isParallel());
+        }
+
+        if (operand instanceof ProjectOperator) {
+            ProjectOperator project = (ProjectOperator) operand;
+            return project.withOperands(Collections.singletonList(
+                    restrict(project.operands().get(0), predicate, parallel)));
+        }
+
+        if (operand instanceof RenameOperator) {
+            RenameOperator rename = (RenameOperator) operand;
+            Map<String, String> sourceNames = new HashMap<>();
+            effectiveMappings(rename.getMappings()).forEach((source, target) -> sourceNames.put(target, source));
+            return rename.withOperands(Collections.singletonList(
+                    restrict(rename.operands().get(0), predicate.renameAttributes(sourceNames), parallel)));
+        }
+
+        if (operand instanceof UnionOperator
+                || operand instanceof IntersectOperator
+                || operand instanceof DifferenceOperator) {
+            RelationalOperator setOperator = (RelationalOperator) operand;
+            List<RelationalExpression> setOperands = setOperator.operands();
+            return setOperator.withOperands(Arrays.asList(
+                    restrict(setOperands.get(0), predicate, parallel),
+                    restrict(setOperands.get(1), predicate, parallel)));
+        }
+
+        if (operand instanceof JoinOperator || operand instanceof ProductOperator) {
+            return pushRestrictBelowJoin((RelationalOperator) operand, predicate, parallel);
+        }
+
+        if (operand instanceof SemijoinOperator || operand instanceof AntijoinOperator) {
+            RelationalOperator matching = (RelationalOperator) operand;
+            List<RelationalExpression> matchingOperands = matching.operands();
+            return matching.withOperands(Arrays.asList(
+                    restrict(matchingOperands.get(0), predicate, parallel),
+                    matchingOperands.get(1)));
+        }
+
+        if (operand instanceof ExtendOperator) {
+            return pushRestrictBelowExtend((ExtendOperator) operand, predicate, parallel);
+        }
+
+        return null;
+    }
+
+    private RelationalExpression pushRestrictBelowExtend(ExtendOperator extend, TuplePredicate predicate, boolean parallel) {
+        Set<String> addedNames = extend.getAttributeNames();
+
+        List<TuplePredicate> sourceConjuncts = new ArrayList<>();
+        List<TuplePredicate> remaining = new ArrayList<>();
+        for (TuplePredicate conjunct : conjuncts(predicate)) {
+            if (Collections.disjoint(conjunct.attributeNames(), addedNames)) {
+                sourceConjuncts.add(conjunct);
+            } else {
+                remaining.add(conjunct);
+            }
+        }
+
+        if (sourceConjuncts.isEmpty()) {
+            return null;
+        }
+
+        RelationalExpression result = extend.withOperands(Collections.singletonList(
+                restrict(extend.operands().get(0), sourceConjuncts, parallel)));
+
+        return restrict(result, remaining, parallel);
+    }
+
+    private RelationalExpression pushRestrictBelowJoin(RelationalOperator join, TuplePredicate predicate, boolean parallel) {
+        RelationalExpression left = join.operands().get(0);
+        RelationalExpression right = join.operands().get(1);
+        Set<String> leftNames = names(left.schema());
+        Set<String> rightNames = names(right.schema());
+
+        List<TuplePredicate> leftConjuncts = new ArrayList<>();
+        List<TuplePredicate> rightConjuncts = new ArrayList<>();
+        List<TuplePredicate> remaining = new ArrayList<>();
+        for (TuplePredicate conjunct : conjuncts(predicate)) {
+            Set<String> conjunctNames = conjunct.attributeNames();
+            boolean inLeft = leftNames.containsAll(conjunctNames);
+            boolean inRight = rightNames.containsAll(conjunctNames);
+            // a conjunct over the common attributes filters both sides
+            if (inLeft) {
+                leftConjuncts.add(conjunct);
+            }
+            if (inRight) {
+                rightConjuncts.add(conjunct);
+            }
+            if (!inLeft && !inRight) {
+                remaining.add(conjunct);
+            }
+        }
+
+        if (leftConjuncts.isEmpty() && rightConjuncts.isEmpty()) {
+            return null;
+        }
+
+        RelationalExpression result = join.withOperands(Arrays.asList(
+                restrict(left, leftConjuncts, parallel),
+                restrict(right, rightConjuncts, parallel)));
+
+        return restrict(result, remaining, parallel);
+    }
+
+    private static RelationalExpression restrict(RelationalExpression expression, List<TuplePredicate> conjuncts, boolean parallel) {
+        if (conjuncts.isEmpty()) {
+            return expression;
+        }
+
+        return restrict(expression, conjunction(conjuncts), parallel);
+    }
+
+    private static RestrictOperator restrict(RelationalExpression expression, TuplePredicate predicate, boolean parallel) {
+        RestrictOperator result = new RestrictOperator(expression, predicate);
+        return parallel ? result.parallel() : result;
+    }
+
+    private static List<TuplePredicate> conjuncts(TuplePredicate predicate) {
+        if (!(predicate instanceof And)) {
+            return Collections.singletonList(predicate);
+        }
+
+        List<TuplePredicate> result = new ArrayList<>();
+        for (TuplePredicate operand : ((And) predicate).getOperands()) {
+            result.addAll(conjuncts(operand));
+        }
+
+        return result;
+    }
+
+    private static TuplePredicate conjunction(List<TuplePredicate> conjuncts) {
+        return conjuncts.size() == 1 ? conjuncts.get(0) : Predicates.and(conjuncts);
+    }
+
+    private static RelationalExpression rename(RelationalExpression expression, Map<String, String> mappings) {
+        if (mappings.isEmpty()) {
+            return expression;
+        }
+
+        RenameOperator result = new RenameOperator(expression);
+        mappings.forEach(result::addMapping);
+        return result;
+    }
+
+    private static Map<String, String> effectiveMappings(Map<String, String> mappings) {
+        Map<String, String> result = new HashMap<>();
+        mappings.forEach((name, targetName) -> {
+            if (!name.equals(targetName)) {
+                result.put(name, targetName);
+            }
+        });
+
+        return result;
+    }
+
+    private static RelationalExpression project(RelationalExpression expression, Set<String> names, boolean parallel) {
+        if (names.equals(names(expression.schema()))) {
+            return expression;
+        }
+
+        ProjectOperator result = new ProjectOperator(expression, new ArrayList<>(names));
+        return parallel ? result.parallel() : result;
+    }
+
+    private static boolean isEmpty(RelationalExpression expression) {
+        return expression instanceof IdentityExpression && expression.execute().isEmpty();
+    }
+
+    private static boolean isNullaryTuple(RelationalExpression expression) {
+        return expression instanceof IdentityExpression && expression.execute().equals(Relation.NULLARY_TUPLE);
+    }
+
+    private static RelationalExpression empty(RelationSchema schema) {
+        return new IdentityExpression(new RelationSelector().withSchema(schema).select());
+    }
+
+    private static Set<String> names(RelationSchema schema) {
+        return schema.attributes().map(Attribute::getName).collect(Collectors.toSet());
+    }
+
+    private static Set<String> intersect(Set<String> a, Set<String> b) {
+        Set<String> result = new HashSet<>(a);
+        result.retainAll(b);
+        return result;
+    }
+}
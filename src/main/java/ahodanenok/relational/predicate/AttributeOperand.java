@@ -0,0 +1,85 @@
+package ahodanenok.relational.predicate;
+
+import ahodanenok.relational.RelationSchema;
+import ahodanenok.relational.exception.AttributeNotFoundException;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Reference to the value of an attribute.
+ */
+public final class AttributeOperand extends Operand {
+
+    private final String name;
+
+    AttributeOperand(String name) {
+        Objects.requireNonNull(name, "Attribute name can't be null");
+        this.name = name.trim();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Set<String> attributeNames() {
+        return Collections.singleton(name);
+    }
+
+    @Override
+    Class<?> type(RelationSchema schema) {
+        return schema.getAttribute(name).getType();
+    }
+
+    @Override
+    <T> Function<T, Object> compile(RelationSchema schema, ValueReader<T> reader) {
+        int slot = slot(schema);
+        return source -> reader.read(source, slot);
+    }
+
+    /**
+     * Slot of the attribute in the tuples of the given schema.
+     */
+    int slot(RelationSchema schema) {
+        int slot = schema.indexOf(name);
+        if (slot < 0) {
+            throw new AttributeNotFoundException(name);
+        }
+
+        return slot;
+    }
+
+    @Override
+    AttributeOperand renameAttributes(Map<String, String> mappings) {
+        String targetName = mappings.get(name);
+        return targetName != null ? new AttributeOperand(targetName) : this;
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || !this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+
+        AttributeOperand other = (AttributeOperand) obj;
+        return name.equals(other.name);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,229 @@
+package ahodanenok.relational.predicate;
+
+import ahodanenok.relational.ColumnarRelationStorage;
+import ahodanenok.relational.RelationSchema;
+import ahodanenok.relational.exception.RelationalException;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
+
+/**
+ * Comparison of two operands, which must have the same type.
+ */
+public final class Comparison extends TuplePredicate {
+
+    private final Operand left;
+    private final ComparisonOperator operator;
+    private final Operand right;
+
+    Comparison(Operand left, ComparisonOperator operator, Operand right) {
+        Objects.requireNonNull(left, "Operand can't be null: left");
+        Objects.requireNonNull(operator, "Operator can't be null");
+        Objects.requireNonNull(right, "Operand can't be null: right");
+        this.left = left;
+        this.operator = operator;
+        this.right = right;
+    }
+
+    public Operand getLeft() {
+        return left;
+    }
+
+    public ComparisonOperator getOperator() {
+        return operator;
+    }
+
+    public Operand getRight() {
+        return right;
+    }
+
+    @Override
+    public Set<String> attributeNames() {
+        Set<String> names = new HashSet<>(left.attributeNames());
+        names.addAll(right.attributeNames());
+        return names;
+    }
+
+    @Override
+    public Map<String, Object> equalityBindings() {
+        if (operator != ComparisonOperator.EQ) {
+            return Collections.emptyMap();
+        }
+
+        if (left instanceof AttributeOperand && right instanceof LiteralOperand) {
+            return Collections.singletonMap(((AttributeOperand) left).getName(), ((LiteralOperand) right).getValue());
+        } else if (left instanceof LiteralOperand && right instanceof AttributeOperand) {
+            return Collections.singletonMap(((AttributeOperand) right).getName(), ((LiteralOperand) left).getValue());
+        }
+
+        return Collections.emptyMap();
+    }
+
+    @Override
+    <T> Predicate<T> compile(RelationSchema schema, ValueReader<T> reader) {
+        Function<T, Object> l = left.compile(schema, reader);
+        Function<T, Object> r = right.compile(schema, reader);
+        checkTypes(schema);
+
+        switch (operator) {
+            case EQ:
+                return source -> l.apply(source).equals(r.apply(source));
+            case NE:
+                return source -> !l.apply(source).equals(r.apply(source));
+            case LT:
+                return source -> compare(l.apply(source), r.apply(source)) < 0;
+            case LE:
+                return source -> compare(l.apply(source), r.apply(source)) <= 0;
+            case GT:
+                return source -> compare(l.apply(source), r.apply(source)) > 0;
+            case GE:
+                return source -> compare(l.apply(source), r.apply(source)) >= 0;
+            default:
+                throw new IllegalStateException("Unknown operator: " + operator);
+        }
+    }
+
+    @Override
+    IntPredicate compileColumns(ColumnarRelationStorage storage, RelationSchema schema) {
+        IntUnaryOperator order = compareColumns(storage, schema, checkTypes(schema));
+        if (order == null) {
+            return super.compileColumns(storage, schema);
+        }
+
+        switch (operator) {
+            case EQ:
+                return row -> order.applyAsInt(row) == 0;
+            case NE:
+                return row -> order.applyAsInt(row) != 0;
+            case LT:
+                return row -> order.applyAsInt(row) < 0;
+            case LE:
+                return row -> order.applyAsInt(row) <= 0;
+            case GT:
+                return row -> order.applyAsInt(row) > 0;
+            case GE:
+                return row -> order.applyAsInt(row) >= 0;
+            default:
+                throw new IllegalStateException("Unknown operator: " + operator);
+        }
+    }
+
+    /**
+     * Compare the values of the operands in a row with the primitive columns of the storage,
+     * the result has the sign of {@link Comparable#compareTo(Object)}, which is consistent with equals for these types.
+     *
+     * @return comparison or null if values are not stored in primitive columns
+     */
+    private IntUnaryOperator compareColumns(ColumnarRelationStorage storage, RelationSchema schema, Class<?> type) {
+        boolean leftColumn = left instanceof AttributeOperand;
+        boolean rightColumn = right instanceof AttributeOperand;
+        if (!leftColumn && !rightColumn) {
+            return null;
+        }
+
+        if (type == Integer.class) {
+            if (leftColumn && rightColumn) {
+                int[] l = storage.intColumn(((AttributeOperand) left).slot(schema));
+                int[] r = storage.intColumn(((AttributeOperand) right).slot(schema));
+                return row -> Integer.compare(l[row], r[row]);
+            } else if (leftColumn) {
+                int[] l = storage.intColumn(((AttributeOperand) left).slot(schema));
+                int r = (Integer) ((LiteralOperand) right).getValue();
+                return row -> Integer.compare(l[row], r);
+            } else {
+                int l = (Integer) ((LiteralOperand) left).getValue();
+                int[] r = storage.intColumn(((AttributeOperand) right).slot(schema));
+                return row -> Integer.compare(l, r[row]);
+            }
+        } else if (type == Long.class) {
+            if (leftColumn && rightColumn) {
+                long[] l = storage.longColumn(((AttributeOperand) left).slot(schema));
+                long[] r = storage.longColumn(((AttributeOperand) right).slot(schema));
+                return row -> Long.compare(l[row], r[row]);
+            } else if (leftColumn) {
+                long[] l = storage.longColumn(((AttributeOperand) left).slot(schema));
+                long r = (Long) ((LiteralOperand) right).getValue();
+                return row -> Long.compare(l[row], r);
+            } else {
+                long l = (Long) ((LiteralOperand) left).getValue();
+                long[] r = storage.longColumn(((AttributeOperand) right).slot(schema));
+                return row -> Long.compare(l, r[row]);
+            }
+        } else if (type == Double.class) {
+            if (leftColumn && rightColumn) {
+                double[] l = storage.doubleColumn(((AttributeOperand) left).slot(schema));
+                double[] r = storage.doubleColumn(((AttributeOperand) right).slot(schema));
+                return row -> Double.compare(l[row], r[row]);
+            } else if (leftColumn) {
+                double[] l = storage.doubleColumn(((AttributeOperand) left).slot(schema));
+                double r = (Double) ((LiteralOperand) right).getValue();
+                return row -> Double.compare(l[row], r);
+            } else {
+                double l = (Double) ((LiteralOperand) left).getValue();
+                double[] r = storage.doubleColumn(((AttributeOperand) right).slot(schema));
+                return row -> Double.compare(l, r[row]);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return type of the compared values
+     */
+    private Class<?> checkTypes(RelationSchema schema) {
+        Class<?> leftType = left.type(schema);
+        Class<?> rightType = right.type(schema);
+        if (!leftType.equals(rightType)) {
+            throw new RelationalException(String.format(
+                    "Can't compare values of type '%s' and '%s'", leftType.getName(), rightType.getName()));
+        }
+        if (operator.isOrdering() && !Comparable.class.isAssignableFrom(leftType)) {
+            throw new RelationalException(String.format(
+                    "Values of type '%s' can't be ordered", leftType.getName()));
+        }
+
+        return leftType;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object a, Object b) {
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    @Override
+    public Comparison renameAttributes(Map<String, String> mappings) {
+        return new Comparison(left.renameAttributes(mappings), operator, right.renameAttributes(mappings));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(left, operator, right);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || !this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+
+        Comparison other = (Comparison) obj;
+        return left.equals(other.left) && operator == other.operator && right.equals(other.right);
+    }
+
+    @Override
+    public String toString() {
+        return left + " " + operator + " " + right;
+    }
+}
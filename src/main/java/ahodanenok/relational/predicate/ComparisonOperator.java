@@ -0,0 +1,34 @@
+package ahodanenok.relational.predicate;
+
+/**
+ * Operators for comparing two values, ordering comparisons require values to be {@link Comparable}.
+ */
+public enum ComparisonOperator {
+
+    EQ("=", false),
+    NE("<>", false),
+    LT("<", true),
+    LE("<=", true),
+    GT(">", true),
+    GE(">=", true);
+
+    private final String symbol;
+    private final boolean ordering;
+
+    ComparisonOperator(String symbol, boolean ordering) {
+        this.symbol = symbol;
+        this.ordering = ordering;
+    }
+
+    /**
+     * Check if the operator compares values by their order.
+     */
+    public boolean isOrdering() {
+        return ordering;
+    }
+
+    @Override
+    public String toString() {
+        return symbol;
+    }
+}
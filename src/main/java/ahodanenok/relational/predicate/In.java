@@ -0,0 +1,119 @@
+package ahodanenok.relational.predicate;
+
+import ahodanenok.relational.ColumnarRelationStorage;
+import ahodanenok.relational.RelationSchema;
+import ahodanenok.relational.exception.RelationalException;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Check that the operand's value is one of the given values.
+ * Null values are ignored, tuples never have them.
+ */
+public final class In extends TuplePredicate {
+
+    private final Operand operand;
+    private final Set<Object> values;
+
+    In(Operand operand, Collection<?> values) {
+        Objects.requireNonNull(operand, "Operand can't be null");
+        Objects.requireNonNull(values, "Values can't be null");
+        this.operand = operand;
+        this.values = Collections.unmodifiableSet(values.stream().filter(Objects::nonNull).collect(Collectors.toSet()));
+    }
+
+    public Operand getOperand() {
+        return operand;
+    }
+
+    public Set<Object> getValues() {
+        return values;
+    }
+
+    @Override
+    public Set<String> attributeNames() {
+        return operand.attributeNames();
+    }
+
+    @Override
+    <T> Predicate<T> compile(RelationSchema schema, ValueReader<T> reader) {
+        Function<T, Object> value = operand.compile(schema, reader);
+        checkTypes(schema);
+        return source -> values.contains(value.apply(source));
+    }
+
+    @Override
+    IntPredicate compileColumns(ColumnarRelationStorage storage, RelationSchema schema) {
+        Class<?> type = checkTypes(schema);
+        if (!(operand instanceof AttributeOperand)) {
+            return super.compileColumns(storage, schema);
+        }
+
+        // a few values are searched in a sorted array instead of boxing the value of each row
+        int slot = ((AttributeOperand) operand).slot(schema);
+        if (type == Integer.class) {
+            int[] column = storage.intColumn(slot);
+            int[] sorted = values.stream().mapToInt(v -> (Integer) v).sorted().toArray();
+            return row -> Arrays.binarySearch(sorted, column[row]) >= 0;
+        } else if (type == Long.class) {
+            long[] column = storage.longColumn(slot);
+            long[] sorted = values.stream().mapToLong(v -> (Long) v).sorted().toArray();
+            return row -> Arrays.binarySearch(sorted, column[row]) >= 0;
+        } else if (type == Double.class) {
+            // sorting and searching use the same order as Double.compareTo, so it matches equals
+            double[] column = storage.doubleColumn(slot);
+            double[] sorted = values.stream().mapToDouble(v -> (Double) v).sorted().toArray();
+            return row -> Arrays.binarySearch(sorted, column[row]) >= 0;
+        }
+
+        return super.compileColumns(storage, schema);
+    }
+
+    /**
+     * @return type of the operand's values
+     */
+    private Class<?> checkTypes(RelationSchema schema) {
+        Class<?> type = operand.type(schema);
+        for (Object v : values) {
+            if (!type.equals(v.getClass())) {
+                throw new RelationalException(String.format(
+                        "Can't compare values of type '%s' and '%s'", type.getName(), v.getClass().getName()));
+            }
+        }
+
+        return type;
+    }
+
+    @Override
+    public In renameAttributes(Map<String, String> mappings) {
+        return new In(operand.renameAttributes(mappings), values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(operand, values);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || !this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+
+        In other = (In) obj;
+        return operand.equals(other.operand) && values.equals(other.values);
+    }
+
+    @Override
+    public String toString() {
+        return operand + " IN (" + values.stream().map(v -> new LiteralOperand(v).toString()).collect(Collectors.joining(", ")) + ")";
+    }
+}
@@ -0,0 +1,70 @@
+package ahodanenok.relational.predicate;
+
+import ahodanenok.relational.RelationSchema;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Constant value.
+ */
+public final class LiteralOperand extends Operand {
+
+    private final Object value;
+
+    LiteralOperand(Object value) {
+        Objects.requireNonNull(value, "Value can't be null");
+        this.value = value;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    @Override
+    public Set<String> attributeNames() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    Class<?> type(RelationSchema schema) {
+        return value.getClass();
+    }
+
+    @Override
+    <T> Function<T, Object> compile(RelationSchema schema, ValueReader<T> reader) {
+        return source -> value;
+    }
+
+    @Override
+    LiteralOperand renameAttributes(Map<String, String> mappings) {
+        return this;
+    }
+
+    @Override
+    public int hashCode() {
+        return value.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || !this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+
+        LiteralOperand other = (LiteralOperand) obj;
+        return value.equals(other.value);
+    }
+
+    @Override
+    public String toString() {
+        return value instanceof String ? "'" + value + "'" : String.valueOf(value);
+    }
+}
@@ -0,0 +1,71 @@
+package ahodanenok.relational.predicate;
+
+import ahodanenok.relational.ColumnarRelationStorage;
+import ahodanenok.relational.RelationSchema;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Negation of a predicate.
+ */
+public final class Not extends TuplePredicate {
+
+    private final TuplePredicate operand;
+
+    Not(TuplePredicate operand) {
+        Objects.requireNonNull(operand, "Predicate can't be null");
+        this.operand = operand;
+    }
+
+    public TuplePredicate getOperand() {
+        return operand;
+    }
+
+    @Override
+    public Set<String> attributeNames() {
+        return operand.attributeNames();
+    }
+
+    @Override
+    <T> Predicate<T> compile(RelationSchema schema, ValueReader<T> reader) {
+        return operand.compile(schema, reader).negate();
+    }
+
+    @Override
+    IntPredicate compileColumns(ColumnarRelationStorage storage, RelationSchema schema) {
+        return operand.compileColumns(storage, schema).negate();
+    }
+
+    @Override
+    public Not renameAttributes(Map<String, String> mappings) {
+        return new Not(operand.renameAttributes(mappings));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(Not.class, operand);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || !this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+
+        Not other = (Not) obj;
+        return operand.equals(other.operand);
+    }
+
+    @Override
+    public String toString() {
+        return "NOT (" + operand + ")";
+    }
+}
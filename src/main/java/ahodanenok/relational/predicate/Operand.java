@@ -0,0 +1,29 @@
+package ahodanenok.relational.predicate;
+
+import ahodanenok.relational.RelationSchema;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Operand of a predicate: an attribute reference or a literal value.
+ */
+public abstract class Operand {
+
+    Operand() { }
+
+    /**
+     * Names of the attributes referenced by the operand.
+     */
+    public abstract Set<String> attributeNames();
+
+    /**
+     * Type of the operand's values in a relation with the given schema.
+     */
+    abstract Class<?> type(RelationSchema schema);
+
+    abstract <T> Function<T, Object> compile(RelationSchema schema, ValueReader<T> reader);
+
+    abstract Operand renameAttributes(Map<String, String> mappings);
+}
@@ -0,0 +1,99 @@
+package ahodanenok.relational.predicate;
+
+import ahodanenok.relational.ColumnarRelationStorage;
+import ahodanenok.relational.RelationSchema;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Disjunction of predicates, true if any of them is true.
+ */
+public final class Or extends TuplePredicate {
+
+    private final List<TuplePredicate> operands;
+
+    Or(List<TuplePredicate> operands) {
+        Objects.requireNonNull(operands, "Predicates can't be null");
+        operands.forEach(p -> Objects.requireNonNull(p, "Predicate can't be null"));
+        this.operands = Collections.unmodifiableList(new ArrayList<>(operands));
+    }
+
+    public List<TuplePredicate> getOperands() {
+        return operands;
+    }
+
+    @Override
+    public Set<String> attributeNames() {
+        Set<String> names = new HashSet<>();
+        operands.forEach(p -> names.addAll(p.attributeNames()));
+        return names;
+    }
+
+    @Override
+    <T> Predicate<T> compile(RelationSchema schema, ValueReader<T> reader) {
+        List<Predicate<T>> predicates = new ArrayList<>(operands.size());
+        for (TuplePredicate operand : operands) {
+            predicates.add(operand.compile(schema, reader));
+        }
+
+        return source -> {
+            for (Predicate<T> p : predicates) {
+                if (p.test(source)) {
+                    return true;
+                }
+            }
+
+            return false;
+        };
+    }
+
+    @Override
+    IntPredicate compileColumns(ColumnarRelationStorage storage, RelationSchema schema) {
+        IntPredicate[] predicates = new IntPredicate[operands.size()];
+        for (int i = 0; i < predicates.length; i++) {
+            predicates[i] = operands.get(i).compileColumns(storage, schema);
+        }
+
+        return row -> {
+            for (IntPredicate p : predicates) {
+                if (p.test(row)) {
+                    return true;
+                }
+            }
+
+            return false;
+        };
+    }
+
+    @Override
+    public Or renameAttributes(Map<String, String> mappings) {
+        return new Or(operands.stream().map(p -> p.renameAttributes(mappings)).collect(Collectors.toList()));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(Or.class, operands);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (obj == null || !this.getClass().equals(obj.getClass())) {
+            return false;
+        }
+
+        Or other = (Or) obj;
+        return operands.equals(other.operands);
+    }
+
+    @Override
+    public String toString() {
+        return operands.stream().map(p -> "(" + p + ")").collect(Collectors.joining(" OR "));
+    }
+}
@@ -0,0 +1,83 @@
+package ahodanenok.relational.predicate;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Factory methods for building predicates.
+ *
+ * <pre>
+ *     and(eq("status", "active"), gt("amount", 100), in("region", "EU", "US"))
+ * </pre>
+ */
+public final class Predicates {
+
+    private Predicates() { }
+
+    public static Operand attribute(String name) {
+        return new AttributeOperand(name);
+    }
+
+    public static Operand literal(Object value) {
+        return new LiteralOperand(value);
+    }
+
+    public static Comparison compare(Operand left, ComparisonOperator operator, Operand right) {
+        return new Comparison(left, operator, right);
+    }
+
+    public static Comparison eq(String attributeName, Object value) {
+        return compare(attribute(attributeName), ComparisonOperator.EQ, literal(value));
+    }
+
+    public static Comparison ne(String attributeName, Object value) {
+        return compare(attribute(attributeName), ComparisonOperator.NE, literal(value));
+    }
+
+    public static Comparison lt(String attributeName, Object value) {
+        return compare(attribute(attributeName), ComparisonOperator.LT, literal(value));
+    }
+
+    public static Comparison le(String attributeName, Object value) {
+        return compare(attribute(attributeName), ComparisonOperator.LE, literal(value));
+    }
+
+    public static Comparison gt(String attributeName, Object value) {
+        return compare(attribute(attributeName), ComparisonOperator.GT, literal(value));
+    }
+
+    public static Comparison ge(String attributeName, Object value) {
+        return compare(attribute(attributeName), ComparisonOperator.GE, literal(value));
+    }
+
+    public static In in(String attributeName, Object... values) {
+        Objects.requireNonNull(values, "Values can't be null");
+        return in(attribute(attributeName), Arrays.asList(values));
+    }
+
+    public static In in(Operand operand, Collection<?> values) {
+        return new In(operand, values);
+    }
+
+    public static And and(TuplePredicate... predicates) {
+        return and(Arrays.asList(predicates));
+    }
+
+    public static And and(List<TuplePredicate> predicates) {
+        return new And(predicates);
+    }
+
+    public static Or or(TuplePredicate... predicates) {
+        return or(Arrays.asList(predicates));
+    }
+
+    public static Or or(List<TuplePredicate> predicates) {
+        return new Or(predicates);
+    }
+
+    public static Not not(TuplePredicate predicate) {
+        return new Not(predicate);
+    }
+}
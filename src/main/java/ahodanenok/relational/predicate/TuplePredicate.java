@@ -0,0 +1,75 @@
+package ahodanenok.relational.predicate;
+
+import ahodanenok.relational.ColumnarRelationStorage;
+import ahodanenok.relational.RelationSchema;
+import ahodanenok.relational.Tuple;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Boolean expression over the attributes of a tuple.
+ *
+ * <p>Unlike a lambda, the predicate can be inspected: which attributes it references and how it is built.
+ * Before the evaluation it is compiled against a relation schema, so that the values are read by slots.
+ * Instances are created with {@link Predicates}.
+ */
+public abstract class TuplePredicate {
+
+    TuplePredicate() { }
+
+    /**
+     * Names of the attributes referenced by the predicate.
+     */
+    public abstract Set<String> attributeNames();
+
+    /**
+     * Attributes which must be equal to constant values for the predicate to be true,
+     * it allows finding candidate tuples with an index instead of checking every tuple.
+     *
+     * @return values of the attributes by their names, empty if the predicate doesn't fix any attributes
+     */
+    public Map<String, Object> equalityBindings() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Create an evaluator of the predicate for the tuples of the given schema.
+     *
+     * @throws ahodanenok.relational.exception.AttributeNotFoundException if a referenced attribute is not in the schema
+     * @throws ahodanenok.relational.exception.RelationalException if compared values have different types
+     */
+    public Predicate<Tuple> compile(RelationSchema schema) {
+        return compile(schema, Tuple::getValue);
+    }
+
+    /**
+     * Create an evaluator of the predicate for the rows of the given storage,
+     * only columns of the referenced attributes are read.
+     * Values of {@code Integer}, {@code Long} and {@code Double} attributes are compared
+     * in their primitive columns without boxing.
+     */
+    public IntPredicate compile(ColumnarRelationStorage storage, RelationSchema schema) {
+        return compileColumns(storage, schema);
+    }
+
+    /**
+     * Evaluator reading the boxed values of the rows, predicates which can read primitive columns override it.
+     */
+    IntPredicate compileColumns(ColumnarRelationStorage storage, RelationSchema schema) {
+        Predicate<Integer> predicate = compile(schema, storage::getValue);
+        return predicate::test;
+    }
+
+    abstract <T> Predicate<T> compile(RelationSchema schema, ValueReader<T> reader);
+
+    /**
+     * Create the same predicate, but with the referenced attributes renamed.
+     *
+     * @param mappings keys are the attributes to rename and values are their new names
+     */
+    public abstract TuplePredicate renameAttributes(Map<String, String> mappings);
+}
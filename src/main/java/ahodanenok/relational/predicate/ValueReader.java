@@ -0,0 +1,9 @@
+package ahodanenok.relational.predicate;
+
+/**
+ * Reads a value in the given slot from a source, for example from a tuple or a row of columns.
+ */
+interface ValueReader<T> {
+
+    Object read(T source, int slot);
+}
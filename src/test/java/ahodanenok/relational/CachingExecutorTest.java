@@ -0,0 +1,115 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.algebra.*;
+import ahodanenok.relational.execution.CachingExecutor;
+import ahodanenok.relational.expression.IdentityExpression;
+import ahodanenok.relational.expression.RelationalExpression;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.BiPredicate;
+
+import static ahodanenok.relational.predicate.Predicates.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingExecutorTest {
+
+    private final Relation a = new RelationSelector()
+            .addTuple(new TupleSelector().withValue("a", 1).withValue("b", "b1").select())
+            .addTuple(new TupleSelector().withValue("a", 2).withValue("b", "b1").select())
+            .addTuple(new TupleSelector().withValue("a", 3).withValue("b", "b2").select())
+            .select();
+
+    private final Relation b = new RelationSelector()
+            .addTuple(new TupleSelector().withValue("b", "b1").withValue("c", 10L).select())
+            .addTuple(new TupleSelector().withValue("b", "b2").withValue("c", 20L).select())
+            .select();
+
+    @Test
+    public void shouldCompareExpressionsStructurally() {
+        Relation copyOfA = new RelationSelector().withColumnarStorage().withSchema(a.schema()).select();
+        assertNotEquals(new IdentityExpression(a), new IdentityExpression(copyOfA));
+        assertEquals(new IdentityExpression(b), new IdentityExpression(new ProjectOperator(new IdentityExpression(b), "b", "c").execute()));
+
+        assertEquals(join(), join());
+        assertEquals(join().hashCode(), join().hashCode());
+        assertEquals(join(), new JoinOperator(new IdentityExpression(b), new IdentityExpression(a)));
+        assertEquals(join().hashCode(), new JoinOperator(new IdentityExpression(b), new IdentityExpression(a)).hashCode());
+        assertNotEquals(
+                new DifferenceOperator(new IdentityExpression(a), new ProjectOperator(join(), "a", "b")),
+                new DifferenceOperator(new ProjectOperator(join(), "a", "b"), new IdentityExpression(a)));
+        assertNotEquals(join(), new ProductOperator(new IdentityExpression(a), new IdentityExpression(b)));
+
+        assertEquals(new ProjectOperator(join(), "a", "c"), new ProjectOperator(join(), "c", "a"));
+        assertNotEquals(new ProjectOperator(join(), "a", "c"), new ProjectOperator(join(), "a", "c").withoutAttributes());
+        assertEquals(
+                new RenameOperator(join()).addMapping("a", "x").addMapping("b", "b"),
+                new RenameOperator(join()).addMapping("a", "x"));
+        assertEquals(
+                new RestrictOperator(join(), and(eq("a", 1), in("b", "b1", "b2"))),
+                new RestrictOperator(join(), and(eq("a", 1), in("b", "b2", "b1"))));
+        assertNotEquals(new RestrictOperator(join(), eq("a", 1)), new RestrictOperator(join(), eq("a", 2)));
+
+        BiPredicate<Relation, Tuple> predicate = (r, t) -> true;
+        assertEquals(new RestrictOperator(join(), predicate), new RestrictOperator(join(), predicate));
+        assertNotEquals(new RestrictOperator(join(), predicate), new RestrictOperator(join(), (r, t) -> true));
+    }
+
+    @Test
+    public void shouldReturnCachedResults() {
+        CachingExecutor executor = new CachingExecutor(1 << 20);
+
+        RelationalExpression expr = new ProjectOperator(join(), "a", "c");
+        Relation result = executor.execute(expr);
+        assertEquals(expr.execute(), result);
+        assertEquals(2, executor.size());
+        assertTrue(executor.memoryUsage() > 0);
+
+        assertSame(result, executor.execute(new ProjectOperator(join(), "c", "a")));
+        Relation joined = executor.execute(join());
+        assertEquals(join().execute(), joined);
+        assertEquals(joined, executor.execute(new UnionOperator(join(), join())));
+        assertEquals(3, executor.size());
+
+        executor.clear();
+        assertEquals(0, executor.size());
+        assertEquals(0, executor.memoryUsage());
+        assertNotSame(result, executor.execute(expr));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedResults() {
+        RelationalExpression first = new RestrictOperator(new IdentityExpression(a), eq("b", "b1"));
+        RelationalExpression second = new RestrictOperator(new IdentityExpression(a), eq("b", "b2"));
+        RelationalExpression third = new RestrictOperator(new IdentityExpression(a), gt("a", 1));
+
+        CachingExecutor sizing = new CachingExecutor(Long.MAX_VALUE);
+        sizing.execute(first);
+        sizing.execute(third);
+        CachingExecutor executor = new CachingExecutor(sizing.memoryUsage());
+
+        Relation firstResult = executor.execute(first);
+        executor.execute(second);
+        assertSame(firstResult, executor.execute(first));
+
+        // second is the least recently used
+        executor.execute(third);
+        assertEquals(2, executor.size());
+        assertSame(firstResult, executor.execute(first));
+        assertTrue(executor.memoryUsage() <= sizing.memoryUsage());
+    }
+
+    @Test
+    public void shouldNotCacheResultsLargerThanBudget() {
+        CachingExecutor executor = new CachingExecutor(0);
+        Relation result = executor.execute(join());
+        assertEquals(join().execute(), result);
+        assertEquals(0, executor.size());
+        assertNotSame(result, executor.execute(join()));
+
+        assertThrows(IllegalArgumentException.class, () -> new CachingExecutor(-1));
+    }
+
+    private JoinOperator join() {
+        return new JoinOperator(new IdentityExpression(a), new IdentityExpression(b));
+    }
+}
@@ -0,0 +1,112 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.algebra.JoinOperator;
+import ahodanenok.relational.exception.RelationalException;
+import ahodanenok.relational.expression.IdentityExpression;
+import ahodanenok.relational.io.ColumnarFile;
+import ahodanenok.relational.io.MappedRelationStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarFileTest {
+
+    @TempDir
+    Path dir;
+
+    private final Relation relation = new RelationSelector()
+            .addTuple(new TupleSelector().withValue("a", 1).withValue("b", 10L).withValue("c", 1.5)
+                    .withValue("d", true).withValue("e", "x").select())
+            .addTuple(new TupleSelector().withValue("a", 2).withValue("b", 20L).withValue("c", -2.5)
+                    .withValue("d", false).withValue("e", "").select())
+            .addTuple(new TupleSelector().withValue("a", 3).withValue("b", Long.MAX_VALUE).withValue("c", Double.NaN)
+                    .withValue("d", true).withValue("e", "\u0437\u043d\u0430\u0447\u0435\u043d\u0438\u0435").select())
+            .select();
+
+    @Test
+    public void shouldWriteAndOpenRelation() throws IOException {
+        Path path = dir.resolve("relation.rel");
+        ColumnarFile.write(relation, path);
+
+        Relation opened = ColumnarFile.open(path);
+        assertTrue(opened.storage() instanceof MappedRelationStorage);
+        assertEquals(relation.schema(), opened.schema());
+        assertEquals(3, opened.cardinality());
+        assertEquals(relation, opened);
+        assertEquals(opened, relation);
+        assertEquals(relation.hashCode(), opened.hashCode());
+
+        relation.tuples().forEach(t -> assertTrue(opened.contains(t)));
+        assertFalse(opened.contains(new TupleSelector().withValue("a", 1).withValue("b", 10L).withValue("c", 1.5)
+                .withValue("d", true).withValue("e", "y").select()));
+        assertFalse(opened.contains(new TupleSelector().withValue("a", 1).select()));
+    }
+
+    @Test
+    public void shouldDecodeValuesOnAccess() throws IOException {
+        Path path = dir.resolve("relation.rel");
+        ColumnarFile.write(relation, path);
+
+        Relation opened = ColumnarFile.open(path);
+        MappedRelationStorage storage = (MappedRelationStorage) opened.storage();
+        int slot = opened.schema().indexOf("e");
+        for (int row = 0; row < storage.size(); row++) {
+            Tuple tuple = storage.getTuple(row);
+            assertEquals(tuple.getValue("e"), storage.getValue(row, slot));
+            assertTrue(relation.contains(tuple));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> storage.getValue(3, slot));
+    }
+
+    @Test
+    public void shouldUseOpenedRelationInOperators() throws IOException {
+        Path path = dir.resolve("relation.rel");
+        ColumnarFile.write(relation, path);
+
+        Relation other = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("a", 2).withValue("f", "y").select())
+                .select();
+        Relation joined = new JoinOperator(new IdentityExpression(ColumnarFile.open(path)), new IdentityExpression(other)).execute();
+        assertEquals(new JoinOperator(new IdentityExpression(relation), new IdentityExpression(other)).execute(), joined);
+    }
+
+    @Test
+    public void shouldWriteEmptyRelations() throws IOException {
+        Path path = dir.resolve("empty.rel");
+
+        Relation empty = new RelationSelector().withSchema(relation.schema()).select();
+        ColumnarFile.write(empty, path);
+        assertEquals(empty, ColumnarFile.open(path));
+
+        ColumnarFile.write(Relation.NULLARY_EMPTY, path);
+        assertEquals(Relation.NULLARY_EMPTY, ColumnarFile.open(path));
+    }
+
+    @Test
+    public void shouldFailOnUnsupportedTypes() {
+        Relation unsupported = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("a", new Object()).select())
+                .select();
+
+        assertThrows(RelationalException.class, () -> ColumnarFile.write(unsupported, dir.resolve("unsupported.rel")));
+    }
+
+    @Test
+    public void shouldFailOnInvalidFiles() throws IOException {
+        Path garbage = dir.resolve("garbage.rel");
+        Files.write(garbage, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+        assertThrows(IOException.class, () -> ColumnarFile.open(garbage));
+
+        Path truncated = dir.resolve("truncated.rel");
+        ColumnarFile.write(relation, truncated);
+        byte[] bytes = Files.readAllBytes(truncated);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 5));
+        assertThrows(IOException.class, () -> ColumnarFile.open(truncated));
+    }
+}
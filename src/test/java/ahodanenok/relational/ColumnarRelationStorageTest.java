@@ -0,0 +1,90 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.algebra.ProjectOperator;
+import ahodanenok.relational.algebra.RestrictOperator;
+import ahodanenok.relational.expression.IdentityExpression;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarRelationStorageTest {
+
+    @Test
+    public void shouldSelectEmptyColumnarRelation() {
+        RelationSchema schema = new RelationSchemaGenerator()
+                .withAttribute("a", Integer.class)
+                .withAttribute("b", String.class)
+                .generate();
+        Relation relation = new RelationSelector().withSchema(schema).withColumnarStorage().select();
+
+        assertTrue(relation.storage() instanceof ColumnarRelationStorage);
+        assertTrue(relation.isEmpty());
+        assertEquals(new RelationSelector().withSchema(schema).select(), relation);
+    }
+
+    @Test
+    public void shouldSelectColumnarRelationWithMultipleTuples() {
+        Relation relation = new RelationSelector()
+                .withColumnarStorage()
+                .addTuple(new TupleSelector().withValue("a", 1).withValue("b", 10L).withValue("c", 1.5).withValue("d", "x").select())
+                .addTuple(new TupleSelector().withValue("a", 2).withValue("b", 20L).withValue("c", 2.5).withValue("d", "y").select())
+                .addTuple(new TupleSelector().withValue("a", 1).withValue("b", 10L).withValue("c", 1.5).withValue("d", "x").select())
+                .select();
+
+        Relation expected = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("a", 1).withValue("b", 10L).withValue("c", 1.5).withValue("d", "x").select())
+                .addTuple(new TupleSelector().withValue("a", 2).withValue("b", 20L).withValue("c", 2.5).withValue("d", "y").select())
+                .select();
+
+        assertEquals(2, relation.cardinality());
+        assertEquals(expected, relation);
+        assertEquals(relation, expected);
+        assertEquals(expected.hashCode(), relation.hashCode());
+        assertTrue(relation.contains(new TupleSelector().withValue("a", 2).withValue("b", 20L).withValue("c", 2.5).withValue("d", "y").select()));
+        assertFalse(relation.contains(new TupleSelector().withValue("a", 2).withValue("b", 20L).withValue("c", 2.5).withValue("d", "x").select()));
+        assertFalse(relation.contains(new TupleSelector().withValue("a", 2).select()));
+    }
+
+    @Test
+    public void shouldRestrictColumnarRelation() {
+        Relation relation = new RelationSelector()
+                .withColumnarStorage()
+                .addTuple(new TupleSelector().withValue("a", 1).withValue("b", "b1").select())
+                .addTuple(new TupleSelector().withValue("a", 2).withValue("b", "b2").select())
+                .addTuple(new TupleSelector().withValue("a", 3).withValue("b", "b3").select())
+                .select();
+
+        Relation result = new RestrictOperator(new IdentityExpression(relation), (r, t) -> (int) t.getValue("a") != 2).execute();
+
+        Relation expected = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("a", 1).withValue("b", "b1").select())
+                .addTuple(new TupleSelector().withValue("a", 3).withValue("b", "b3").select())
+                .select();
+
+        assertTrue(result.storage() instanceof ColumnarRelationStorage);
+        assertEquals(expected, result);
+        assertTrue(result.contains(new TupleSelector().withValue("a", 3).withValue("b", "b3").select()));
+    }
+
+    @Test
+    public void shouldProjectColumnarRelation() {
+        Relation relation = new RelationSelector()
+                .withColumnarStorage()
+                .addTuple(new TupleSelector().withValue("a", 1).withValue("b", 1.0).withValue("c", "c1").select())
+                .addTuple(new TupleSelector().withValue("a", 2).withValue("b", 1.0).withValue("c", "c1").select())
+                .addTuple(new TupleSelector().withValue("a", 3).withValue("b", 2.0).withValue("c", "c2").select())
+                .select();
+
+        Relation result = new ProjectOperator(new IdentityExpression(relation), "b", "c").execute();
+
+        Relation expected = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("b", 1.0).withValue("c", "c1").select())
+                .addTuple(new TupleSelector().withValue("b", 2.0).withValue("c", "c2").select())
+                .select();
+
+        assertTrue(result.storage() instanceof ColumnarRelationStorage);
+        assertEquals(expected, result);
+        assertTrue(result.contains(new TupleSelector().withValue("b", 1.0).withValue("c", "c1").select()));
+        assertEquals(Relation.NULLARY_TUPLE, new ProjectOperator(new IdentityExpression(relation), "a", "b", "c").withoutAttributes().execute());
+    }
+}
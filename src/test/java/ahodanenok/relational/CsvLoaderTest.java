@@ -0,0 +1,149 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.exception.AttributeNotFoundException;
+import ahodanenok.relational.exception.RelationalException;
+import ahodanenok.relational.io.CsvLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvLoaderTest {
+
+    @TempDir
+    Path dir;
+
+    private final RelationSchema schema = new RelationSchemaGenerator()
+            .withAttribute("id", Integer.class)
+            .withAttribute("amount", Long.class)
+            .withAttribute("price", Double.class)
+            .withAttribute("active", Boolean.class)
+            .withAttribute("name", String.class)
+            .generate();
+
+    @Test
+    public void shouldLoadFileWithHeader() throws IOException {
+        Path path = write("name,id,amount,price,active\n"
+                + "a,1,10,1.5,true\r\n"
+                + "\"b, \"\"quoted\"\"\",2,-9223372036854775808,-2.5,FALSE\n"
+                + "\n"
+                + "a,1,10,1.5,true\n"
+                + "\"\",3,0,0,false");
+
+        Relation expected = new RelationSelector()
+                .addTuple(tuple(1, 10L, 1.5, true, "a"))
+                .addTuple(tuple(2, Long.MIN_VALUE, -2.5, false, "b, \"quoted\""))
+                .addTuple(tuple(3, 0L, 0.0, false, ""))
+                .select();
+
+        assertEquals(expected, new CsvLoader(schema).load(path));
+        assertEquals(expected, new CsvLoader(schema).sequential().load(path));
+    }
+
+    @Test
+    public void shouldLoadFileWithoutHeader() throws IOException {
+        Path path = write("1;a;10;1.5;true\n2;b;20;2.5;false\n");
+
+        Relation relation = new CsvLoader(schema)
+                .withColumns("id", "name", "amount", "price", "active")
+                .withDelimiter(';')
+                .load(path);
+
+        assertEquals(2, relation.cardinality());
+        assertTrue(relation.contains(tuple(2, 20L, 2.5, false, "b")));
+    }
+
+    @Test
+    public void shouldMergeChunksParsedInParallel() throws IOException {
+        StringBuilder content = new StringBuilder("id,amount,price,active,name\n");
+        RelationSelector expected = new RelationSelector();
+        for (int i = 0; i < 5_000; i++) {
+            // every tuple is repeated, so the duplicates are found in different chunks
+            int id = i % 2_500;
+            content.append(id).append(',').append(id * 10L).append(',').append(id / 2.0).append(',')
+                    .append(id % 2 == 0).append(",name ").append(id).append('\n');
+            expected.addTuple(tuple(id, id * 10L, id / 2.0, id % 2 == 0, "name " + id));
+        }
+        Path path = write(content.toString());
+
+        Relation relation = new CsvLoader(schema).withChunkSize(1024).load(path);
+        assertEquals(2_500, relation.cardinality());
+        assertEquals(expected.select(), relation);
+        assertEquals(relation, new CsvLoader(schema).withChunkSize(1024).sequential().load(path));
+    }
+
+    @Test
+    public void shouldTrimQuotedAndUnquotedValues() throws IOException {
+        Path path = write("id,amount,price,active,name\n"
+                + " 1 ,\t10, 1.5 , True\t, a \n"
+                + "\" 2\",\" 20 \",\" 2.5\",\" false \",\" b \"\n");
+
+        Relation expected = new RelationSelector()
+                .addTuple(tuple(1, 10L, 1.5, true, " a "))
+                .addTuple(tuple(2, 20L, 2.5, false, " b "))
+                .select();
+
+        assertEquals(expected, new CsvLoader(schema).load(path));
+    }
+
+    @Test
+    public void shouldParseDoublesAsDoubleParseDouble() throws IOException {
+        String[] texts = {
+                "0", "-0", "+7", "1.", ".5", "-0.0", "0.1", "123456789012345", "1234567890.12345", "0.000000000000001",
+                "1234567890123456", "0.1234567890123456789", "1e3", "-2.5E-3", "NaN", "-Infinity", "1d" };
+        StringBuilder content = new StringBuilder("id,amount,price,active,name\n");
+        RelationSelector expected = new RelationSelector();
+        for (int i = 0; i < texts.length; i++) {
+            content.append(i).append(",0,").append(texts[i]).append(",true,a\n");
+            expected.addTuple(tuple(i, 0L, Double.parseDouble(texts[i]), true, "a"));
+        }
+
+        assertEquals(expected.select(), new CsvLoader(schema).load(write(content.toString())));
+    }
+
+    @Test
+    public void shouldLoadEmptyFile() throws IOException {
+        assertTrue(new CsvLoader(schema).load(write("id,amount,price,active,name\n")).isEmpty());
+        assertTrue(new CsvLoader(schema).withColumns("id", "amount", "price", "active", "name").load(write("")).isEmpty());
+    }
+
+    @Test
+    public void shouldFailOnInvalidContent() throws IOException {
+        CsvLoader loader = new CsvLoader(schema);
+
+        assertThrows(RelationalException.class, () -> loader.load(write("id,amount,price,active,name\n1,2,3,true\n")));
+        assertThrows(RelationalException.class, () -> loader.load(write("id,amount,price,active,name\n1,2,3,true,a,b\n")));
+        assertThrows(RelationalException.class, () -> loader.load(write("id,amount,price,active,name\nx,2,3,true,a\n")));
+        assertThrows(RelationalException.class, () -> loader.load(write("id,amount,price,active,name\n1,2,3,yes,a\n")));
+        assertThrows(RelationalException.class, () -> loader.load(write("id,amount,price,active,name\n1,2,3,truex,a\n")));
+        assertThrows(RelationalException.class, () -> loader.load(write("id,amount,price,active,name\n1,2,.,true,a\n")));
+        assertThrows(RelationalException.class, () -> loader.load(write("id,amount,price,active,name\n1,2,1.2.3,true,a\n")));
+        assertThrows(RelationalException.class, () -> loader.load(write("id,amount,price,active,name\n3000000000,2,3,true,a\n")));
+        assertThrows(RelationalException.class, () -> loader.load(write("id,amount,price,active,name\n1,2,3,true,\"a\n")));
+        assertThrows(AttributeNotFoundException.class, () -> loader.load(write("id,amount,price,active,x\n")));
+        assertThrows(RelationalException.class, () -> loader.load(write("id,amount,price,active\n")));
+        assertThrows(RelationalException.class,
+                () -> new CsvLoader(new RelationSchemaGenerator().withAttribute("a", Object.class).generate()));
+    }
+
+    private Tuple tuple(int id, long amount, double price, boolean active, String name) {
+        return new TupleSelector()
+                .withValue("id", id)
+                .withValue("amount", amount)
+                .withValue("price", price)
+                .withValue("active", active)
+                .withValue("name", name)
+                .select();
+    }
+
+    private Path write(String content) throws IOException {
+        Path path = Files.createTempFile(dir, "relation", ".csv");
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+}
@@ -0,0 +1,74 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.algebra.*;
+import ahodanenok.relational.execution.DagExecutor;
+import ahodanenok.relational.expression.IdentityExpression;
+import ahodanenok.relational.expression.RelationalExpression;
+import org.junit.jupiter.api.Test;
+
+import static ahodanenok.relational.predicate.Predicates.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DagExecutorTest {
+
+    private final Relation a = new RelationSelector()
+            .addTuple(new TupleSelector().withValue("a", 1).withValue("b", "b1").select())
+            .addTuple(new TupleSelector().withValue("a", 2).withValue("b", "b1").select())
+            .addTuple(new TupleSelector().withValue("a", 3).withValue("b", "b2").select())
+            .select();
+
+    private final Relation b = new RelationSelector()
+            .addTuple(new TupleSelector().withValue("b", "b1").withValue("c", 10L).select())
+            .addTuple(new TupleSelector().withValue("b", "b2").withValue("c", 20L).select())
+            .select();
+
+    @Test
+    public void shouldEvaluateCommonSubexpressionsOnce() {
+        CountingExpression source = new CountingExpression(a);
+        RelationalExpression expr = new DifferenceOperator(
+                new JoinOperator(source, new IdentityExpression(b)),
+                new RestrictOperator(new JoinOperator(new IdentityExpression(b), source), eq("a", 1)));
+
+        Relation expected = expr.execute();
+        assertEquals(2, source.count);
+
+        source.count = 0;
+        DagExecutor executor = new DagExecutor();
+        assertEquals(expected, executor.execute(expr));
+        assertEquals(1, source.count);
+
+        // source, b, join, restrict and difference
+        assertEquals(5, executor.countDistinct(expr));
+    }
+
+    @Test
+    public void shouldExecuteTreeWithoutCommonSubexpressions() {
+        RelationalExpression expr = new ProjectOperator(
+                new RenameOperator(new JoinOperator(new IdentityExpression(a), new IdentityExpression(b))).addMapping("c", "x"),
+                "a", "x");
+
+        DagExecutor executor = new DagExecutor();
+        assertEquals(expr.execute(), executor.execute(expr));
+        assertEquals(5, executor.countDistinct(expr));
+        assertEquals(a, executor.execute(new IdentityExpression(a)));
+    }
+
+    /**
+     * Counts how many times it was executed, equal only to itself.
+     */
+    private static final class CountingExpression implements RelationalExpression {
+
+        private final Relation relation;
+        private int count;
+
+        CountingExpression(Relation relation) {
+            this.relation = relation;
+        }
+
+        @Override
+        public Relation execute() {
+            count++;
+            return relation;
+        }
+    }
+}
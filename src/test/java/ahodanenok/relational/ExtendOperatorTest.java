@@ -0,0 +1,113 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.algebra.ExtendOperator;
+import ahodanenok.relational.algebra.JoinOperator;
+import ahodanenok.relational.algebra.RestrictOperator;
+import ahodanenok.relational.exception.AttributeAlreadyExistsException;
+import ahodanenok.relational.exception.RelationalException;
+import ahodanenok.relational.execution.PipelinedExecutor;
+import ahodanenok.relational.expression.IdentityExpression;
+import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.optimizer.QueryOptimizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Function;
+
+import static ahodanenok.relational.predicate.Predicates.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExtendOperatorTest {
+
+    private final Relation items = new RelationSelector()
+            .addTuple(new TupleSelector().withValue("id", 1).withValue("qty", 3).withValue("price", 1.5).select())
+            .addTuple(new TupleSelector().withValue("id", 2).withValue("qty", 2).withValue("price", 1.5).select())
+            .select();
+
+    @Test
+    public void shouldAddComputedAttributes() {
+        ExtendOperator operator = new ExtendOperator(new IdentityExpression(items))
+                .addAttribute("total", Double.class, t -> (int) t.getValue("qty") * (double) t.getValue("price"))
+                .addAttribute("label", String.class, t -> "item-" + t.getValue("id"));
+
+        Relation expected = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("id", 1).withValue("qty", 3).withValue("price", 1.5)
+                        .withValue("total", 4.5).withValue("label", "item-1").select())
+                .addTuple(new TupleSelector().withValue("id", 2).withValue("qty", 2).withValue("price", 1.5)
+                        .withValue("total", 3.0).withValue("label", "item-2").select())
+                .select();
+
+        assertEquals(expected.schema(), operator.schema());
+        assertEquals(expected, operator.execute());
+        assertEquals(expected, new PipelinedExecutor().execute(operator));
+        assertSame(items, new ExtendOperator(new IdentityExpression(items)).execute());
+    }
+
+    @Test
+    public void shouldPipelineIntoJoinAndRestriction() {
+        Relation labels = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("label", "item-1").withValue("color", "red").select())
+                .addTuple(new TupleSelector().withValue("label", "item-3").withValue("color", "blue").select())
+                .select();
+
+        RelationalExpression expr = new RestrictOperator(
+                new JoinOperator(
+                        new ExtendOperator(new IdentityExpression(items))
+                                .addAttribute("label", String.class, t -> "item-" + t.getValue("id")),
+                        new IdentityExpression(labels)),
+                eq("color", "red"));
+
+        Relation expected = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("id", 1).withValue("qty", 3).withValue("price", 1.5)
+                        .withValue("label", "item-1").withValue("color", "red").select())
+                .select();
+
+        assertEquals(expected, expr.execute());
+        assertEquals(expected, new PipelinedExecutor().execute(expr));
+    }
+
+    @Test
+    public void shouldPushRestrictionBelowExtension() {
+        RelationalExpression expr = new RestrictOperator(
+                new ExtendOperator(new IdentityExpression(items))
+                        .addAttribute("double", Integer.class, t -> (int) t.getValue("qty") * 2),
+                and(gt("qty", 2), gt("double", 1)));
+
+        RelationalExpression optimized = new QueryOptimizer().optimize(expr);
+        assertTrue(optimized instanceof RestrictOperator);
+        assertEquals("double > 1", ((RestrictOperator) optimized).getTuplePredicate().toString());
+
+        ExtendOperator extend = (ExtendOperator) ((RestrictOperator) optimized).operands().get(0);
+        RestrictOperator restrict = (RestrictOperator) extend.operands().get(0);
+        assertEquals("qty > 2", restrict.getTuplePredicate().toString());
+        assertEquals(expr.execute(), optimized.execute());
+    }
+
+    @Test
+    public void shouldFailOnInvalidAttributes() {
+        IdentityExpression expr = new IdentityExpression(items);
+
+        assertThrows(AttributeAlreadyExistsException.class,
+                () -> new ExtendOperator(expr).addAttribute("qty", Integer.class, t -> 1).schema());
+        assertThrows(RelationalException.class,
+                () -> new ExtendOperator(expr).addAttribute("x", Integer.class, t -> "1").execute());
+        assertThrows(RelationalException.class,
+                () -> new ExtendOperator(expr).addAttribute("x", Integer.class, t -> null).execute());
+        // values must have exactly the type of the attribute
+        assertThrows(RelationalException.class,
+                () -> new ExtendOperator(expr).addAttribute("x", Number.class, t -> 1).execute());
+        assertThrows(NullPointerException.class, () -> new ExtendOperator(expr).addAttribute("x", Integer.class, null));
+    }
+
+    @Test
+    public void shouldCompareFunctionsByIdentity() {
+        IdentityExpression expr = new IdentityExpression(items);
+        Function<Tuple, ?> function = t -> 1;
+
+        assertEquals(
+                new ExtendOperator(expr).addAttribute("x", Integer.class, function),
+                new ExtendOperator(expr).addAttribute("x", Integer.class, function));
+        assertNotEquals(
+                new ExtendOperator(expr).addAttribute("x", Integer.class, function),
+                new ExtendOperator(expr).addAttribute("x", Integer.class, t -> 1));
+    }
+}
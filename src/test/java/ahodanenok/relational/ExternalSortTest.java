@@ -0,0 +1,145 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.algebra.DifferenceOperator;
+import ahodanenok.relational.algebra.JoinOperator;
+import ahodanenok.relational.exception.RelationalException;
+import ahodanenok.relational.expression.IdentityExpression;
+import ahodanenok.relational.io.ExternalSort;
+import ahodanenok.relational.io.SortedFileStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExternalSortTest {
+
+    @TempDir
+    Path dir;
+
+    private final Relation relation;
+
+    {
+        RelationSelector selector = new RelationSelector();
+        for (int i = 0; i < 5000; i++) {
+            selector.addTuple(new TupleSelector()
+                    .withValue("a", (i * 7919) % 1000).withValue("b", "b" + i).withValue("c", (double) i).select());
+        }
+
+        relation = selector.select();
+    }
+
+    @Test
+    public void shouldSortInMemoryWithinBudget() {
+        Relation sorted = new ExternalSort(1 << 20, dir).sort(relation, "a");
+        assertTrue(sorted.storage() instanceof SortedRelationStorage);
+        assertEquals(relation, sorted);
+    }
+
+    @Test
+    public void shouldSortRunsOnDisk() throws IOException {
+        // a single tuple per run needs several merge passes
+        for (long budget : new long[] { 0, 20_000 }) {
+            Relation sorted = new ExternalSort(budget, dir).sort(relation, "a", "c");
+            assertTrue(sorted.storage() instanceof SortedFileStorage);
+            assertEquals(Arrays.asList("a", "c"), ((OrderedRelationStorage) sorted.storage()).ordering());
+            assertEquals(relation.cardinality(), sorted.cardinality());
+
+            List<Tuple> tuples = sorted.tuples().collect(Collectors.toList());
+            assertEquals(relation.cardinality(), tuples.size());
+            for (int i = 1; i < tuples.size(); i++) {
+                Tuple prev = tuples.get(i - 1);
+                Tuple next = tuples.get(i);
+                int cmp = Integer.compare((Integer) prev.getValue("a"), (Integer) next.getValue("a"));
+                assertTrue(cmp < 0 || cmp == 0 && (Double) prev.getValue("c") < (Double) next.getValue("c"));
+            }
+
+            assertEquals(relation, sorted);
+            relation.tuples().forEach(t -> assertTrue(sorted.contains(t)));
+            assertFalse(sorted.contains(new TupleSelector().withValue("a", 1).withValue("b", "b1").withValue("c", 1.5).select()));
+            assertFalse(sorted.contains(new TupleSelector().withValue("a", 1).select()));
+        }
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    public void shouldDeleteFiles() throws IOException {
+        Relation sorted = new ExternalSort(0, dir).sort(relation, "a");
+        ((SortedFileStorage) sorted.storage()).close();
+        assertThrows(IllegalStateException.class, sorted::tuples);
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+
+        RelationStorage failing = new RelationStorage() {
+            @Override
+            public RelationSchema schema() {
+                return relation.schema();
+            }
+
+            @Override
+            public int size() {
+                return relation.cardinality();
+            }
+
+            @Override
+            public boolean contains(Tuple tuple) {
+                return relation.contains(tuple);
+            }
+
+            @Override
+            public Stream<Tuple> tuples() {
+                return relation.tuples().peek(t -> {
+                    if ((Integer) t.getValue("a") == 500) {
+                        throw new IllegalStateException("Failed to read");
+                    }
+                });
+            }
+        };
+        assertThrows(IllegalStateException.class,
+                () -> new ExternalSort(10_000, dir).sort(new Relation(relation.schema(), failing), "a"));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void shouldMergeSortedFiles() {
+        Relation other = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("a", 5).withValue("d", "x").select())
+                .addTuple(new TupleSelector().withValue("a", 500).withValue("d", "y").select())
+                .addTuple(new TupleSelector().withValue("a", 5000).withValue("d", "z").select())
+                .select();
+
+        ExternalSort sort = new ExternalSort(10_000, dir);
+        Relation left = sort.sort(relation, "a");
+        Relation joined = new JoinOperator(new IdentityExpression(left), new IdentityExpression(sort.sort(other, "a"))).execute();
+        assertTrue(joined.storage() instanceof OrderedRelationStorage);
+        assertEquals(new JoinOperator(new IdentityExpression(relation), new IdentityExpression(other)).execute(), joined);
+
+        Relation half = sort.sort(new RelationBuilder(relation.schema())
+                .addAll(relation.tuples().filter(t -> (Integer) t.getValue("a") % 2 == 0).collect(Collectors.toList()))
+                .build(), "a");
+        Relation difference = new DifferenceOperator(new IdentityExpression(left), new IdentityExpression(half)).execute();
+        assertEquals(relation.cardinality() - half.cardinality(), difference.cardinality());
+        assertTrue(difference.tuples().allMatch(t -> (Integer) t.getValue("a") % 2 == 1));
+    }
+
+    @Test
+    public void shouldRejectInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ExternalSort(-1, dir));
+        assertThrows(RelationalException.class, () -> new ExternalSort(0, dir).sort(new RelationSelector()
+                .addTuple(new TupleSelector().withValue("a", 1).withValue("x", new Object()).select())
+                .select(), "a"));
+    }
+}
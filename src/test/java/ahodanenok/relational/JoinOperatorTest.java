@@ -135,6 +135,32 @@ public class JoinOperatorTest {
         assertEquals(expected, result);
     }
 
+    @Test
+    public void shouldJoinRelationsWithRepeatingCommonValues() {
+        Relation a = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("a", "a1").withValue("b", "b1").select())
+                .addTuple(new TupleSelector().withValue("a", "a2").withValue("b", "b1").select())
+                .addTuple(new TupleSelector().withValue("a", "a3").withValue("b", "b2").select())
+                .addTuple(new TupleSelector().withValue("a", "a4").withValue("b", "b3").select())
+                .select();
+        Relation b = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("b", "b1").withValue("c", "c1").select())
+                .addTuple(new TupleSelector().withValue("b", "b1").withValue("c", "c2").select())
+                .addTuple(new TupleSelector().withValue("b", "b3").withValue("c", "c3").select())
+                .select();
+
+        Relation expected = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("a", "a1").withValue("b", "b1").withValue("c", "c1").select())
+                .addTuple(new TupleSelector().withValue("a", "a1").withValue("b", "b1").withValue("c", "c2").select())
+                .addTuple(new TupleSelector().withValue("a", "a2").withValue("b", "b1").withValue("c", "c1").select())
+                .addTuple(new TupleSelector().withValue("a", "a2").withValue("b", "b1").withValue("c", "c2").select())
+                .addTuple(new TupleSelector().withValue("a", "a4").withValue("b", "b3").withValue("c", "c3").select())
+                .select();
+
+        assertEquals(expected, new JoinOperator(new IdentityExpression(a), new IdentityExpression(b)).execute());
+        assertEquals(expected, new JoinOperator(new IdentityExpression(b), new IdentityExpression(a)).execute());
+    }
+
     @Test
     public void shouldThrowErrorIfRelationIsNull() {
         NullPointerException e1 = assertThrows(NullPointerException.class, () -> new JoinOperator(null, new IdentityExpression(Relation.NULLARY_TUPLE)));
@@ -0,0 +1,112 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.algebra.*;
+import ahodanenok.relational.exception.RelationSchemaMismatchException;
+import ahodanenok.relational.execution.ParallelExecutor;
+import ahodanenok.relational.expression.IdentityExpression;
+import ahodanenok.relational.expression.RelationalExpression;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+
+import static ahodanenok.relational.predicate.Predicates.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelExecutorTest {
+
+    private final Relation a = new RelationSelector()
+            .addTuple(new TupleSelector().withValue("a", 1).withValue("b", "b1").select())
+            .addTuple(new TupleSelector().withValue("a", 2).withValue("b", "b1").select())
+            .addTuple(new TupleSelector().withValue("a", 3).withValue("b", "b2").select())
+            .select();
+
+    private final Relation b = new RelationSelector()
+            .addTuple(new TupleSelector().withValue("b", "b1").withValue("c", 10L).select())
+            .addTuple(new TupleSelector().withValue("b", "b2").withValue("c", 20L).select())
+            .select();
+
+    private final Relation c = new RelationSelector()
+            .addTuple(new TupleSelector().withValue("d", true).select())
+            .addTuple(new TupleSelector().withValue("d", false).select())
+            .select();
+
+    @Test
+    public void shouldExecuteOperatorTree() {
+        RelationalExpression expr = new ProjectOperator(
+                new RestrictOperator(
+                        new ProductOperator(
+                                new UnionOperator(
+                                        new JoinOperator(new IdentityExpression(a), new IdentityExpression(b)),
+                                        new DifferenceOperator(
+                                                new JoinOperator(new IdentityExpression(a), new IdentityExpression(b)),
+                                                new RestrictOperator(
+                                                        new JoinOperator(new IdentityExpression(a), new IdentityExpression(b)),
+                                                        eq("a", 1)))),
+                                new IntersectOperator(new IdentityExpression(c), new IdentityExpression(c))),
+                        (r, t) -> (boolean) t.getValue("d")),
+                "a", "c");
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(expr.execute(), new ParallelExecutor(pool, 0).execute(expr));
+            assertEquals(expr.execute(), new ParallelExecutor(pool, Long.MAX_VALUE).execute(expr));
+            assertEquals(expr.execute(), new ParallelExecutor().execute(expr));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldEvaluateOperandsConcurrently() {
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        RelationalExpression expr = new UnionOperator(new AwaitingExpression(a, barrier), new AwaitingExpression(a, barrier));
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertEquals(a, new ParallelExecutor(pool, 0).execute(expr));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldThrowErrorsOfOperators() {
+        RelationalExpression expr = new JoinOperator(
+                new IdentityExpression(c),
+                new UnionOperator(new IdentityExpression(a), new IdentityExpression(b)));
+
+        assertThrows(RelationSchemaMismatchException.class, () -> new ParallelExecutor(ForkJoinPool.commonPool(), 0).execute(expr));
+    }
+
+    @Test
+    public void shouldFailOnInvalidConfiguration() {
+        NullPointerException e = assertThrows(NullPointerException.class, () -> new ParallelExecutor(null, 0));
+        assertEquals("Pool can't be null", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> new ParallelExecutor(ForkJoinPool.commonPool(), -1));
+    }
+
+    /**
+     * Waits for the other operand to be evaluated at the same time, fails if it doesn't happen.
+     */
+    private static final class AwaitingExpression implements RelationalExpression {
+
+        private final Relation relation;
+        private final CyclicBarrier barrier;
+
+        AwaitingExpression(Relation relation, CyclicBarrier barrier) {
+            this.relation = relation;
+            this.barrier = barrier;
+        }
+
+        @Override
+        public Relation execute() {
+            try {
+                barrier.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+                throw new IllegalStateException("Operands were not evaluated concurrently", e);
+            }
+
+            return relation;
+        }
+    }
+}
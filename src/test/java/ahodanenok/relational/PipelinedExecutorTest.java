@@ -0,0 +1,94 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.algebra.*;
+import ahodanenok.relational.exception.AttributeAlreadyExistsException;
+import ahodanenok.relational.exception.RelationSchemaMismatchException;
+import ahodanenok.relational.execution.PipelinedExecutor;
+import ahodanenok.relational.expression.IdentityExpression;
+import ahodanenok.relational.expression.RelationalExpression;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PipelinedExecutorTest {
+
+    private final Relation a = new RelationSelector()
+            .addTuple(new TupleSelector().withValue("a", 1).withValue("b", "b1").select())
+            .addTuple(new TupleSelector().withValue("a", 2).withValue("b", "b1").select())
+            .addTuple(new TupleSelector().withValue("a", 3).withValue("b", "b2").select())
+            .addTuple(new TupleSelector().withValue("a", 4).withValue("b", "b3").select())
+            .select();
+
+    private final Relation b = new RelationSelector()
+            .addTuple(new TupleSelector().withValue("b", "b1").withValue("c", 10L).select())
+            .addTuple(new TupleSelector().withValue("b", "b2").withValue("c", 20L).select())
+            .addTuple(new TupleSelector().withValue("b", "b2").withValue("c", 30L).select())
+            .select();
+
+    private final Relation c = new RelationSelector()
+            .addTuple(new TupleSelector().withValue("d", true).select())
+            .addTuple(new TupleSelector().withValue("d", false).select())
+            .select();
+
+    @Test
+    public void shouldExecuteSingleOperators() {
+        IdentityExpression exprA = new IdentityExpression(a);
+        IdentityExpression exprB = new IdentityExpression(b);
+        IdentityExpression exprC = new IdentityExpression(c);
+
+        assertSameResult(exprA);
+        assertSameResult(new RestrictOperator(exprA, (r, t) -> (int) t.getValue("a") % 2 == 0));
+        assertSameResult(new ProjectOperator(exprA, "b"));
+        assertSameResult(new ProjectOperator(exprA, "b").withoutAttributes());
+        assertSameResult(new ProjectOperator(exprA));
+        assertSameResult(new RenameOperator(exprA).addMapping("a", "x").addMapping("b", "a"));
+        assertSameResult(new JoinOperator(exprA, exprB));
+        assertSameResult(new JoinOperator(exprB, exprA));
+        assertSameResult(new JoinOperator(exprA, exprC));
+        assertSameResult(new ProductOperator(exprA, exprC));
+        assertSameResult(new UnionOperator(exprA, new RestrictOperator(exprA, (r, t) -> (int) t.getValue("a") > 2)));
+        assertSameResult(new IntersectOperator(exprA, new RestrictOperator(exprA, (r, t) -> (int) t.getValue("a") > 2)));
+        assertSameResult(new DifferenceOperator(exprA, new RestrictOperator(exprA, (r, t) -> (int) t.getValue("a") > 2)));
+    }
+
+    @Test
+    public void shouldExecuteOperatorTree() {
+        RelationalExpression expr = new ProjectOperator(
+                new RestrictOperator(
+                        new ProductOperator(
+                                new UnionOperator(
+                                        new JoinOperator(new IdentityExpression(a), new IdentityExpression(b)),
+                                        new JoinOperator(new IdentityExpression(a), new IdentityExpression(b))),
+                                new IdentityExpression(c)),
+                        (r, t) -> (boolean) t.getValue("d")),
+                "b", "c");
+
+        assertSameResult(expr);
+    }
+
+    @Test
+    public void shouldExecuteOperatorsWithNullaryRelations() {
+        assertSameResult(new JoinOperator(new IdentityExpression(Relation.NULLARY_TUPLE), new IdentityExpression(a)));
+        assertSameResult(new JoinOperator(new IdentityExpression(a), new IdentityExpression(Relation.NULLARY_EMPTY)));
+        assertSameResult(new ProductOperator(new IdentityExpression(Relation.NULLARY_TUPLE), new IdentityExpression(Relation.NULLARY_TUPLE)));
+        assertSameResult(new UnionOperator(new IdentityExpression(Relation.NULLARY_TUPLE), new IdentityExpression(Relation.NULLARY_EMPTY)));
+    }
+
+    @Test
+    public void shouldThrowErrorsOfOperators() {
+        PipelinedExecutor executor = new PipelinedExecutor();
+
+        RelationSchemaMismatchException e = assertThrows(RelationSchemaMismatchException.class,
+                () -> executor.execute(new UnionOperator(new IdentityExpression(a), new IdentityExpression(b))));
+        assertNull(e.getMismatchedRelation());
+        assertEquals(b.schema(), e.getMismatchedSchema());
+        assertEquals(a.schema(), e.getTargetSchema());
+
+        assertThrows(AttributeAlreadyExistsException.class,
+                () -> executor.execute(new ProductOperator(new IdentityExpression(a), new IdentityExpression(b))));
+    }
+
+    private void assertSameResult(RelationalExpression expr) {
+        assertEquals(expr.execute(), new PipelinedExecutor().execute(expr));
+    }
+}
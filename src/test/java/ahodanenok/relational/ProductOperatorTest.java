@@ -5,8 +5,7 @@ import ahodanenok.relational.exception.AttributeAlreadyExistsException;
 import ahodanenok.relational.expression.IdentityExpression;
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class ProductOperatorTest {
 
@@ -68,6 +67,39 @@ public class ProductOperatorTest {
         assertEquals(expected, result);
     }
 
+    @Test
+    public void shouldNotMaterializeProduct() {
+        RelationSelector leftSelector = new RelationSelector();
+        RelationSelector rightSelector = new RelationSelector();
+        for (int i = 0; i < 10_000; i++) {
+            leftSelector.addTuple(new TupleSelector().withValue("a", i).select());
+            rightSelector.addTuple(new TupleSelector().withValue("b", (long) i).select());
+        }
+
+        Relation result = new ProductOperator(
+                new IdentityExpression(leftSelector.select()),
+                new IdentityExpression(rightSelector.select())).execute();
+        assertTrue(result.storage() instanceof ProductRelationStorage);
+        assertEquals(100_000_000, result.cardinality());
+        assertFalse(result.isEmpty());
+        assertTrue(result.contains(new TupleSelector().withValue("a", 9_999).withValue("b", 0L).select()));
+        assertFalse(result.contains(new TupleSelector().withValue("a", 10_000).withValue("b", 0L).select()));
+        assertFalse(result.contains(new TupleSelector().withValue("a", 1).withValue("b", 1).select()));
+        assertFalse(result.contains(new TupleSelector().withValue("a", 1).select()));
+        assertEquals(5, result.tuples().filter(t -> (Integer) t.getValue("a") == 7).limit(5).count());
+
+        RelationSelector thirdSelector = new RelationSelector();
+        for (int i = 0; i < 100; i++) {
+            thirdSelector.addTuple(new TupleSelector().withValue("c", "c" + i).select());
+        }
+
+        Relation larger = new ProductOperator(new IdentityExpression(result), new IdentityExpression(thirdSelector.select())).execute();
+        assertEquals(Integer.MAX_VALUE, larger.cardinality());
+        assertEquals(10_000_000_000L, ((ProductRelationStorage) larger.storage()).longSize());
+        assertTrue(larger.contains(new TupleSelector().withValue("a", 1).withValue("b", 2L).withValue("c", "c3").select()));
+        assertEquals(3, larger.tuples().limit(3).count());
+    }
+
     @Test
     public void shouldThrowErrorIfCommonAttributes() {
         Relation a = new RelationSelector()
@@ -133,4 +133,24 @@ public class ProjectOperatorTest {
         NullPointerException e2 = assertThrows(NullPointerException.class, () -> new ProjectOperator(new IdentityExpression(Relation.NULLARY_TUPLE), (List<String>) null));
         assertEquals("Attribute names can't be null", e2.getMessage());
     }
+
+    @Test
+    public void shouldProjectInParallel() {
+        RelationSelector relationSelector = new RelationSelector();
+        RelationSelector expectedSelector = new RelationSelector();
+        for (int i = 0; i < 10000; i++) {
+            relationSelector.addTuple(new TupleSelector().withValue("a", i).withValue("b", i % 7).withValue("c", "c" + i % 3).select());
+            expectedSelector.addTuple(new TupleSelector().withValue("b", i % 7).withValue("c", "c" + i % 3).select());
+        }
+        Relation relation = relationSelector.select();
+        Relation expected = expectedSelector.select();
+
+        ProjectOperator project = new ProjectOperator(new IdentityExpression(relation), "b", "c").parallel();
+        assertTrue(project.isParallel());
+        assertEquals(21, project.execute().cardinality());
+        assertEquals(expected, project.execute());
+        assertEquals(expected, new ProjectOperator(new IdentityExpression(relation), "a").withoutAttributes().parallel().execute());
+        assertFalse(project.sequential().isParallel());
+        assertTrue(project.isParallel());
+    }
 }
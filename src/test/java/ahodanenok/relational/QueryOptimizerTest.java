@@ -0,0 +1,229 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.algebra.*;
+import ahodanenok.relational.exception.AttributeNotFoundException;
+import ahodanenok.relational.execution.OptimizingExecutor;
+import ahodanenok.relational.expression.IdentityExpression;
+import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.optimizer.QueryOptimizer;
+import ahodanenok.relational.predicate.And;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static ahodanenok.relational.predicate.Predicates.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryOptimizerTest {
+
+    private final Relation a = new RelationSelector()
+            .addTuple(new TupleSelector().withValue("a", 1).withValue("b", "b1").select())
+            .addTuple(new TupleSelector().withValue("a", 2).withValue("b", "b1").select())
+            .addTuple(new TupleSelector().withValue("a", 3).withValue("b", "b2").select())
+            .select();
+
+    private final Relation b = new RelationSelector()
+            .addTuple(new TupleSelector().withValue("b", "b1").withValue("c", 10L).select())
+            .addTuple(new TupleSelector().withValue("b", "b2").withValue("c", 20L).select())
+            .select();
+
+    private final Relation c = new RelationSelector()
+            .addTuple(new TupleSelector().withValue("d", true).select())
+            .addTuple(new TupleSelector().withValue("d", false).select())
+            .select();
+
+    private final QueryOptimizer optimizer = new QueryOptimizer();
+
+    @Test
+    public void shouldFoldJoinWithNullaryRelations() {
+        IdentityExpression exprA = new IdentityExpression(a);
+
+        assertSame(exprA, optimizer.optimize(new JoinOperator(exprA, new IdentityExpression(Relation.NULLARY_TUPLE))));
+        assertSame(exprA, optimizer.optimize(new ProductOperator(new IdentityExpression(Relation.NULLARY_TUPLE), exprA)));
+
+        RelationalExpression empty = optimizer.optimize(new JoinOperator(exprA, new IdentityExpression(Relation.NULLARY_EMPTY)));
+        assertTrue(empty instanceof IdentityExpression);
+        assertEquals(new RelationSelector().withSchema(a.schema()).select(), empty.execute());
+    }
+
+    @Test
+    public void shouldFoldOperationsOnEmptyRelations() {
+        Relation emptyA = new RelationSelector().withSchema(a.schema()).select();
+        RelationalExpression expr = new ProjectOperator(
+                new RestrictOperator(
+                        new JoinOperator(new IdentityExpression(emptyA), new IdentityExpression(b)),
+                        (r, t) -> true),
+                "c");
+
+        RelationalExpression optimized = optimizer.optimize(expr);
+        assertTrue(optimized instanceof IdentityExpression);
+        assertEquals(expr.execute(), optimized.execute());
+
+        IdentityExpression exprA = new IdentityExpression(a);
+        assertSame(exprA, optimizer.optimize(new UnionOperator(new IdentityExpression(emptyA), exprA)));
+        assertSame(exprA, optimizer.optimize(new DifferenceOperator(exprA, new IdentityExpression(emptyA))));
+    }
+
+    @Test
+    public void shouldMergeRenames() {
+        RelationalExpression expr = new RenameOperator(
+                new RenameOperator(new IdentityExpression(a)).addMapping("a", "x").addMapping("b", "y"))
+                .addMapping("x", "b")
+                .addMapping("y", "z");
+
+        RelationalExpression optimized = optimizer.optimize(expr);
+        assertTrue(optimized instanceof RenameOperator);
+        assertTrue(((RenameOperator) optimized).operands().get(0) instanceof IdentityExpression);
+
+        Map<String, String> expectedMappings = new HashMap<>();
+        expectedMappings.put("a", "b");
+        expectedMappings.put("b", "z");
+        assertEquals(expectedMappings, ((RenameOperator) optimized).getMappings());
+        assertEquals(expr.execute(), optimized.execute());
+
+        IdentityExpression exprA = new IdentityExpression(a);
+        assertSame(exprA, optimizer.optimize(new RenameOperator(
+                new RenameOperator(exprA).addMapping("a", "x")).addMapping("x", "a")));
+    }
+
+    @Test
+    public void shouldMergeProjections() {
+        IdentityExpression exprA = new IdentityExpression(a);
+        RelationalExpression expr = new ProjectOperator(new ProjectOperator(exprA, "a", "b"), "b");
+
+        RelationalExpression optimized = optimizer.optimize(expr);
+        assertTrue(optimized instanceof ProjectOperator);
+        assertSame(exprA, ((ProjectOperator) optimized).operands().get(0));
+        assertEquals(expr.execute(), optimized.execute());
+    }
+
+    @Test
+    public void shouldPushProjectionBelowJoin() {
+        RelationalExpression expr = new ProjectOperator(
+                new JoinOperator(new IdentityExpression(a), new RenameOperator(new IdentityExpression(b)).addMapping("c", "x")),
+                "a");
+
+        RelationalExpression optimized = optimizer.optimize(expr);
+        assertTrue(optimized instanceof ProjectOperator);
+
+        RelationalExpression join = ((ProjectOperator) optimized).operands().get(0);
+        assertTrue(join instanceof JoinOperator);
+        assertTrue(((JoinOperator) join).operands().get(1) instanceof ProjectOperator);
+        assertEquals(expr.execute(), optimized.execute());
+    }
+
+    @Test
+    public void shouldPushProjectionBelowProductAndUnion() {
+        RelationalExpression expr = new ProjectOperator(
+                new ProductOperator(
+                        new UnionOperator(new IdentityExpression(b), new IdentityExpression(b)),
+                        new IdentityExpression(c)),
+                "c", "d");
+
+        RelationalExpression optimized = optimizer.optimize(expr);
+        assertTrue(optimized instanceof ProductOperator);
+
+        RelationalExpression union = ((ProductOperator) optimized).operands().get(0);
+        assertTrue(union instanceof UnionOperator);
+        assertTrue(((UnionOperator) union).operands().get(0) instanceof ProjectOperator);
+        assertEquals(expr.execute(), optimized.execute());
+    }
+
+    @Test
+    public void shouldPushRestrictionConjunctsBelowJoin() {
+        RelationalExpression expr = new RestrictOperator(
+                new JoinOperator(new IdentityExpression(a), new IdentityExpression(b)),
+                and(gt("a", 1), eq("b", "b1"), or(eq("a", 3), eq("c", 10L))));
+
+        RelationalExpression optimized = optimizer.optimize(expr);
+        assertTrue(optimized instanceof RestrictOperator);
+        assertEquals(2, ((RestrictOperator) optimized).getTuplePredicate().attributeNames().size());
+
+        JoinOperator join = (JoinOperator) ((RestrictOperator) optimized).operands().get(0);
+        RestrictOperator left = (RestrictOperator) join.operands().get(0);
+        RestrictOperator right = (RestrictOperator) join.operands().get(1);
+        assertEquals(2, ((And) left.getTuplePredicate()).getOperands().size());
+        assertEquals("b = 'b1'", right.getTuplePredicate().toString());
+        assertEquals(expr.execute(), optimized.execute());
+    }
+
+    @Test
+    public void shouldPushRestrictionBelowProjectRenameAndUnion() {
+        RelationalExpression expr = new RestrictOperator(
+                new RestrictOperator(
+                        new ProjectOperator(
+                                new RenameOperator(
+                                        new UnionOperator(new IdentityExpression(a), new IdentityExpression(a)))
+                                        .addMapping("a", "x"),
+                                "x"),
+                        gt("x", 1)),
+                lt("x", 3));
+
+        RelationalExpression optimized = optimizer.optimize(expr);
+        assertTrue(optimized instanceof RenameOperator);
+
+        RelationalExpression union = ((RenameOperator) optimized).operands().get(0);
+        assertTrue(union instanceof UnionOperator);
+
+        RelationalExpression project = ((UnionOperator) union).operands().get(0);
+        assertTrue(project instanceof ProjectOperator);
+
+        RestrictOperator restrict = (RestrictOperator) ((ProjectOperator) project).operands().get(0);
+        assertEquals("(a > 1) AND (a < 3)", restrict.getTuplePredicate().toString());
+        assertTrue(restrict.operands().get(0) instanceof IdentityExpression);
+        assertEquals(expr.execute(), optimized.execute());
+    }
+
+    @Test
+    public void shouldKeepParallelModeOfRewrittenOperators() {
+        RelationalExpression expr = new RestrictOperator(
+                new RestrictOperator(
+                        new JoinOperator(new IdentityExpression(a), new IdentityExpression(b)),
+                        gt("a", 1)),
+                and(eq("b", "b1"), eq("c", 10L)))
+                .parallel();
+
+        RelationalExpression optimized = optimizer.optimize(expr);
+        JoinOperator join = (JoinOperator) optimized;
+        assertTrue(((RestrictOperator) join.operands().get(0)).isParallel());
+        assertTrue(((RestrictOperator) join.operands().get(1)).isParallel());
+        assertEquals(expr.execute(), optimized.execute());
+
+        RelationalExpression projection = new ProjectOperator(
+                new JoinOperator(new IdentityExpression(a), new IdentityExpression(b)), "a").parallel();
+        ProjectOperator optimizedProjection = (ProjectOperator) optimizer.optimize(projection);
+        assertTrue(optimizedProjection.isParallel());
+        JoinOperator projectedJoin = (JoinOperator) optimizedProjection.operands().get(0);
+        assertTrue(((ProjectOperator) projectedJoin.operands().get(1)).isParallel());
+        assertEquals(projection.execute(), optimizedProjection.execute());
+    }
+
+    @Test
+    public void shouldNotRewriteRestrictionWithFunction() {
+        RelationalExpression expr = new RestrictOperator(
+                new ProductOperator(new IdentityExpression(a), new IdentityExpression(c)),
+                (r, t) -> (boolean) t.getValue("d"));
+
+        assertSame(expr, optimizer.optimize(expr));
+    }
+
+    @Test
+    public void shouldExecuteOptimizedExpression() {
+        RelationalExpression expr = new ProjectOperator(
+                new RenameOperator(
+                        new JoinOperator(
+                                new ProjectOperator(new IdentityExpression(a), "a", "b"),
+                                new ProductOperator(new IdentityExpression(b), new IdentityExpression(Relation.NULLARY_TUPLE))))
+                        .addMapping("c", "x"),
+                "x", "a");
+
+        assertEquals(expr.execute(), new OptimizingExecutor().execute(expr));
+    }
+
+    @Test
+    public void shouldFailOnInvalidExpression() {
+        RelationalExpression expr = new ProjectOperator(new IdentityExpression(a), "x");
+        assertThrows(AttributeNotFoundException.class, () -> optimizer.optimize(expr));
+    }
+}
@@ -0,0 +1,71 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.exception.TupleSchemaMismatchException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RelationBuilderTest {
+
+    private final Tuple t1 = new TupleSelector().withValue("a", 1).withValue("b", "x").select();
+    private final Tuple t2 = new TupleSelector().withValue("a", 2).withValue("b", "y").select();
+
+    @Test
+    public void shouldBuildRelation() {
+        Relation relation = new RelationBuilder(t1.schema().relationSchema(), 2)
+                .add(t1)
+                .add(t2)
+                .add(t1)
+                .build();
+
+        assertEquals(new RelationSelector().addTuple(t1).addTuple(t2).select(), relation);
+        assertEquals(2, relation.cardinality());
+    }
+
+    @Test
+    public void shouldBuildEmptyRelation() {
+        RelationSchema schema = t1.schema().relationSchema();
+        assertEquals(new RelationSelector().withSchema(schema).select(), new RelationBuilder(schema).build());
+        assertEquals(Relation.NULLARY_TUPLE, new RelationBuilder(RelationSchema.EMPTY).add(Tuple.EMPTY).build());
+    }
+
+    @Test
+    public void shouldTakeOwnershipOfTuples() {
+        Set<Tuple> tuples = new HashSet<>(Arrays.asList(t1, t2));
+        Relation relation = RelationBuilder.of(t1.schema().relationSchema(), tuples);
+
+        assertEquals(new RelationSelector().addTuple(t1).addTuple(t2).select(), relation);
+    }
+
+    @Test
+    public void shouldNotBeUsedAfterBuild() {
+        RelationBuilder builder = new RelationBuilder(t1.schema().relationSchema()).addAll(Arrays.asList(t1, t2));
+        builder.build();
+
+        assertThrows(IllegalStateException.class, () -> builder.add(t1));
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    @Test
+    public void shouldFailOnInvalidArguments() {
+        NullPointerException e = assertThrows(NullPointerException.class, () -> new RelationBuilder(null));
+        assertEquals("Relation schema can't be null", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> new RelationBuilder(RelationSchema.EMPTY, -1));
+        assertThrows(NullPointerException.class, () -> RelationBuilder.of(RelationSchema.EMPTY, null));
+    }
+
+    @Test
+    public void shouldFailOnTupleOfAnotherSchema() {
+        Tuple other = new TupleSelector().withValue("a", 1L).withValue("b", "x").select();
+        RelationSchema schema = t1.schema().relationSchema();
+        assertThrows(TupleSchemaMismatchException.class, () -> new RelationBuilder(schema).add(other));
+        assertThrows(TupleSchemaMismatchException.class, () -> new RelationBuilder(schema).addAll(Arrays.asList(t1, other)));
+        assertThrows(TupleSchemaMismatchException.class,
+                () -> RelationBuilder.of(schema, new HashSet<>(Arrays.asList(t2, other))));
+        assertThrows(NullPointerException.class, () -> new RelationBuilder(schema).add(null));
+    }
+}
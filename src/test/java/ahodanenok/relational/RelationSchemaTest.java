@@ -154,4 +154,25 @@ public class RelationSchemaTest {
         assertEquals("Attribute 'abc' not found", e.getMessage());
         assertEquals("abc", e.getName());
     }
+
+    @Test
+    public void shouldInternEqualSchemas() {
+        RelationSchema schemaA = new RelationSchemaGenerator()
+                .withAttribute("a", Integer.class)
+                .withAttribute("b", String.class)
+                .generate();
+
+        RelationSchema schemaB = new RelationSchemaGenerator()
+                .withAttribute("b", String.class)
+                .withAttribute("a", Integer.class)
+                .generate();
+
+        Relation relation = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("a", 1).withValue("b", "2").select())
+                .select();
+
+        assertSame(schemaA, schemaB);
+        assertSame(schemaA, relation.schema());
+        assertSame(RelationSchema.EMPTY, new RelationSchemaGenerator().generate());
+    }
 }
@@ -468,4 +468,50 @@ public class RelationTest {
         assertFalse(relationA.isSubsetOf(relationB, false));
         assertFalse(relationA.isSubsetOf(relationB, true));
     }
+
+    @Test
+    public void shouldHaveSameFingerprintForEqualRelations() {
+        Relation relationA = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("a", 1).withValue("b", "x").select())
+                .addTuple(new TupleSelector().withValue("a", 2).withValue("b", "y").select())
+                .select();
+        Relation relationB = new RelationSelector()
+                .withColumnarStorage()
+                .addTuple(new TupleSelector().withValue("a", 2).withValue("b", "y").select())
+                .addTuple(new TupleSelector().withValue("a", 1).withValue("b", "x").select())
+                .select();
+        Relation relationC = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("a", 1).withValue("b", "x").select())
+                .addTuple(new TupleSelector().withValue("a", 3).withValue("b", "y").select())
+                .select();
+
+        assertEquals(relationA.fingerprint(), relationB.fingerprint());
+        assertEquals(relationA.fingerprint(), relationA.fingerprint());
+        assertEquals(relationA.hashCode(), relationB.hashCode());
+        assertEquals(relationA, relationB);
+
+        assertNotEquals(relationA.fingerprint(), relationC.fingerprint());
+        assertNotEquals(relationA, relationC);
+        assertFalse(relationA.isSupersetOf(relationC));
+        assertFalse(relationC.isSubsetOf(relationA));
+        assertTrue(relationA.isSupersetOf(relationB));
+        assertFalse(relationA.isSupersetOf(relationB, true));
+    }
+
+    @Test
+    public void shouldCheckTuplesOfStorage() {
+        Relation columnar = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("a", 1).select())
+                .withColumnarStorage()
+                .select();
+        Relation other = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("a", "1").select())
+                .select();
+
+        assertEquals(columnar, new Relation(columnar.schema(), columnar.storage()));
+        assertThrows(RelationalException.class, () -> new Relation(other.schema(), columnar.storage()));
+
+        assertEquals(other, new Relation(other.schema(), other.storage()));
+        assertThrows(TupleSchemaMismatchException.class, () -> new Relation(columnar.schema(), other.storage()));
+    }
 }
@@ -20,6 +20,21 @@ public class RenameOperatorTest {
         assertEquals(relation, resultRelation);
     }
 
+    @Test
+    public void shouldNotChangeMappingsWhenExecuted() {
+        Relation relation = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("a", 1).withValue("b", 11).select())
+                .select();
+        RenameOperator operator = new RenameOperator(new IdentityExpression(relation))
+                .addMapping("a", "a")
+                .addMapping("b", "c");
+
+        operator.schema();
+        operator.execute();
+        assertEquals(2, operator.getMappings().size());
+        assertEquals("a", operator.getMappings().get("a"));
+    }
+
     @Test
     public void shouldRenameSingleAttribute() {
         Relation relation = new RelationSelector()
@@ -1,9 +1,18 @@
 package ahodanenok.relational;
 
 import ahodanenok.relational.algebra.RestrictOperator;
+import ahodanenok.relational.exception.AttributeNotFoundException;
+import ahodanenok.relational.exception.RelationalException;
+import ahodanenok.relational.execution.PipelinedExecutor;
 import ahodanenok.relational.expression.IdentityExpression;
+import ahodanenok.relational.predicate.ComparisonOperator;
+import ahodanenok.relational.predicate.TuplePredicate;
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
+import java.util.function.BiPredicate;
+
+import static ahodanenok.relational.predicate.Predicates.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class RestrictOperatorTest {
@@ -78,7 +87,113 @@ public class RestrictOperatorTest {
         NullPointerException e1 = assertThrows(NullPointerException.class, () -> new RestrictOperator(null, (r, t) -> true));
         assertEquals("Expression can't be null", e1.getMessage());
 
-        NullPointerException e2 = assertThrows(NullPointerException.class, () -> new RestrictOperator(new IdentityExpression(Relation.NULLARY_TUPLE), null));
+        NullPointerException e2 = assertThrows(NullPointerException.class, () -> new RestrictOperator(new IdentityExpression(Relation.NULLARY_TUPLE), (BiPredicate<Relation, Tuple>) null));
         assertEquals("Predicate can't be null", e2.getMessage());
+
+        NullPointerException e3 = assertThrows(NullPointerException.class, () -> new RestrictOperator(new IdentityExpression(Relation.NULLARY_TUPLE), (TuplePredicate) null));
+        assertEquals("Predicate can't be null", e3.getMessage());
+    }
+
+    @Test
+    public void shouldRestrictWithPredicateExpression() {
+        Relation relation = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("a", 1).withValue("b", "x").select())
+                .addTuple(new TupleSelector().withValue("a", 2).withValue("b", "y").select())
+                .addTuple(new TupleSelector().withValue("a", 3).withValue("b", "x").select())
+                .addTuple(new TupleSelector().withValue("a", 4).withValue("b", "z").select())
+                .select();
+
+        Relation expected = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("a", 3).withValue("b", "x").select())
+                .addTuple(new TupleSelector().withValue("a", 4).withValue("b", "z").select())
+                .select();
+
+        RestrictOperator restrict = new RestrictOperator(
+                new IdentityExpression(relation),
+                and(gt("a", 1), or(in("b", "x", "z"), not(ne("a", 2)))));
+        assertEquals(
+                new RelationSelector()
+                        .addTuple(new TupleSelector().withValue("a", 2).withValue("b", "y").select())
+                        .addTuple(new TupleSelector().withValue("a", 3).withValue("b", "x").select())
+                        .addTuple(new TupleSelector().withValue("a", 4).withValue("b", "z").select())
+                        .select(),
+                restrict.execute());
+
+        RestrictOperator narrowed = new RestrictOperator(new IdentityExpression(relation), and(ge("a", 3), le("a", 4)));
+        assertEquals(expected, narrowed.execute());
+        assertEquals(expected, new PipelinedExecutor().execute(narrowed));
+        assertEquals(
+                new RelationSelector().withSchema(relation.schema()).select(),
+                new RestrictOperator(new IdentityExpression(relation), lt("a", 1)).execute());
+        assertSame(narrowed.getTuplePredicate(), narrowed.withOperands(Collections.singletonList(new IdentityExpression(relation))).getTuplePredicate());
+    }
+
+    @Test
+    public void shouldRestrictColumnarRelationWithPredicateExpression() {
+        Relation relation = new RelationSelector()
+                .withColumnarStorage()
+                .addTuple(new TupleSelector().withValue("a", 1).withValue("b", 1.5).withValue("c", "c1").select())
+                .addTuple(new TupleSelector().withValue("a", 2).withValue("b", 2.5).withValue("c", "c2").select())
+                .addTuple(new TupleSelector().withValue("a", 3).withValue("b", 3.5).withValue("c", "c3").select())
+                .select();
+
+        Relation result = new RestrictOperator(new IdentityExpression(relation), or(eq("a", 1), gt("b", 3.0))).execute();
+
+        Relation expected = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("a", 1).withValue("b", 1.5).withValue("c", "c1").select())
+                .addTuple(new TupleSelector().withValue("a", 3).withValue("b", 3.5).withValue("c", "c3").select())
+                .select();
+
+        assertTrue(result.storage() instanceof ColumnarRelationStorage);
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void shouldFailIfPredicateDoesNotMatchSchema() {
+        Relation relation = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("a", 1).withValue("b", "x").select())
+                .select();
+
+        assertThrows(AttributeNotFoundException.class,
+                () -> new RestrictOperator(new IdentityExpression(relation), eq("c", 1)).execute());
+
+        RelationalException e1 = assertThrows(RelationalException.class,
+                () -> new RestrictOperator(new IdentityExpression(relation), eq("a", "1")).execute());
+        assertEquals("Can't compare values of type 'java.lang.Integer' and 'java.lang.String'", e1.getMessage());
+
+        RelationalException e2 = assertThrows(RelationalException.class,
+                () -> new RestrictOperator(new IdentityExpression(relation), compare(attribute("a"), ComparisonOperator.EQ, attribute("b"))).execute());
+        assertEquals("Can't compare values of type 'java.lang.Integer' and 'java.lang.String'", e2.getMessage());
+    }
+
+    @Test
+    public void shouldRestrictInParallel() {
+        RelationSelector relationSelector = new RelationSelector();
+        RelationSelector columnarSelector = new RelationSelector().withColumnarStorage();
+        RelationSelector expectedSelector = new RelationSelector();
+        for (int i = 0; i < 10000; i++) {
+            Tuple tuple = new TupleSelector().withValue("a", i).withValue("b", "b" + i % 10).select();
+            relationSelector.addTuple(tuple);
+            columnarSelector.addTuple(tuple);
+            if (i % 10 == 3) {
+                expectedSelector.addTuple(tuple);
+            }
+        }
+        Relation relation = relationSelector.select();
+        Relation columnar = columnarSelector.select();
+        Relation expected = expectedSelector.select();
+
+        assertEquals(expected, new RestrictOperator(new IdentityExpression(relation), eq("b", "b3")).parallel().execute());
+        assertEquals(expected, new RestrictOperator(new IdentityExpression(relation), (r, t) -> t.getValue("b").equals("b3")).parallel().execute());
+
+        Relation columnarResult = new RestrictOperator(new IdentityExpression(columnar), eq("b", "b3")).parallel().execute();
+        assertTrue(columnarResult.storage() instanceof ColumnarRelationStorage);
+        assertEquals(expected, columnarResult);
+
+        RestrictOperator restrict = new RestrictOperator(new IdentityExpression(relation), eq("b", "b3")).parallel();
+        assertTrue(restrict.withOperands(Collections.singletonList(new IdentityExpression(relation))).isParallel());
+        assertFalse(restrict.sequential().isParallel());
+        assertTrue(restrict.isParallel());
+        assertNotSame(restrict, restrict.parallel());
     }
 }
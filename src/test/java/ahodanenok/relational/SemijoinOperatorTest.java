@@ -0,0 +1,111 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.algebra.*;
+import ahodanenok.relational.exception.RelationalException;
+import ahodanenok.relational.execution.PipelinedExecutor;
+import ahodanenok.relational.expression.IdentityExpression;
+import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.optimizer.QueryOptimizer;
+import org.junit.jupiter.api.Test;
+
+import static ahodanenok.relational.predicate.Predicates.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SemijoinOperatorTest {
+
+    private final Relation customers = new RelationSelector()
+            .addTuple(new TupleSelector().withValue("customer", 1).withValue("name", "a").select())
+            .addTuple(new TupleSelector().withValue("customer", 2).withValue("name", "b").select())
+            .addTuple(new TupleSelector().withValue("customer", 3).withValue("name", "c").select())
+            .select();
+
+    private final Relation orders = new RelationSelector()
+            .addTuple(new TupleSelector().withValue("order", 10).withValue("customer", 1).select())
+            .addTuple(new TupleSelector().withValue("order", 11).withValue("customer", 1).select())
+            .addTuple(new TupleSelector().withValue("order", 12).withValue("customer", 3).select())
+            .select();
+
+    @Test
+    public void shouldSelectMatchingTuples() {
+        Relation expected = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("customer", 1).withValue("name", "a").select())
+                .addTuple(new TupleSelector().withValue("customer", 3).withValue("name", "c").select())
+                .select();
+
+        RelationalExpression expr = new SemijoinOperator(new IdentityExpression(customers), new IdentityExpression(orders));
+        assertEquals(customers.schema(), expr.schema());
+        assertEquals(expected, expr.execute());
+        assertEquals(expected, new PipelinedExecutor().execute(expr));
+        assertEquals(new ProjectOperator(
+                new JoinOperator(new IdentityExpression(customers), new IdentityExpression(orders)), "customer", "name").execute(),
+                expr.execute());
+
+        // right operand is not an identity expression in the cursor
+        RelationalExpression restricted = new SemijoinOperator(
+                new IdentityExpression(customers), new RestrictOperator(new IdentityExpression(orders), gt("order", 11)));
+        assertEquals(new PipelinedExecutor().execute(restricted), restricted.execute());
+        assertEquals(1, restricted.execute().cardinality());
+    }
+
+    @Test
+    public void shouldSelectNotMatchingTuples() {
+        Relation expected = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("customer", 2).withValue("name", "b").select())
+                .select();
+
+        RelationalExpression expr = new AntijoinOperator(new IdentityExpression(customers), new IdentityExpression(orders));
+        assertEquals(expected, expr.execute());
+        assertEquals(expected, new PipelinedExecutor().execute(expr));
+
+        RelationalExpression restricted = new AntijoinOperator(
+                new IdentityExpression(customers), new RestrictOperator(new IdentityExpression(orders), gt("order", 11)));
+        assertEquals(new PipelinedExecutor().execute(restricted), restricted.execute());
+        assertEquals(2, restricted.execute().cardinality());
+    }
+
+    @Test
+    public void shouldUseIndexOfRightRelation() {
+        orders.index("customer");
+
+        assertEquals(2, new SemijoinOperator(new IdentityExpression(customers), new IdentityExpression(orders)).execute().cardinality());
+        assertEquals(1, new AntijoinOperator(new IdentityExpression(customers), new IdentityExpression(orders)).execute().cardinality());
+        assertEquals(2, new PipelinedExecutor().execute(
+                new SemijoinOperator(new IdentityExpression(customers), new IdentityExpression(orders))).cardinality());
+    }
+
+    @Test
+    public void shouldMatchWithoutCommonAttributes() {
+        IdentityExpression exprA = new IdentityExpression(customers);
+
+        assertEquals(customers, new SemijoinOperator(exprA, new IdentityExpression(Relation.NULLARY_TUPLE)).execute());
+        assertTrue(new SemijoinOperator(exprA, new IdentityExpression(Relation.NULLARY_EMPTY)).execute().isEmpty());
+        assertTrue(new AntijoinOperator(exprA, new IdentityExpression(Relation.NULLARY_TUPLE)).execute().isEmpty());
+        assertEquals(customers, new AntijoinOperator(exprA, new IdentityExpression(Relation.NULLARY_EMPTY)).execute());
+        assertEquals(customers, new PipelinedExecutor().execute(
+                new AntijoinOperator(exprA, new RestrictOperator(new IdentityExpression(Relation.NULLARY_TUPLE), (r, t) -> false))));
+    }
+
+    @Test
+    public void shouldPushRestrictionIntoLeftOperand() {
+        RelationalExpression expr = new RestrictOperator(
+                new AntijoinOperator(new IdentityExpression(customers), new IdentityExpression(orders)),
+                eq("name", "b"));
+
+        RelationalExpression optimized = new QueryOptimizer().optimize(expr);
+        assertTrue(optimized instanceof AntijoinOperator);
+        assertTrue(((AntijoinOperator) optimized).operands().get(0) instanceof RestrictOperator);
+        assertEquals(expr.execute(), optimized.execute());
+    }
+
+    @Test
+    public void shouldFailOnCommonAttributesWithDifferentTypes() {
+        Relation other = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("customer", "1").select())
+                .select();
+
+        assertThrows(RelationalException.class,
+                () -> new SemijoinOperator(new IdentityExpression(customers), new IdentityExpression(other)).execute());
+        assertThrows(RelationalException.class,
+                () -> new AntijoinOperator(new IdentityExpression(customers), new IdentityExpression(other)).schema());
+    }
+}
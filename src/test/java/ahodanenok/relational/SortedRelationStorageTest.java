@@ -0,0 +1,132 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.algebra.DifferenceOperator;
+import ahodanenok.relational.algebra.IntersectOperator;
+import ahodanenok.relational.algebra.JoinOperator;
+import ahodanenok.relational.exception.AttributeNotFoundException;
+import ahodanenok.relational.exception.RelationSchemaMismatchException;
+import ahodanenok.relational.exception.RelationalException;
+import ahodanenok.relational.execution.PipelinedExecutor;
+import ahodanenok.relational.expression.IdentityExpression;
+import ahodanenok.relational.expression.RelationalExpression;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SortedRelationStorageTest {
+
+    private final Relation a = relation(500, i -> new TupleSelector()
+            .withValue("a", i % 50).withValue("b", "b" + i).withValue("c", i % 3 == 0).select());
+
+    private final Relation b = relation(120, i -> new TupleSelector()
+            .withValue("a", i % 70).withValue("c", i % 2 == 0).withValue("d", (long) i).select());
+
+    private final Relation c = relation(300, i -> new TupleSelector()
+            .withValue("a", i % 60).withValue("b", "b" + i * 2).withValue("c", i % 3 == 0).select());
+
+    @Test
+    public void shouldSortTuples() {
+        Relation sorted = SortedRelationStorage.sort(a, " a", "b");
+        assertTrue(sorted.storage() instanceof OrderedRelationStorage);
+        assertEquals(Arrays.asList("a", "b"), ((OrderedRelationStorage) sorted.storage()).ordering());
+        assertEquals(a, sorted);
+
+        List<Tuple> tuples = sorted.tuples().collect(Collectors.toList());
+        for (int i = 1; i < tuples.size(); i++) {
+            Tuple prev = tuples.get(i - 1);
+            Tuple next = tuples.get(i);
+            int cmp = Integer.compare((Integer) prev.getValue("a"), (Integer) next.getValue("a"));
+            assertTrue(cmp < 0 || cmp == 0 && ((String) prev.getValue("b")).compareTo((String) next.getValue("b")) < 0);
+        }
+
+        a.tuples().forEach(t -> assertTrue(sorted.contains(t)));
+        assertFalse(sorted.contains(new TupleSelector().withValue("a", 1).withValue("b", "b2").withValue("c", false).select()));
+        assertFalse(sorted.contains(new TupleSelector().withValue("a", 1).select()));
+    }
+
+    @Test
+    public void shouldRejectInvalidOrdering() {
+        Relation relation = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("a", 1).withValue("x", new Object()).select())
+                .select();
+
+        assertThrows(RelationalException.class, () -> SortedRelationStorage.sort(relation, "x"));
+        // ordering of BigDecimal is not consistent with equals
+        assertThrows(RelationalException.class, () -> SortedRelationStorage.sort(new RelationSelector()
+                .addTuple(new TupleSelector().withValue("a", new BigDecimal("1.0")).select())
+                .select(), "a"));
+        assertThrows(AttributeNotFoundException.class, () -> SortedRelationStorage.sort(relation, "b"));
+        assertThrows(IllegalArgumentException.class, () -> SortedRelationStorage.sort(relation));
+        assertThrows(IllegalArgumentException.class, () -> SortedRelationStorage.sort(relation, "a", "a"));
+        assertThrows(IllegalArgumentException.class, () -> SortedRelationStorage.ofSorted(a.schema(),
+                Collections.singletonList("a"), a.tuples().sorted((x, y) -> -Integer.compare(
+                        (Integer) x.getValue("a"), (Integer) y.getValue("a"))).collect(Collectors.toList())));
+    }
+
+    @Test
+    public void shouldMergeJoin() {
+        assertMerged(new JoinOperator(sorted(a, "a"), sorted(b, "a", "c")), join(a, b), "a");
+        assertMerged(new JoinOperator(sorted(b, "a", "c"), sorted(a, "a", "c")), join(a, b), "a", "c");
+        assertMerged(new JoinOperator(sorted(a, "a", "b"), sorted(c, "a", "b", "c")), join(a, c), "a", "b");
+        assertMerged(new JoinOperator(sorted(a, "c", "a"), sorted(c, "c")), join(a, c), "c");
+
+        // orderings don't start with the same attribute
+        Relation notMerged = new JoinOperator(sorted(a, "a"), sorted(b, "c")).execute();
+        assertFalse(notMerged.storage() instanceof OrderedRelationStorage);
+        assertEquals(join(a, b).execute(), notMerged);
+    }
+
+    @Test
+    public void shouldMergeSetOperators() {
+        assertMerged(new IntersectOperator(sorted(a, "a"), sorted(c, "a")),
+                new IntersectOperator(new IdentityExpression(a), new IdentityExpression(c)), "a");
+        assertMerged(new IntersectOperator(sorted(a, "c", "b"), sorted(c, "c", "b", "a")),
+                new IntersectOperator(new IdentityExpression(a), new IdentityExpression(c)), "c", "b");
+        assertMerged(new DifferenceOperator(sorted(a, "b"), sorted(c, "b")),
+                new DifferenceOperator(new IdentityExpression(a), new IdentityExpression(c)), "b");
+        assertMerged(new DifferenceOperator(sorted(c, "a", "b"), sorted(a, "a")),
+                new DifferenceOperator(new IdentityExpression(c), new IdentityExpression(a)), "a");
+
+        // every tuple has the same key
+        assertMerged(new IntersectOperator(sorted(a, "c"), sorted(a, "c")),
+                new IntersectOperator(new IdentityExpression(a), new IdentityExpression(a)), "c");
+
+        assertThrows(RelationSchemaMismatchException.class, () -> new IntersectOperator(sorted(a, "a"), sorted(b, "a")).execute());
+        assertThrows(RelationSchemaMismatchException.class, () -> new PipelinedExecutor().execute(
+                new DifferenceOperator(sorted(a, "a"), sorted(b, "a"))));
+    }
+
+    private void assertMerged(RelationalExpression merged, RelationalExpression hashed, String... ordering) {
+        Relation expected = hashed.execute();
+
+        Relation result = merged.execute();
+        assertTrue(result.storage() instanceof OrderedRelationStorage);
+        assertEquals(Arrays.asList(ordering), ((OrderedRelationStorage) result.storage()).ordering());
+        assertEquals(expected, result);
+        assertEquals(expected, new PipelinedExecutor().execute(merged));
+    }
+
+    private static RelationalExpression join(Relation left, Relation right) {
+        return new JoinOperator(new IdentityExpression(left), new IdentityExpression(right));
+    }
+
+    private static RelationalExpression sorted(Relation relation, String... ordering) {
+        return new IdentityExpression(SortedRelationStorage.sort(relation, ordering));
+    }
+
+    private static Relation relation(int count, IntFunction<Tuple> tuple) {
+        RelationSelector selector = new RelationSelector();
+        for (int i = 0; i < count; i++) {
+            selector.addTuple(tuple.apply(i));
+        }
+
+        return selector.select();
+    }
+}
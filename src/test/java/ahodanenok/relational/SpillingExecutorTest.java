@@ -0,0 +1,248 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.algebra.*;
+import ahodanenok.relational.exception.RelationalException;
+import ahodanenok.relational.execution.SpillingExecutor;
+import ahodanenok.relational.expression.IdentityExpression;
+import ahodanenok.relational.expression.RelationalExpression;
+import ahodanenok.relational.io.SpilledRelationStorage;
+import ahodanenok.relational.io.SpillingJoin;
+import ahodanenok.relational.io.SpillingTupleSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+import static ahodanenok.relational.predicate.Predicates.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpillingExecutorTest {
+
+    @TempDir
+    Path dir;
+
+    private final Relation a = relation(300, i -> new TupleSelector()
+            .withValue("a", i).withValue("b", "b" + i % 30).withValue("c", i % 2 == 0).select());
+
+    private final Relation b = relation(60, i -> new TupleSelector()
+            .withValue("b", "b" + i % 45).withValue("d", (long) i).select());
+
+    @Test
+    public void shouldKeepTuplesInMemoryWithinBudget() {
+        SpillingTupleSet set = new SpillingTupleSet(a.schema(), 1 << 20, dir);
+        a.tuples().forEach(set::add);
+        a.tuples().forEach(set::add);
+        assertFalse(set.isSpilled());
+
+        Relation result = set.build();
+        assertFalse(result.storage() instanceof SpilledRelationStorage);
+        assertEquals(a, result);
+        assertThrows(IllegalStateException.class, set::build);
+    }
+
+    @Test
+    public void shouldSpillAndDeduplicateTuples() throws IOException {
+        SpillingTupleSet set = new SpillingTupleSet(a.schema(), 10_000, dir);
+        a.tuples().forEach(set::add);
+        a.tuples().forEach(set::add);
+        assertTrue(set.isSpilled());
+
+        Relation result = set.build();
+        assertTrue(result.storage() instanceof SpilledRelationStorage);
+        assertEquals(a.cardinality(), result.cardinality());
+        a.tuples().forEach(t -> assertTrue(result.contains(t)));
+        assertFalse(result.contains(new TupleSelector()
+                .withValue("a", -1).withValue("b", "b1").withValue("c", true).select()));
+        assertEquals(a, result);
+        assertEquals(a.cardinality(), result.tuples().distinct().count());
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertTrue(files.count() <= 16 * 16);
+        }
+    }
+
+    @Test
+    public void shouldPartitionLargeFilesAgain() throws IOException {
+        Relation relation = relation(6000, i -> new TupleSelector().withValue("a", i).select());
+        SpillingTupleSet set = new SpillingTupleSet(relation.schema(), 1000, dir);
+        relation.tuples().forEach(set::add);
+        assertEquals(relation, set.build());
+
+        try (Stream<Path> files = Files.list(dir)) {
+            // files of the first level are replaced with the files of the second one
+            long count = files.count();
+            assertTrue(count > 16 && count <= 16 * 16, "Files: " + count);
+        }
+    }
+
+    @Test
+    public void shouldSpillWithZeroBudget() {
+        SpillingTupleSet set = new SpillingTupleSet(b.schema(), 0, dir);
+        b.tuples().forEach(set::add);
+        assertTrue(set.isSpilled());
+        assertEquals(b, set.build());
+    }
+
+    @Test
+    public void shouldFailToSpillUnsupportedTypes() {
+        Relation relation = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("a", new Object()).select())
+                .select();
+
+        SpillingTupleSet set = new SpillingTupleSet(relation.schema(), 0, dir);
+        assertThrows(RelationalException.class, () -> relation.tuples().forEach(set::add));
+        assertThrows(IllegalArgumentException.class, () -> new SpillingTupleSet(relation.schema(), -1, dir));
+    }
+
+    @Test
+    public void shouldExecuteWithinBudget() {
+        assertResults(new SpillingExecutor(1 << 20, dir));
+    }
+
+    @Test
+    public void shouldExecuteSpillingResults() {
+        assertResults(new SpillingExecutor(20_000, dir));
+    }
+
+    @Test
+    public void shouldExecuteSpillingEverything() {
+        SpillingExecutor executor = new SpillingExecutor(0, dir);
+        assertResult(executor, new DifferenceOperator(
+                new ProjectOperator(join(), "b", "c"),
+                new ProjectOperator(new RestrictOperator(new IdentityExpression(a), eq("c", true)), "b", "c")));
+    }
+
+    @Test
+    public void shouldSpillJoinedResult() {
+        Relation result = new SpillingExecutor(10_000, dir).execute(join());
+        assertTrue(result.storage() instanceof SpilledRelationStorage);
+        assertEquals(join().execute(), result);
+    }
+
+    @Test
+    public void shouldDeleteFiles() throws IOException {
+        RelationalExpression expr = new ProjectOperator(new JoinOperator(
+                new ProjectOperator(new IdentityExpression(a), "a", "b"),
+                new ProjectOperator(new IdentityExpression(b), "b", "d")), "a", "d");
+        Relation result = new SpillingExecutor(0, dir).execute(expr);
+        assertEquals(expr.execute(), result);
+
+        // only the files of the result are left
+        SpilledRelationStorage storage = (SpilledRelationStorage) result.storage();
+        try (Stream<Path> files = Files.list(dir)) {
+            assertTrue(files.count() <= 16);
+        }
+
+        storage.close();
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+        assertThrows(IllegalStateException.class, () -> result.contains(Tuple.EMPTY));
+        storage.close();
+    }
+
+    @Test
+    public void shouldDeleteFilesOfFailedJoin() throws IOException {
+        SpillingJoin join = new SpillingJoin(0, dir);
+
+        Relation unsupported = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("b", "b1").withValue("x", new Object()).select())
+                .select();
+        assertThrows(RelationalException.class, () -> join.join(a, unsupported, new JoinOperator(
+                new IdentityExpression(a), new IdentityExpression(unsupported)).schema()));
+        assertNoFiles();
+
+        // the left relation is partitioned before the right one fails
+        Relation failingB = new Relation(b.schema(), failingStorage(b, 0));
+        assertThrows(IllegalStateException.class, () -> join.join(a, failingB, join().schema()));
+        assertNoFiles();
+
+        // the result is spilled before the right relation fails
+        Relation d = relation(10, i -> new TupleSelector().withValue("d", (long) i).select());
+        Relation failingD = new Relation(d.schema(), failingStorage(d, 5));
+        assertThrows(IllegalStateException.class, () -> join.join(a, failingD,
+                new ProductOperator(new IdentityExpression(a), new IdentityExpression(d)).schema()));
+        assertNoFiles();
+    }
+
+    /**
+     * Storage of the relation failing on the last tuple of the relation after its tuples were read the given number of times.
+     */
+    private static RelationStorage failingStorage(Relation relation, int successfulReads) {
+        return new RelationStorage() {
+
+            private int reads;
+
+            @Override
+            public RelationSchema schema() {
+                return relation.schema();
+            }
+
+            @Override
+            public int size() {
+                return relation.cardinality();
+            }
+
+            @Override
+            public boolean contains(Tuple tuple) {
+                return relation.contains(tuple);
+            }
+
+            @Override
+            public Stream<Tuple> tuples() {
+                boolean fail = reads++ >= successfulReads;
+                long[] count = { 0 };
+                return relation.tuples().peek(t -> {
+                    if (fail && ++count[0] == relation.cardinality()) {
+                        throw new IllegalStateException("Failed to read");
+                    }
+                });
+            }
+        };
+    }
+
+    private void assertNoFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private void assertResults(SpillingExecutor executor) {
+        assertResult(executor, join());
+        assertResult(executor, new JoinOperator(new IdentityExpression(b), new IdentityExpression(a)));
+        assertResult(executor, new ProjectOperator(join(), "b", "c"));
+        assertResult(executor, new ProductOperator(
+                new ProjectOperator(new IdentityExpression(a), "a"),
+                new ProjectOperator(new RestrictOperator(new IdentityExpression(b), lt("d", 5L)), "d")));
+        assertResult(executor, new UnionOperator(
+                new ProjectOperator(new IdentityExpression(a), "b"),
+                new ProjectOperator(new IdentityExpression(b), "b")));
+        assertResult(executor, new DifferenceOperator(
+                new ProjectOperator(new IdentityExpression(a), "b"),
+                new ProjectOperator(new IdentityExpression(b), "b")));
+        assertResult(executor, new RestrictOperator(join(), eq("c", true)));
+    }
+
+    private void assertResult(SpillingExecutor executor, RelationalExpression expr) {
+        Relation result = executor.execute(expr);
+        assertEquals(expr.execute(), result);
+        assertEquals(result.cardinality(), result.tuples().count());
+    }
+
+    private RelationalExpression join() {
+        return new JoinOperator(new IdentityExpression(a), new IdentityExpression(b));
+    }
+
+    private static Relation relation(int count, IntFunction<Tuple> tuple) {
+        RelationSelector selector = new RelationSelector();
+        for (int i = 0; i < count; i++) {
+            selector.addTuple(tuple.apply(i));
+        }
+
+        return selector.select();
+    }
+}
@@ -0,0 +1,135 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.algebra.Aggregate;
+import ahodanenok.relational.algebra.SummarizeOperator;
+import ahodanenok.relational.exception.AttributeAlreadyExistsException;
+import ahodanenok.relational.exception.AttributeNotFoundException;
+import ahodanenok.relational.exception.RelationalException;
+import ahodanenok.relational.execution.PipelinedExecutor;
+import ahodanenok.relational.expression.IdentityExpression;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SummarizeOperatorTest {
+
+    private final Relation sales = new RelationSelector()
+            .addTuple(new TupleSelector().withValue("id", 1).withValue("region", "north").withValue("qty", 3).withValue("price", 1.5).select())
+            .addTuple(new TupleSelector().withValue("id", 2).withValue("region", "north").withValue("qty", 5).withValue("price", 2.5).select())
+            .addTuple(new TupleSelector().withValue("id", 3).withValue("region", "south").withValue("qty", 4).withValue("price", 0.5).select())
+            .addTuple(new TupleSelector().withValue("id", 4).withValue("region", "north").withValue("qty", 1).withValue("price", 3.0).select())
+            .select();
+
+    @Test
+    public void shouldSummarizeByGroups() {
+        SummarizeOperator operator = new SummarizeOperator(new IdentityExpression(sales), "region")
+                .addAggregate("n", Aggregate.count())
+                .addAggregate("total", Aggregate.sum("qty"))
+                .addAggregate("revenue", Aggregate.sum("price"))
+                .addAggregate("least", Aggregate.min("qty"))
+                .addAggregate("most", Aggregate.max("price"))
+                .addAggregate("mean", Aggregate.avg("qty"))
+                .addAggregate("last", Aggregate.max("region"));
+
+        Relation expected = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("region", "north").withValue("n", 3L).withValue("total", 9L)
+                        .withValue("revenue", 7.0).withValue("least", 1).withValue("most", 3.0).withValue("mean", 3.0)
+                        .withValue("last", "north").select())
+                .addTuple(new TupleSelector().withValue("region", "south").withValue("n", 1L).withValue("total", 4L)
+                        .withValue("revenue", 0.5).withValue("least", 4).withValue("most", 0.5).withValue("mean", 4.0)
+                        .withValue("last", "south").select())
+                .select();
+
+        assertEquals(expected.schema(), operator.schema());
+        assertEquals(expected, operator.execute());
+        assertEquals(expected, operator.withOperands(operator.operands()).parallel().execute());
+        assertEquals(expected, new PipelinedExecutor().execute(operator));
+    }
+
+    @Test
+    public void shouldSummarizeWithoutGrouping() {
+        Relation expected = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("n", 4L).withValue("ids", "1,2,3,4").select())
+                .select();
+
+        SummarizeOperator operator = new SummarizeOperator(new IdentityExpression(sales))
+                .addAggregate("n", Aggregate.count())
+                .addAggregate("ids", Aggregate.of("id", String.class,
+                        Collectors.mapping(String::valueOf, Collectors.collectingAndThen(Collectors.toList(),
+                                ids -> ids.stream().sorted().collect(Collectors.joining(","))))));
+        assertEquals(expected, operator.execute());
+        assertEquals(expected, operator.parallel().execute());
+
+        assertEquals(Relation.NULLARY_TUPLE, new SummarizeOperator(new IdentityExpression(sales)).execute());
+        assertEquals(Relation.NULLARY_EMPTY, new SummarizeOperator(new IdentityExpression(Relation.NULLARY_EMPTY)).execute());
+    }
+
+    @Test
+    public void shouldSummarizeEmptyRelation() {
+        Relation empty = new RelationSelector().withSchema(sales.schema()).select();
+        SummarizeOperator operator = new SummarizeOperator(new IdentityExpression(empty), "region")
+                .addAggregate("total", Aggregate.sum("qty"));
+
+        Relation result = operator.execute();
+        assertTrue(result.isEmpty());
+        assertEquals(operator.schema(), result.schema());
+        assertEquals(Long.class, result.schema().getAttribute("total").getType());
+    }
+
+    @Test
+    public void shouldSummarizeManyGroupsInParallel() {
+        RelationSelector selector = new RelationSelector();
+        for (int i = 0; i < 10_000; i++) {
+            selector.addTuple(new TupleSelector().withValue("id", i).withValue("group", i % 7).select());
+        }
+        Relation relation = selector.select();
+
+        SummarizeOperator operator = new SummarizeOperator(new IdentityExpression(relation), "group")
+                .addAggregate("n", Aggregate.count())
+                .addAggregate("total", Aggregate.sum("id"))
+                .addAggregate("first", Aggregate.min("id"));
+        Relation sequential = operator.execute();
+        assertEquals(7, sequential.cardinality());
+        SummarizeOperator parallel = operator.parallel();
+        assertEquals(sequential, parallel.execute());
+        assertTrue(parallel.isParallel());
+        assertFalse(operator.isParallel());
+        assertFalse(parallel.sequential().isParallel());
+        assertTrue(parallel.isParallel());
+        assertTrue(sequential.contains(new TupleSelector()
+                .withValue("group", 0).withValue("n", 1429L).withValue("total", 7L * 1428 * 1429 / 2).withValue("first", 0).select()));
+    }
+
+    @Test
+    public void shouldFailOnInvalidAggregates() {
+        IdentityExpression expr = new IdentityExpression(sales);
+
+        assertThrows(AttributeNotFoundException.class, () -> new SummarizeOperator(expr, "x").schema());
+        assertThrows(AttributeNotFoundException.class,
+                () -> new SummarizeOperator(expr).addAggregate("s", Aggregate.sum("x")).execute());
+        assertThrows(RelationalException.class,
+                () -> new SummarizeOperator(expr).addAggregate("s", Aggregate.sum("region")).execute());
+        assertThrows(AttributeAlreadyExistsException.class,
+                () -> new SummarizeOperator(expr, "region").addAggregate("region", Aggregate.count()).schema());
+        assertThrows(RelationalException.class,
+                () -> new SummarizeOperator(expr).addAggregate("c", Aggregate.of("qty", Integer.class,
+                        Collectors.collectingAndThen(Collectors.counting(), n -> (Integer) null))).execute());
+        // values must have exactly the declared type
+        assertThrows(RelationalException.class,
+                () -> new SummarizeOperator(expr).addAggregate("c", Aggregate.of("qty", Number.class,
+                        Collectors.counting())).execute());
+    }
+
+    @Test
+    public void shouldCompareStructurally() {
+        IdentityExpression expr = new IdentityExpression(sales);
+        assertEquals(
+                new SummarizeOperator(expr, "region").addAggregate("n", Aggregate.count()).addAggregate("s", Aggregate.sum("qty")),
+                new SummarizeOperator(expr, "region").addAggregate("s", Aggregate.sum("qty")).addAggregate("n", Aggregate.count()));
+        assertNotEquals(
+                new SummarizeOperator(expr, "region").addAggregate("s", Aggregate.sum("qty")),
+                new SummarizeOperator(expr, "region").addAggregate("s", Aggregate.sum("price")));
+    }
+}
@@ -0,0 +1,108 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.exception.AttributeNotFoundException;
+import ahodanenok.relational.exception.RelationalException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TupleFactoryTest {
+
+    private final Tuple tuple = new TupleSelector().withValue("a", 1).withValue("b", "x").withValue("c", 2L).select();
+    private final RelationSchema schema = tuple.schema().relationSchema();
+
+    @Test
+    public void shouldProjectTuple() {
+        RelationSchema target = new RelationSchemaGenerator().withAttribute("c", Long.class).withAttribute("a", Integer.class).generate();
+        TupleFactory factory = TupleFactory.projection(schema, target);
+
+        Tuple result = factory.create(tuple);
+        assertSame(target, factory.schema());
+        assertEquals(new TupleSelector().withValue("a", 1).withValue("c", 2L).select(), result);
+        assertSame(target, result.schema().relationSchema());
+    }
+
+    @Test
+    public void shouldRenameTuple() {
+        Map<String, String> mappings = new HashMap<>();
+        mappings.put("a", "b");
+        mappings.put("b", "a");
+        RelationSchema target = new RelationSchemaGenerator()
+                .withAttribute("a", String.class)
+                .withAttribute("b", Integer.class)
+                .withAttribute("c", Long.class)
+                .generate();
+
+        assertEquals(
+                new TupleSelector().withValue("a", "x").withValue("b", 1).withValue("c", 2L).select(),
+                TupleFactory.rename(schema, target, mappings).create(tuple));
+    }
+
+    @Test
+    public void shouldCombineTuples() {
+        Tuple other = new TupleSelector().withValue("a", 1).withValue("d", true).select();
+        RelationSchema target = new RelationSchemaGenerator()
+                .withAttribute("a", Integer.class)
+                .withAttribute("b", String.class)
+                .withAttribute("c", Long.class)
+                .withAttribute("d", Boolean.class)
+                .generate();
+
+        TupleFactory factory = TupleFactory.union(schema, other.schema().relationSchema(), target);
+        assertEquals(
+                new TupleSelector().withValue("a", 1).withValue("b", "x").withValue("c", 2L).withValue("d", true).select(),
+                factory.create(tuple, other));
+        assertThrows(IllegalStateException.class, () -> factory.create(tuple));
+    }
+
+    @Test
+    public void shouldNotCreateFromTupleOfOtherSchema() {
+        Tuple other = new TupleSelector().withValue("a", 1).withValue("d", true).select();
+        RelationSchema target = new RelationSchemaGenerator().withAttribute("a", Integer.class).generate();
+
+        TupleFactory factory = TupleFactory.projection(schema, target);
+        assertThrows(RelationalException.class, () -> factory.create(other));
+    }
+
+    @Test
+    public void shouldNotCombineTuplesOfOtherSchemas() {
+        Tuple other = new TupleSelector().withValue("a", 1).withValue("d", true).select();
+        RelationSchema target = new RelationSchemaGenerator()
+                .withAttribute("a", Integer.class)
+                .withAttribute("b", String.class)
+                .withAttribute("c", Long.class)
+                .withAttribute("d", Boolean.class)
+                .generate();
+
+        TupleFactory factory = TupleFactory.union(schema, other.schema().relationSchema(), target);
+        assertThrows(RelationalException.class, () -> factory.create(other, tuple));
+        assertThrows(RelationalException.class, () -> factory.create(tuple, tuple));
+    }
+
+    @Test
+    public void shouldCreateTupleFromValues() {
+        TupleFactory factory = TupleFactory.of(schema);
+        assertEquals(tuple, factory.create(new Object[] { 1, "x", 2L }));
+        assertThrows(IllegalArgumentException.class, () -> factory.create(new Object[] { 1 }));
+        assertThrows(IllegalStateException.class, () -> factory.create(tuple));
+        assertThrows(RelationalException.class, () -> factory.create(new Object[] { 1L, "x", 2L }));
+        assertThrows(NullPointerException.class, () -> factory.create(new Object[] { 1, null, 2L }));
+    }
+
+    @Test
+    public void shouldFailIfSchemasDoNotMatch() {
+        RelationSchema missing = new RelationSchemaGenerator().withAttribute("d", Integer.class).generate();
+        assertThrows(AttributeNotFoundException.class, () -> TupleFactory.projection(schema, missing));
+
+        RelationSchema differentType = new RelationSchemaGenerator().withAttribute("a", Long.class).generate();
+        RelationalException e = assertThrows(RelationalException.class, () -> TupleFactory.projection(schema, differentType));
+        assertEquals("Attribute 'a' of type 'java.lang.Integer' can't be copied to attribute 'a' of type 'java.lang.Long'", e.getMessage());
+
+        assertThrows(NullPointerException.class, () -> TupleFactory.rename(schema, schema, null));
+        assertEquals(tuple, TupleFactory.rename(schema, schema, Collections.emptyMap()).create(tuple));
+    }
+}
@@ -0,0 +1,105 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.algebra.JoinOperator;
+import ahodanenok.relational.algebra.RestrictOperator;
+import ahodanenok.relational.exception.AttributeNotFoundException;
+import ahodanenok.relational.execution.PipelinedExecutor;
+import ahodanenok.relational.expression.IdentityExpression;
+import ahodanenok.relational.expression.RelationalExpression;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static ahodanenok.relational.predicate.Predicates.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TupleIndexTest {
+
+    private final Relation orders = new RelationSelector()
+            .addTuple(new TupleSelector().withValue("id", 1).withValue("customer", "c1").withValue("amount", 10L).select())
+            .addTuple(new TupleSelector().withValue("id", 2).withValue("customer", "c2").withValue("amount", 20L).select())
+            .addTuple(new TupleSelector().withValue("id", 3).withValue("customer", "c1").withValue("amount", 30L).select())
+            .addTuple(new TupleSelector().withValue("id", 4).withValue("customer", "c3").withValue("amount", 10L).select())
+            .select();
+
+    private final Relation customers = new RelationSelector()
+            .addTuple(new TupleSelector().withValue("customer", "c1").withValue("name", "Alice").select())
+            .addTuple(new TupleSelector().withValue("customer", "c2").withValue("name", "Bob").select())
+            .addTuple(new TupleSelector().withValue("customer", "c4").withValue("name", "Carol").select())
+            .select();
+
+    @Test
+    public void shouldBuildIndexOnFirstUse() {
+        assertTrue(orders.indexes().isEmpty());
+        assertNull(orders.findIndex(Collections.singleton("customer")));
+
+        TupleIndex index = orders.index("customer");
+        assertSame(index, orders.index(" customer"));
+        assertSame(index, orders.findIndex(Collections.singleton("customer")));
+        assertEquals(1, orders.indexes().size());
+
+        assertEquals(Collections.singletonList("customer"), index.attributeNames());
+        assertEquals(3, index.size());
+        assertEquals(
+                new HashSet<>(Arrays.asList(
+                        new TupleSelector().withValue("id", 1).withValue("customer", "c1").withValue("amount", 10L).select(),
+                        new TupleSelector().withValue("id", 3).withValue("customer", "c1").withValue("amount", 30L).select())),
+                new HashSet<>(index.lookup("c1")));
+        assertTrue(index.lookup("c5").isEmpty());
+    }
+
+    @Test
+    public void shouldBuildIndexOnMultipleAttributes() {
+        TupleIndex index = orders.index("customer", "amount");
+        assertEquals(Arrays.asList("amount", "customer"), index.attributeNames());
+        assertEquals(1, index.lookup(30L, "c1").size());
+        assertTrue(index.lookup(20L, "c1").isEmpty());
+    }
+
+    @Test
+    public void shouldBuildIndexWithRelation() {
+        Relation relation = new RelationSelector()
+                .withIndex("a")
+                .addTuple(new TupleSelector().withValue("a", 1).withValue("b", "x").select())
+                .select();
+
+        assertNotNull(relation.findIndex(Collections.singleton("a")));
+        assertThrows(AttributeNotFoundException.class, () -> new RelationSelector()
+                .withIndex("c")
+                .addTuple(new TupleSelector().withValue("a", 1).select())
+                .select());
+        assertThrows(AttributeNotFoundException.class, () -> orders.index("unknown"));
+        assertThrows(IllegalArgumentException.class, () -> orders.index());
+    }
+
+    @Test
+    public void shouldRestrictWithIndex() {
+        orders.index("customer");
+
+        RelationalExpression expr = new RestrictOperator(new IdentityExpression(orders), and(eq("customer", "c1"), gt("amount", 10L)));
+        Relation expected = new RelationSelector()
+                .addTuple(new TupleSelector().withValue("id", 3).withValue("customer", "c1").withValue("amount", 30L).select())
+                .select();
+
+        assertEquals(expected, expr.execute());
+        assertEquals(expected, new PipelinedExecutor().execute(expr));
+        assertTrue(new RestrictOperator(new IdentityExpression(orders), eq("customer", "c5")).execute().isEmpty());
+    }
+
+    @Test
+    public void shouldJoinWithIndex() {
+        RelationalExpression expr = new JoinOperator(new IdentityExpression(orders), new IdentityExpression(customers));
+        Relation expected = expr.execute();
+        assertEquals(3, expected.cardinality());
+
+        customers.index("customer");
+        assertEquals(expected, expr.execute());
+        assertEquals(expected, new PipelinedExecutor().execute(expr));
+
+        orders.index("customer");
+        assertEquals(expected, expr.execute());
+        assertEquals(expected, new JoinOperator(new IdentityExpression(customers), new IdentityExpression(orders)).execute());
+    }
+}
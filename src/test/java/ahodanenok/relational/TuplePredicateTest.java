@@ -0,0 +1,112 @@
+package ahodanenok.relational;
+
+import ahodanenok.relational.predicate.And;
+import ahodanenok.relational.predicate.Comparison;
+import ahodanenok.relational.predicate.ComparisonOperator;
+import ahodanenok.relational.predicate.TuplePredicate;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+import static ahodanenok.relational.predicate.Predicates.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TuplePredicateTest {
+
+    private final RelationSchema schema = new RelationSchemaGenerator()
+            .withAttribute("a", Integer.class)
+            .withAttribute("b", String.class)
+            .withAttribute("c", Long.class)
+            .generate();
+
+    @Test
+    public void shouldInspectPredicate() {
+        And predicate = and(eq("a", 1), or(lt("c", 10L), not(in("b", "x", "y"))));
+
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), predicate.attributeNames());
+        assertEquals(2, predicate.getOperands().size());
+
+        Comparison comparison = (Comparison) predicate.getOperands().get(0);
+        assertEquals(ComparisonOperator.EQ, comparison.getOperator());
+        assertEquals(Collections.singleton("a"), comparison.attributeNames());
+        assertEquals("(a = 1) AND ((c < 10) OR (NOT (b IN ('x', 'y'))))", predicate.toString());
+    }
+
+    @Test
+    public void shouldRenameAttributes() {
+        TuplePredicate predicate = and(eq("a", 1), gt("b", "x")).renameAttributes(Collections.singletonMap("a", "z"));
+        assertEquals(new HashSet<>(Arrays.asList("z", "b")), predicate.attributeNames());
+    }
+
+    @Test
+    public void shouldEvaluatePredicate() {
+        Tuple tuple = new TupleSelector().withValue("a", 5).withValue("b", "m").withValue("c", 7L).select();
+
+        assertTrue(test(eq("a", 5), tuple));
+        assertFalse(test(ne("a", 5), tuple));
+        assertTrue(test(and(ge("a", 5), le("a", 5), gt("b", "a"), lt("b", "z")), tuple));
+        assertTrue(test(or(eq("a", 1), eq("c", 7L)), tuple));
+        assertFalse(test(or(eq("a", 1), eq("c", 8L)), tuple));
+        assertTrue(test(in("b", "k", "m"), tuple));
+        assertTrue(test(not(in("a", 1, 2)), tuple));
+    }
+
+    @Test
+    public void shouldEvaluatePredicateOnColumns() {
+        RelationSelector selector = new RelationSelector().withColumnarStorage();
+        double[] doubles = { -1.5, -0.0, 0.0, 2.5, Double.NaN };
+        for (int i = 0; i < 20; i++) {
+            selector.addTuple(new TupleSelector()
+                    .withValue("a", i - 10)
+                    .withValue("b", "b" + i % 3)
+                    .withValue("c", (long) i * i)
+                    .withValue("d", doubles[i % doubles.length])
+                    .withValue("e", 10 - i)
+                    .select());
+        }
+        Relation relation = selector.select();
+        ColumnarRelationStorage storage = (ColumnarRelationStorage) relation.storage();
+
+        for (TuplePredicate predicate : Arrays.asList(
+                eq("a", 3), ne("a", 3), lt("a", 0), le("a", 0), gt("c", 50L), ge("c", 49L),
+                compare(literal(5), ComparisonOperator.LT, attribute("a")),
+                compare(attribute("a"), ComparisonOperator.EQ, attribute("e")),
+                compare(attribute("a"), ComparisonOperator.GT, attribute("e")),
+                eq("d", 0.0), eq("d", -0.0), eq("d", Double.NaN), lt("d", 0.0),
+                compare(literal(0.0), ComparisonOperator.GE, attribute("d")),
+                in("a", 1, 5, -7), in("c", 4L, 9L, 10L), in("d", Double.NaN, -0.0), in("b", "b1"),
+                and(gt("a", -5), or(eq("b", "b2"), not(in("d", 2.5)))))) {
+            Predicate<Tuple> expected = predicate.compile(relation.schema());
+            IntPredicate actual = predicate.compile(storage, relation.schema());
+            for (int row = 0; row < storage.size(); row++) {
+                assertEquals(expected.test(storage.getTuple(row)), actual.test(row), predicate + " at row " + row);
+            }
+        }
+    }
+
+    @Test
+    public void shouldIgnoreNullValuesOfIn() {
+        Tuple tuple = new TupleSelector().withValue("a", 5).withValue("b", "m").withValue("c", 7L).select();
+        assertTrue(test(in(attribute("a"), Arrays.asList(5, null)), tuple));
+        assertFalse(test(in("a", (Object) null), tuple));
+        assertEquals(Collections.singleton(5), in(attribute("a"), Arrays.asList(5, null)).getValues());
+    }
+
+    @Test
+    public void shouldFailOnInvalidPredicate() {
+        assertThrows(NullPointerException.class, () -> eq(null, 1));
+        assertThrows(NullPointerException.class, () -> eq("a", null));
+        assertThrows(NullPointerException.class, () -> and(eq("a", 1), null));
+        assertThrows(NullPointerException.class, () -> in("a", (Object[]) null));
+        assertThrows(NullPointerException.class, () -> in(attribute("a"), null));
+    }
+
+    private boolean test(TuplePredicate predicate, Tuple tuple) {
+        Predicate<Tuple> compiled = predicate.compile(schema);
+        return compiled.test(tuple);
+    }
+}
@@ -202,4 +202,42 @@ public class TupleSchemaTest {
         assertEquals("Attribute 'abc' not found", e.getMessage());
         assertEquals("abc", e.getName());
     }
+
+    @Test
+    public void shouldAssignSlotsInOrderOfAttributeNames() {
+        TupleSchema schema = new TupleSchemaGenerator()
+                .withAttribute("c", Byte.class)
+                .withAttribute("a", Integer.class)
+                .withAttribute("b", String.class)
+                .generate();
+
+        assertEquals(0, schema.indexOf("a"));
+        assertEquals(1, schema.indexOf(" b "));
+        assertEquals(2, schema.indexOf("c"));
+        assertEquals(-1, schema.indexOf("d"));
+
+        assertEquals(new Attribute("a", Integer.class), schema.getAttribute(0));
+        assertEquals(new Attribute("b", String.class), schema.getAttribute(1));
+        assertEquals(new Attribute("c", Byte.class), schema.getAttribute(2));
+    }
+
+    @Test
+    public void shouldInternEqualSchemas() {
+        TupleSchema schemaA = new TupleSchemaGenerator()
+                .withAttribute("a", Integer.class)
+                .withAttribute("b", String.class)
+                .generate();
+
+        TupleSchema schemaB = new TupleSchemaGenerator()
+                .withAttribute("b", String.class)
+                .withAttribute("a", Integer.class)
+                .generate();
+
+        Tuple tuple = new TupleSelector().withValue("a", 1).withValue("b", "2").select();
+
+        assertSame(schemaA, schemaB);
+        assertSame(schemaA, tuple.schema());
+        assertSame(TupleSchema.EMPTY, new TupleSchemaGenerator().generate());
+        assertSame(TupleSchema.EMPTY, Tuple.EMPTY.schema());
+    }
 }
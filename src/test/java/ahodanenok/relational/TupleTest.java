@@ -115,4 +115,39 @@ public class TupleTest {
         assertEquals(tupleB, tupleA);
         assertEquals(tupleA.hashCode(), tupleB.hashCode());
     }
+
+    @Test
+    public void shouldGetValuesBySlot() {
+        Tuple tuple = new TupleSelector()
+                .withValue("b", "hello!")
+                .withValue("c", true)
+                .withValue("a", 100L)
+                .select();
+
+        for (int i = 0; i < tuple.degree(); i++) {
+            String name = tuple.schema().getAttribute(i).getName();
+            assertEquals(tuple.getValue(name), tuple.getValue(i));
+        }
+
+        assertEquals(100L, tuple.getValue(tuple.schema().indexOf("a")));
+        assertThrows(IndexOutOfBoundsException.class, () -> tuple.getValue(3));
+    }
+
+    @Test
+    public void shouldCompareTuplesWithCachedHashes() {
+        Tuple tupleA = new TupleSelector().withValue("a", 1).withValue("b", "x").select();
+        Tuple tupleB = new TupleSelector().withValue("a", 1).withValue("b", "x").select();
+        Tuple tupleC = new TupleSelector().withValue("a", 2).withValue("b", "x").select();
+
+        // only one of the hashes is computed
+        assertEquals(tupleA.hashCode(), tupleA.hashCode());
+        assertEquals(tupleA, tupleB);
+        assertEquals(tupleB, tupleA);
+
+        assertEquals(tupleA.hashCode(), tupleB.hashCode());
+        assertNotEquals(tupleA.hashCode(), tupleC.hashCode());
+        assertNotEquals(tupleA, tupleC);
+        assertNotEquals(tupleC, tupleA);
+        assertNotEquals(tupleA, new TupleSelector().withValue("a", 1).withValue("c", "x").select());
+    }
 }